@@ -0,0 +1,115 @@
+package com.example.inventory_service.allocation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one allocation against a region served by {@code warehouses} warehouses, for orders of
+ * {@code lines} products. Stock is reset before every iteration so allocations never run dry.
+ * Built and run with the {@code benchmark} profile, see inventory_service/pom.xml.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WarehouseAllocatorBenchmark {
+    private static final String REGION = "DE";
+    private static final int PRODUCTS = 10_000;
+    private static final int ORDERS = 1024;
+
+    @Param({"4", "12", "40"})
+    public int warehouses;
+
+    @Param({"1", "5", "20"})
+    public int lines;
+
+    @Param({"200"})
+    public long budgetMicros;
+
+    private WarehouseAllocator allocator;
+    private UUID[] productIds;
+    private List<Map<UUID, Integer>> orders;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        Random random = new Random(42);
+        List<String> warehouseIds = new ArrayList<>();
+        Map<String, Long> costs = new HashMap<>();
+
+        for (int w = 0; w < warehouses; w++) {
+            String warehouseId = "WH-" + w;
+            warehouseIds.add(warehouseId);
+            costs.put(warehouseId, 300L + random.nextInt(2000));
+        }
+
+        allocator = new WarehouseAllocator(warehouseIds, Map.of(REGION, costs), 12);
+
+        productIds = new UUID[PRODUCTS];
+        for (int p = 0; p < PRODUCTS; p++) {
+            productIds[p] = UUID.randomUUID();
+        }
+
+        orders = new ArrayList<>(ORDERS);
+        for (int o = 0; o < ORDERS; o++) {
+            Map<UUID, Integer> order = new HashMap<>();
+
+            while (order.size() < lines) {
+                order.put(productIds[random.nextInt(PRODUCTS)], 1 + random.nextInt(3));
+            }
+            orders.add(order);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStock() {
+        // Most warehouses hold a little of everything, so cheap splits usually need two or three of them
+        Random random = new Random(7);
+
+        for (UUID productId : productIds) {
+            int[] free = new int[warehouses];
+
+            for (int w = 0; w < warehouses; w++) {
+                free[w] = random.nextInt(4) == 0 ? 0 : 1_000_000 + random.nextInt(3);
+            }
+            allocator.setFree(productId, free);
+        }
+    }
+
+    @Benchmark
+    public Optional<Map<UUID, Map<String, Integer>>> allocate() {
+        Map<UUID, Integer> order = orders.get(next++ & (ORDERS - 1));
+
+        return allocator.allocate(REGION, order, TimeUnit.MICROSECONDS.toNanos(budgetMicros));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WarehouseAllocatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
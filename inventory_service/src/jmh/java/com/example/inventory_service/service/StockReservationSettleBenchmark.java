@@ -0,0 +1,169 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.repository.InventoryBucketJdbcRepository;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.repository.StockMovementJdbcRepository;
+import com.example.inventory_service.repository.StockReservationJdbcRepository;
+import com.example.inventory_service.repository.WarehouseJdbcRepository;
+import com.example.inventory_service.scheduler.StockReservationPartitionMaintainer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of confirming and of releasing one order of {@code lines} unsharded products, with and
+ * without the movement log. Settling costs the same number of statements whatever the line count,
+ * so the three sizes should stay close. Runs against a real Postgres, since the cost is in the round
+ * trips: point {@code INVENTORY_TEST_DB_URL} (and {@code INVENTORY_TEST_DB_USER} /
+ * {@code INVENTORY_TEST_DB_PASSWORD}) at a scratch database. Each invocation settles a fresh order
+ * whose reservations are written beforehand, outside the measurement.
+ * Built and run with the {@code benchmark} profile, see inventory_service/pom.xml.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockReservationSettleBenchmark {
+    private static final String INSERT_RESERVATION = """
+            INSERT INTO inventory_service.stock_reservation (order_id, product_id, quantity, status, expires_at)
+            VALUES (?, ?, 1, 'RESERVED', CURRENT_TIMESTAMP + INTERVAL '15 minutes')
+            """;
+
+    private static final String INCREMENT_RESERVED = """
+            UPDATE inventory_service.inventory SET reserved_quantity = reserved_quantity + 1 WHERE product_id = ?
+            """;
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    @Param({"false", "true"})
+    public boolean movements;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private StockReservationService stockReservationService;
+    private StockMovementService stockMovementService;
+    private List<UUID> productIds;
+    private UUID orderId;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        String url = System.getenv("INVENTORY_TEST_DB_URL");
+
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("Set INVENTORY_TEST_DB_URL to a scratch Postgres database to run this benchmark");
+        }
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                url, System.getenv("INVENTORY_TEST_DB_USER"), System.getenv("INVENTORY_TEST_DB_PASSWORD"));
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        new StockReservationPartitionMaintainer(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry()).init();
+
+        StockMovementJdbcRepository stockMovementJdbcRepository = new StockMovementJdbcRepository(jdbcTemplate);
+        stockMovementService = new StockMovementService(stockMovementJdbcRepository);
+
+        // Only the collaborators confirm and release use; the JPA repositories, catalog and Kafka are not touched
+        stockReservationService = new StockReservationService(
+                null, null, null, null, null, null, null,
+                event -> { },
+                new InventoryBucketService(null, new InventoryBucketJdbcRepository(new NamedParameterJdbcTemplate(jdbcTemplate)), stockMovementService),
+                new InventoryJdbcRepository(jdbcTemplate),
+                new StockReservationJdbcRepository(jdbcTemplate),
+                stockMovementJdbcRepository,
+                new WarehouseJdbcRepository(jdbcTemplate));
+        ReflectionTestUtils.setField(stockReservationService, "movementsEnabled", movements);
+
+        productIds = new ArrayList<>(lines);
+        for (int p = 0; p < lines; p++) {
+            UUID productId = UUID.randomUUID();
+            productIds.add(productId);
+
+            jdbcTemplate.update("INSERT INTO inventory_service.products (id, sku, name, price) VALUES (?, ?, 'Benchmark', 1)",
+                    productId, "BENCH-" + productId);
+            jdbcTemplate.update("INSERT INTO inventory_service.inventory (product_id, available_quantity, reserved_quantity) VALUES (?, 1000000000, 0)",
+                    productId);
+        }
+    }
+
+    // Stands in for the scheduled fold, so confirmations do not slow down as unfolded movements pile up
+    @Setup(Level.Iteration)
+    public void foldMovements() {
+        productIds.forEach(productId -> transactionTemplate.executeWithoutResult(status -> stockMovementService.foldProduct(productId)));
+    }
+
+    // Level.Invocation is fine here: every invocation is several database round trips long
+    @Setup(Level.Invocation)
+    public void reserveOrder() {
+        orderId = UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_RESERVATION, productIds.stream().map(productId -> new Object[]{orderId, productId}).toList());
+            jdbcTemplate.batchUpdate(INCREMENT_RESERVED, productIds.stream().map(productId -> new Object[]{productId}).toList());
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        for (UUID productId : productIds) {
+            jdbcTemplate.update("DELETE FROM inventory_service.stock_reservation WHERE product_id = ?", productId);
+            jdbcTemplate.update("DELETE FROM inventory_service.stock_movements WHERE product_id = ?", productId);
+            jdbcTemplate.update("DELETE FROM inventory_service.inventory WHERE product_id = ?", productId);
+            jdbcTemplate.update("DELETE FROM inventory_service.products WHERE id = ?", productId);
+        }
+    }
+
+    @Benchmark
+    public void confirm() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                stockReservationService.confirmReservation(orderId);
+            } catch (InsufficientStockException e) {
+                throw new IllegalStateException("Benchmark stock ran out", e);
+            }
+        });
+    }
+
+    @Benchmark
+    public void release() {
+        transactionTemplate.executeWithoutResult(status -> stockReservationService.releaseReservation(orderId));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockReservationSettleBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
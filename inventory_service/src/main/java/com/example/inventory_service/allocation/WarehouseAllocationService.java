@@ -0,0 +1,273 @@
+package com.example.inventory_service.allocation;
+
+import com.example.events.inventory.InventoryAvailabilityChangedEvent;
+import com.example.inventory_service.dto.WarehouseStockDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.model.StockReservation;
+import com.example.inventory_service.repository.StockReservationJdbcRepository;
+import com.example.inventory_service.repository.WarehouseJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ships every reserved order from the cheapest feasible warehouses. The {@link WarehouseAllocator} is
+ * built from the warehouse tables at startup and rebuilt every {@code rebuild-interval-ms}; in
+ * between, products touched by a stock change here or on another instance have their warehouse
+ * stock re-read in batches. Allocation happens after the reservation committed and before
+ * StockReserved is published: the chosen warehouse is written onto the reservation rows, a row
+ * being split when its quantity ships from several warehouses. An order the warehouses cannot
+ * cover keeps its reservation unallocated.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "inventory.warehouses.enabled", havingValue = "true")
+@Slf4j
+public class WarehouseAllocationService {
+    @Value("${inventory.warehouses.allocation-budget-micros:200}")
+    private long allocationBudgetMicros;
+
+    @Value("${inventory.warehouses.exact-search-max-warehouses:12}")
+    private int exactSearchMaxWarehouses;
+
+    @Value("${inventory.warehouses.refresh-batch-size:1000}")
+    private int refreshBatchSize;
+
+    private final WarehouseJdbcRepository warehouseJdbcRepository;
+    private final StockReservationJdbcRepository stockReservationJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile WarehouseAllocator allocator = new WarehouseAllocator(List.of(), Map.of(), 0);
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    private final Timer allocationTimer;
+    private final Counter unallocatedOrders;
+
+    public WarehouseAllocationService(
+            WarehouseJdbcRepository warehouseJdbcRepository,
+            StockReservationJdbcRepository stockReservationJdbcRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.warehouseJdbcRepository = warehouseJdbcRepository;
+        this.stockReservationJdbcRepository = stockReservationJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        this.allocationTimer = Timer.builder("inventory.warehouses.allocation.duration")
+                .description("Time to choose the warehouses of one order")
+                .register(meterRegistry);
+        this.unallocatedOrders = Counter.builder("inventory.warehouses.unallocated")
+                .description("Reserved orders the warehouses shipping to their region could not cover")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Allocates the order's committed reservations to warehouses shipping to {@code region} and
+     * records the split. Never throws: an order that cannot be allocated stays reserved without a
+     * warehouse.
+     */
+    public void assign(UUID orderId, String region, List<StockReservation> reservations) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        reservations.forEach(reservation -> quantities.merge(reservation.getProduct().getId(), reservation.getQuantity(), Integer::sum));
+
+        long startedAt = System.nanoTime();
+        Optional<Map<UUID, Map<String, Integer>>> split = allocator.allocate(region, quantities, TimeUnit.MICROSECONDS.toNanos(allocationBudgetMicros));
+        allocationTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+        if (split.isEmpty()) {
+            unallocatedOrders.increment();
+            log.info("No warehouse split covers order {} for region {}", orderId, region);
+            return;
+        }
+
+        List<StockReservation> assigned = new ArrayList<>();
+        List<StockReservation> splits = new ArrayList<>();
+        splitRows(reservations, split.get(), assigned, splits);
+
+        try {
+            Boolean recorded = transactionTemplate.execute(status -> {
+                if (!stockReservationJdbcRepository.assignWarehouses(assigned, splits)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+
+            if (Boolean.TRUE.equals(recorded)) {
+                log.info("Allocated order {} to warehouses {}", orderId, split.get());
+            } else {
+                log.warn("Order {} was settled before its warehouses were recorded", orderId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to record the warehouses of order {}", orderId, e);
+        } finally {
+            // Either way the database is the truth for these products again
+            markDirty(quantities.keySet());
+        }
+    }
+
+    public void setStock(UUID productId, String warehouseId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Warehouse stock cannot be negative");
+        }
+        if (!allocator.getWarehouseIds().contains(warehouseId)) {
+            throw new IllegalArgumentException("Unknown or inactive warehouse: " + warehouseId);
+        }
+
+        warehouseJdbcRepository.setStock(productId, warehouseId, quantity);
+        markDirty(List.of(productId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        markDirty(event.getQuantities().keySet());
+    }
+
+    public void onRemoteChange(InventoryAvailabilityChangedEvent event) {
+        markDirty(event.getProductIds().stream().map(UUID::fromString).toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${inventory.warehouses.rebuild-interval-ms:600000}",
+            fixedDelayString = "${inventory.warehouses.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        rebuilding = true;
+
+        try {
+            List<String> warehouseIds = warehouseJdbcRepository.findActiveWarehouseIds();
+            WarehouseAllocator rebuilt = new WarehouseAllocator(warehouseIds, warehouseJdbcRepository.findShippingCosts(), exactSearchMaxWarehouses);
+            List<WarehouseStockDto> stock = warehouseJdbcRepository.findAllFreeStock();
+
+            load(rebuilt, stock);
+            allocator = rebuilt;
+
+            log.info("Warehouse allocator rebuilt with {} warehouses and {} stock rows", warehouseIds.size(), stock.size());
+        } finally {
+            rebuilding = false;
+            dirty.addAll(changedDuringRebuild);
+            changedDuringRebuild.clear();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.warehouses.refresh-interval-ms:200}")
+    public void refreshDirty() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<UUID> productIds = new ArrayList<>(dirty);
+        dirty.removeAll(productIds);
+
+        for (int from = 0; from < productIds.size(); from += refreshBatchSize) {
+            List<UUID> batch = productIds.subList(from, Math.min(from + refreshBatchSize, productIds.size()));
+
+            try {
+                WarehouseAllocator current = allocator;
+                Map<UUID, int[]> free = load(current, warehouseJdbcRepository.findFreeStock(batch));
+
+                // Products whose last warehouse row is gone have no stock left anywhere
+                batch.stream()
+                        .filter(productId -> !free.containsKey(productId))
+                        .forEach(productId -> current.setFree(productId, new int[current.getWarehouseIds().size()]));
+            } catch (RuntimeException e) {
+                log.error("Failed to refresh warehouse stock of {} products, retrying on the next run", batch.size(), e);
+                dirty.addAll(batch);
+            }
+        }
+    }
+
+    private static Map<UUID, int[]> load(WarehouseAllocator target, List<WarehouseStockDto> stock) {
+        List<String> warehouseIds = target.getWarehouseIds();
+        Map<UUID, int[]> free = new HashMap<>();
+
+        for (WarehouseStockDto row : stock) {
+            int slot = warehouseIds.indexOf(row.getWarehouseId());
+
+            if (slot >= 0) {
+                free.computeIfAbsent(row.getProductId(), productId -> new int[warehouseIds.size()])[slot] = row.getFreeQuantity();
+            }
+        }
+
+        free.forEach(target::setFree);
+        return free;
+    }
+
+    /**
+     * Hands out each product's split over its reservation rows in order: a row keeps its id for the
+     * first warehouse it draws from and gets a new row for every further one.
+     */
+    static void splitRows(List<StockReservation> reservations, Map<UUID, Map<String, Integer>> split,
+                          List<StockReservation> assigned, List<StockReservation> splits) {
+        Map<UUID, Deque<Map.Entry<String, Integer>>> shares = new HashMap<>();
+        split.forEach((productId, byWarehouse) -> shares.put(productId, new ArrayDeque<>(
+                byWarehouse.entrySet().stream().map(share -> Map.entry(share.getKey(), share.getValue())).toList())));
+
+        for (StockReservation reservation : reservations) {
+            Deque<Map.Entry<String, Integer>> remainingShares = shares.get(reservation.getProduct().getId());
+            int remaining = reservation.getQuantity();
+            boolean first = true;
+
+            while (remaining > 0 && !remainingShares.isEmpty()) {
+                Map.Entry<String, Integer> share = remainingShares.poll();
+                int quantity = Math.min(remaining, share.getValue());
+
+                StockReservation row = copyOf(reservation);
+                row.setId(first ? reservation.getId() : UUID.randomUUID());
+                row.setWarehouseId(share.getKey());
+                row.setQuantity(quantity);
+                (first ? assigned : splits).add(row);
+
+                if (share.getValue() > quantity) {
+                    remainingShares.push(Map.entry(share.getKey(), share.getValue() - quantity));
+                }
+                remaining -= quantity;
+                first = false;
+            }
+        }
+    }
+
+    private static StockReservation copyOf(StockReservation reservation) {
+        StockReservation copy = new StockReservation();
+        copy.setOrderId(reservation.getOrderId());
+        copy.setProduct(reservation.getProduct());
+        copy.setBucket(reservation.getBucket());
+        copy.setStatus(reservation.getStatus());
+        copy.setExpiresAt(reservation.getExpiresAt());
+        copy.setCreatedAt(reservation.getCreatedAt());
+
+        return copy;
+    }
+
+    private void markDirty(Collection<UUID> productIds) {
+        dirty.addAll(productIds);
+
+        if (rebuilding) {
+            changedDuringRebuild.addAll(productIds);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.inventory_service.allocation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Chooses the warehouses an order ships from. Free stock is held in memory per product, one slot per
+ * warehouse, and the warehouses shipping to each region are kept sorted by shipment cost, so an
+ * allocation touches nothing but arrays. The cheapest split is the cheapest set of warehouses whose
+ * combined free stock covers every line; it is searched exactly when the region has at most
+ * {@code exactSearchMaxWarehouses} candidates, starting from a greedy answer, and the search stops
+ * with the best split found so far once the time budget is spent.
+ * <p>
+ * Allocated quantities are taken off the in-memory free stock straight away so that consecutive
+ * orders see each other; the owner replaces the levels with the database's view as it refreshes them.
+ * Each slot is taken with a compare-and-set against the level the split was planned on, so concurrent
+ * allocations never hand out the same units: the loser gives back what it took and plans again.
+ */
+public class WarehouseAllocator {
+    private static final AtomicIntegerArray NO_STOCK = new AtomicIntegerArray(0);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final List<String> warehouseIds;
+    private final Map<String, Region> regions;
+    private final int exactSearchMaxWarehouses;
+    private final Map<UUID, AtomicIntegerArray> freeStock = new ConcurrentHashMap<>();
+
+    /**
+     * @param costsByRegion shipment cost in cents per region and warehouse id; warehouses missing from
+     *                      a region's map do not ship there
+     */
+    public WarehouseAllocator(List<String> warehouseIds, Map<String, Map<String, Long>> costsByRegion, int exactSearchMaxWarehouses) {
+        this.warehouseIds = List.copyOf(warehouseIds);
+        this.exactSearchMaxWarehouses = Math.min(exactSearchMaxWarehouses, 20);
+        this.regions = new HashMap<>();
+
+        costsByRegion.forEach((region, costs) -> {
+            // Candidate sets are bit masks, so a region considers its 63 cheapest warehouses at most
+            Integer[] slots = costs.keySet().stream()
+                    .map(this.warehouseIds::indexOf)
+                    .filter(slot -> slot >= 0)
+                    .sorted(Comparator.comparing(slot -> costs.get(this.warehouseIds.get(slot))))
+                    .limit(Long.SIZE - 1)
+                    .toArray(Integer[]::new);
+
+            int[] slotArray = Arrays.stream(slots).mapToInt(Integer::intValue).toArray();
+            long[] costArray = Arrays.stream(slots).mapToLong(slot -> costs.get(this.warehouseIds.get(slot))).toArray();
+
+            regions.put(region, new Region(slotArray, costArray));
+        });
+    }
+
+    public List<String> getWarehouseIds() {
+        return warehouseIds;
+    }
+
+    /**
+     * Replaces a product's free stock; {@code free[i]} belongs to {@code getWarehouseIds().get(i)}.
+     */
+    public void setFree(UUID productId, int[] free) {
+        freeStock.put(productId, new AtomicIntegerArray(free));
+    }
+
+    public int getFree(UUID productId, String warehouseId) {
+        AtomicIntegerArray free = freeStock.getOrDefault(productId, NO_STOCK);
+        int slot = warehouseIds.indexOf(warehouseId);
+
+        return slot >= 0 && slot < free.length() ? free.get(slot) : 0;
+    }
+
+    /**
+     * Splits {@code quantities} across the warehouses shipping to {@code region} at the lowest total
+     * shipment cost and takes the split off the free stock. Returns, per product, the quantity per
+     * warehouse id in ascending cost order, or empty when the warehouses cannot cover the order or
+     * concurrent allocations keep changing its stock.
+     */
+    public Optional<Map<UUID, Map<String, Integer>>> allocate(String region, Map<UUID, Integer> quantities, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Region candidates = regions.get(region);
+
+        if (candidates == null || quantities.isEmpty()) {
+            return Optional.empty();
+        }
+
+        UUID[] productIds = quantities.keySet().toArray(UUID[]::new);
+        int[] requested = new int[productIds.length];
+        int[][] free = new int[productIds.length][];
+        AtomicIntegerArray[] stocks = new AtomicIntegerArray[productIds.length];
+
+        for (int i = 0; i < productIds.length; i++) {
+            requested[i] = quantities.get(productIds[i]);
+        }
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            for (int i = 0; i < productIds.length; i++) {
+                stocks[i] = freeStock.getOrDefault(productIds[i], NO_STOCK);
+                free[i] = candidates.freeOf(stocks[i]);
+            }
+
+            long chosen = greedy(candidates, requested, free);
+
+            if (chosen == 0) {
+                return Optional.empty();
+            }
+
+            if (candidates.size() <= exactSearchMaxWarehouses) {
+                chosen = exact(candidates, requested, free, chosen, deadline);
+            }
+
+            Map<UUID, Map<String, Integer>> split = take(candidates, productIds, requested, free, stocks, chosen);
+
+            if (split != null) {
+                return Optional.of(split);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Repeatedly adds the warehouse covering the most remaining units per unit of cost. Returns the
+     * chosen candidates as a bit mask, or 0 when they cannot cover every line.
+     */
+    private long greedy(Region candidates, int[] requested, int[][] free) {
+        int[] remaining = requested.clone();
+        long chosen = 0;
+
+        while (true) {
+            int best = -1;
+            double bestScore = 0;
+
+            for (int c = 0; c < candidates.size(); c++) {
+                if ((chosen & (1L << c)) != 0) {
+                    continue;
+                }
+
+                long covered = 0;
+                for (int i = 0; i < remaining.length; i++) {
+                    covered += Math.min(remaining[i], Math.max(free[i][c], 0));
+                }
+
+                double score = covered / (double) Math.max(candidates.costs()[c], 1);
+                if (covered > 0 && score > bestScore) {
+                    best = c;
+                    bestScore = score;
+                }
+            }
+
+            if (best < 0) {
+                return 0;
+            }
+
+            chosen |= 1L << best;
+            boolean done = true;
+
+            for (int i = 0; i < remaining.length; i++) {
+                remaining[i] -= Math.min(remaining[i], Math.max(free[i][best], 0));
+                done &= remaining[i] == 0;
+            }
+
+            if (done) {
+                return chosen;
+            }
+        }
+    }
+
+    /**
+     * Walks every candidate subset, cheapest found first wins, ties go to fewer warehouses. Subset
+     * costs are built from the subset without its lowest bit, so each one costs one addition.
+     */
+    private long exact(Region candidates, int[] requested, int[][] free, long bestMask, long deadline) {
+        int subsets = 1 << candidates.size();
+        long[] cost = new long[subsets];
+        long bestCost = candidates.cost(bestMask);
+
+        for (int mask = 1; mask < subsets; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            cost[mask] = cost[mask & (mask - 1)] + candidates.costs()[lowest];
+
+            if ((mask & 0xFF) == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+            if (cost[mask] > bestCost || (cost[mask] == bestCost && Integer.bitCount(mask) >= Long.bitCount(bestMask))) {
+                continue;
+            }
+            if (covers(mask, requested, free)) {
+                bestMask = mask;
+                bestCost = cost[mask];
+            }
+        }
+
+        return bestMask;
+    }
+
+    private static boolean covers(long mask, int[] requested, int[][] free) {
+        for (int i = 0; i < requested.length; i++) {
+            long available = 0;
+
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                available += Math.max(free[i][Long.numberOfTrailingZeros(bits)], 0);
+            }
+
+            if (available < requested[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Takes the split off the levels it was planned on. Returns null, with every slot taken so far
+     * given back, as soon as a slot no longer holds the level the plan read.
+     */
+    private Map<UUID, Map<String, Integer>> take(Region candidates, UUID[] productIds, int[] requested, int[][] free,
+                                                 AtomicIntegerArray[] stocks, long chosen) {
+        Map<UUID, Map<String, Integer>> split = new LinkedHashMap<>();
+
+        for (int i = 0; i < productIds.length; i++) {
+            Map<String, Integer> byWarehouse = new LinkedHashMap<>();
+            AtomicIntegerArray stock = stocks[i];
+            int remaining = requested[i];
+
+            // Candidates are in cost order, so each line drains the cheapest chosen warehouse first
+            for (int c = 0; c < candidates.size() && remaining > 0; c++) {
+                int quantity = Math.min(remaining, Math.max(free[i][c], 0));
+
+                if ((chosen & (1L << c)) == 0 || quantity == 0) {
+                    continue;
+                }
+
+                int slot = candidates.slots()[c];
+                if (!stock.compareAndSet(slot, free[i][c], free[i][c] - quantity)) {
+                    giveBack(stocks, split, byWarehouse, i);
+                    return null;
+                }
+
+                byWarehouse.put(warehouseIds.get(slot), quantity);
+                remaining -= quantity;
+            }
+
+            split.put(productIds[i], Collections.unmodifiableMap(byWarehouse));
+        }
+
+        return split;
+    }
+
+    private void giveBack(AtomicIntegerArray[] stocks, Map<UUID, Map<String, Integer>> split, Map<String, Integer> partial,
+                          int failedLine) {
+        int line = 0;
+
+        for (Map<String, Integer> byWarehouse : split.values()) {
+            give(stocks[line++], byWarehouse);
+        }
+        give(stocks[failedLine], partial);
+    }
+
+    private void give(AtomicIntegerArray stock, Map<String, Integer> byWarehouse) {
+        byWarehouse.forEach((warehouseId, quantity) -> stock.addAndGet(warehouseIds.indexOf(warehouseId), quantity));
+    }
+
+    private record Region(int[] slots, long[] costs) {
+        int size() {
+            return slots.length;
+        }
+
+        long cost(long mask) {
+            long total = 0;
+
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                total += costs[Long.numberOfTrailingZeros(bits)];
+            }
+
+            return total;
+        }
+
+        int[] freeOf(AtomicIntegerArray stock) {
+            int[] free = new int[slots.length];
+
+            for (int c = 0; c < slots.length; c++) {
+                free[c] = slots[c] < stock.length() ? stock.get(slots[c]) : 0;
+            }
+
+            return free;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.inventory_service.config;
+
+import com.example.events.inventory.ProductAvailabilityEvent;
+import com.example.events.inventory.ProductAvailabilityState;
+import com.example.events.inventory.StockMovementEvent;
+import com.example.inventory_service.service.InventoryAvailabilityStore;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+/**
+ * Folds the stock movement topic into a RocksDB-backed table of per-product availability, queryable
+ * through {@link InventoryAvailabilityStore}, and mirrors every update to the compacted
+ * {@code inventory-availability} topic for other services to materialize.
+ */
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(name = "inventory.availability-streams.enabled", havingValue = "true")
+public class InventoryStreamsConfig {
+    public static final String AVAILABILITY_STORE = "inventory-availability-store";
+
+    @Value("#{kafkaTopics.stockMovements}")
+    private String stockMovementsTopic;
+
+    @Value("#{kafkaTopics.inventoryAvailability}")
+    private String inventoryAvailabilityTopic;
+
+    @Value("${spring.kafka.consumer.properties.schema.registry.url}")
+    private String schemaRegistryUrl;
+
+    @Bean
+    public NewTopic stockMovementsTopic() {
+        return TopicBuilder.name(stockMovementsTopic)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic inventoryAvailabilityTopic() {
+        // Same partitioning as the movements, one latest record per product
+        return TopicBuilder.name(inventoryAvailabilityTopic)
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .config(TopicConfig.MIN_COMPACTION_LAG_MS_CONFIG, "60000")
+                .build();
+    }
+
+    @Bean
+    public KTable<String, ProductAvailabilityState> availabilityTable(StreamsBuilder streamsBuilder) {
+        Serde<StockMovementEvent> movementSerde = avroSerde();
+        Serde<ProductAvailabilityState> stateSerde = avroSerde();
+        Serde<ProductAvailabilityEvent> availabilitySerde = avroSerde();
+
+        KTable<String, ProductAvailabilityState> availability = streamsBuilder
+                .stream(stockMovementsTopic, Consumed.with(Serdes.String(), movementSerde))
+                .groupByKey()
+                .aggregate(
+                        () -> null,
+                        (productId, movement, current) -> InventoryAvailabilityStore.fold(current, movement),
+                        Materialized.<String, ProductAvailabilityState, KeyValueStore<Bytes, byte[]>>as(AVAILABILITY_STORE)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(stateSerde)
+                );
+
+        // Only the levels leave the topology; a product is published once its first snapshot is in
+        availability.toStream()
+                .filter((productId, state) -> state != null && state.getSeeded())
+                .mapValues(InventoryAvailabilityStore::toEvent)
+                .to(inventoryAvailabilityTopic, Produced.with(Serdes.String(), availabilitySerde));
+
+        return availability;
+    }
+
+    @Bean
+    public KafkaStreamsInteractiveQueryService kafkaStreamsInteractiveQueryService(StreamsBuilderFactoryBean streamsBuilderFactoryBean) {
+        return new KafkaStreamsInteractiveQueryService(streamsBuilderFactoryBean);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Serde<T> avroSerde() {
+        Map<String, Object> config = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, schemaRegistryUrl,
+                KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, true
+        );
+
+        KafkaAvroSerializer serializer = new KafkaAvroSerializer();
+        serializer.configure(config, false);
+        KafkaAvroDeserializer deserializer = new KafkaAvroDeserializer();
+        deserializer.configure(config, false);
+
+        return (Serde<T>) Serdes.serdeFrom(serializer, deserializer);
+    }
+}
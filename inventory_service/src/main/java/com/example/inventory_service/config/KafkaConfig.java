@@ -1,6 +1,7 @@
 package com.example.inventory_service.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +14,9 @@ public class KafkaConfig {
     @Value("#{kafkaTopics.stockReserved}")
     private String stockReservationTopic;
 
+    @Value("#{kafkaTopics.inventoryAvailabilityChanged}")
+    private String inventoryAvailabilityChangedTopic;
+
     @Bean
     public NewTopic stockReservationTopic() {
         return TopicBuilder.name(stockReservationTopic)
@@ -20,4 +24,14 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     };
+
+    @Bean
+    public NewTopic inventoryAvailabilityChangedTopic() {
+        // Only useful to instances that are running right now
+        return TopicBuilder.name(inventoryAvailabilityChangedTopic)
+                .partitions(1)
+                .replicas(1)
+                .config(TopicConfig.RETENTION_MS_CONFIG, "3600000")
+                .build();
+    }
 }
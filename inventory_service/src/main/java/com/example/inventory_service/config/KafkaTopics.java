@@ -15,4 +15,9 @@ public class KafkaTopics {
     private String paymentFailed;
     private String paymentProcessed;
     private String lowStockAlert;
+    private String inventoryAvailabilityChanged;
+    private String stockMovements;
+    private String inventoryAvailability;
+    private String reservationCommands;
+    private String reservationResults;
 }
@@ -0,0 +1,38 @@
+package com.example.inventory_service.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+@ConditionalOnProperty(name = "inventory.ownership.enabled", havingValue = "true")
+public class ReservationOwnershipConfig {
+    @Value("#{kafkaTopics.reservationCommands}")
+    private String reservationCommandsTopic;
+
+    @Value("#{kafkaTopics.reservationResults}")
+    private String reservationResultsTopic;
+
+    @Value("${inventory.ownership.partitions:6}")
+    private int partitions;
+
+    @Bean
+    public NewTopic reservationCommandsTopic() {
+        // The partition count decides product ownership, see OwnedStock#partitionOf
+        return TopicBuilder.name(reservationCommandsTopic)
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public NewTopic reservationResultsTopic() {
+        return TopicBuilder.name(reservationResultsTopic)
+                .partitions(partitions)
+                .replicas(1)
+                .build();
+    }
+}
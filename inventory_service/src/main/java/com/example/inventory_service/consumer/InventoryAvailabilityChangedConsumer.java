@@ -0,0 +1,45 @@
+package com.example.inventory_service.consumer;
+
+import com.example.events.inventory.InventoryAvailabilityChangedEvent;
+import com.example.inventory_service.allocation.WarehouseAllocationService;
+import com.example.inventory_service.service.InventoryAvailabilityCache;
+import com.example.inventory_service.service.InventoryAvailabilityIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class InventoryAvailabilityChangedConsumer {
+    private final InventoryAvailabilityCache inventoryAvailabilityCache;
+    private final ObjectProvider<InventoryAvailabilityIndex> inventoryAvailabilityIndex;
+    private final ObjectProvider<WarehouseAllocationService> warehouseAllocationService;
+
+    public InventoryAvailabilityChangedConsumer(
+            InventoryAvailabilityCache inventoryAvailabilityCache,
+            ObjectProvider<InventoryAvailabilityIndex> inventoryAvailabilityIndex,
+            ObjectProvider<WarehouseAllocationService> warehouseAllocationService
+    ) {
+        this.inventoryAvailabilityCache = inventoryAvailabilityCache;
+        this.inventoryAvailabilityIndex = inventoryAvailabilityIndex;
+        this.warehouseAllocationService = warehouseAllocationService;
+    }
+
+    // Every instance needs every broadcast, so each one consumes in its own group from the live end
+    @KafkaListener(
+            topics = "#{kafkaTopics.inventoryAvailabilityChanged}",
+            groupId = "#{'inventory-availability-' + T(java.util.UUID).randomUUID()}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void availabilityChangedListener(ConsumerRecord<String, InventoryAvailabilityChangedEvent> record) {
+        InventoryAvailabilityChangedEvent event = record.value();
+
+        log.debug("Received availability change for {} products from {}", event.getProductIds().size(), event.getSourceInstance());
+
+        inventoryAvailabilityCache.onRemoteChange(event);
+        inventoryAvailabilityIndex.ifAvailable(index -> index.onRemoteChange(event));
+        warehouseAllocationService.ifAvailable(allocation -> allocation.onRemoteChange(event));
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.inventory_service.consumer;
+
+import com.example.events.inventory.StockReservedEvent;
+import com.example.events.order.OrderCreatedEvent;
+import com.example.inventory_service.allocation.WarehouseAllocationService;
+import com.example.inventory_service.dto.ReservationRequestDto;
+import com.example.inventory_service.event.DomainEvent;
+import com.example.inventory_service.event.StockReserved;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.mapper.StockReservationMapper;
+import com.example.inventory_service.model.StockReservation;
+import com.example.inventory_service.publisher.EventPublisher;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.service.ReservationStrategy;
+import com.example.shared_common.idempotency.EventIdempotencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Batch variant of {@link OrderCreatedEventConsumer}, enabled with
+ * {@code inventory.order-created.batch.enabled}. A whole poll is claimed in Redis with one round
+ * trip, each partition's orders are reserved in offset order in transactions of up to
+ * {@code transaction-size} orders, and the StockReserved events of every committed transaction are
+ * sent with a single producer flush at the end of the poll. Events raised inside a transaction, such
+ * as OutOfStock, are held back until it commits, so orders requeued after a rollback are not
+ * reported twice.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.order-created.batch.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "inventory.ownership.enabled", havingValue = "false", matchIfMissing = true)
+@Slf4j
+public class OrderCreatedBatchConsumer {
+    @Value("#{kafkaTopics.stockReserved}")
+    private String stockReservedTopic;
+
+    @Value("${inventory.order-created.batch.transaction-size:50}")
+    private int transactionSize;
+
+    private final ReservationStrategy reservationStrategy;
+    private final StockReservationMapper stockReservationMapper;
+    private final EventPublisher eventPublisher;
+    private final EventIdempotencyService eventIdempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final ObjectProvider<WarehouseAllocationService> warehouseAllocationService;
+
+    public OrderCreatedBatchConsumer(
+            ReservationStrategy reservationStrategy,
+            StockReservationMapper stockReservationMapper,
+            EventPublisher eventPublisher,
+            EventIdempotencyService eventIdempotencyService,
+            TransactionTemplate transactionTemplate,
+            InventoryJdbcRepository inventoryJdbcRepository,
+            ObjectProvider<WarehouseAllocationService> warehouseAllocationService
+    ) {
+        this.reservationStrategy = reservationStrategy;
+        this.stockReservationMapper = stockReservationMapper;
+        this.eventPublisher = eventPublisher;
+        this.eventIdempotencyService = eventIdempotencyService;
+        this.transactionTemplate = transactionTemplate;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.warehouseAllocationService = warehouseAllocationService;
+    }
+
+    @KafkaListener(topics = "#{kafkaTopics.orderCreated}", batch = "true")
+    public void orderCreatedBatchListener(List<ConsumerRecord<String, OrderCreatedEvent>> records) {
+        log.info("Received batch of {} orderCreated events", records.size());
+
+        List<String> eventIds = records.stream().map(record -> idempotencyKey(record.value())).toList();
+        Set<String> claimed = eventIdempotencyService.claimBatch(eventIds);
+        Set<String> completed = new HashSet<>();
+
+        try {
+            // A redelivered order can show up twice in one poll; only its first record is processed
+            Set<String> queued = new HashSet<>();
+            Map<TopicPartition, List<OrderCreatedEvent>> eventsByPartition = new LinkedHashMap<>();
+
+            for (ConsumerRecord<String, OrderCreatedEvent> record : records) {
+                String eventId = idempotencyKey(record.value());
+
+                if (claimed.contains(eventId) && queued.add(eventId)) {
+                    eventsByPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), partition -> new ArrayList<>())
+                            .add(record.value());
+                }
+            }
+
+            eventsByPartition.forEach((partition, events) -> reservePartition(events, completed));
+
+            eventPublisher.flush();
+        } finally {
+            Set<String> abandoned = new HashSet<>(claimed);
+            abandoned.removeAll(completed);
+
+            eventIdempotencyService.completeBatch(completed, abandoned);
+        }
+
+        log.info("Processed {} of {} orderCreated events ({} already processed)", completed.size(), records.size(), records.size() - claimed.size());
+    }
+
+    private void reservePartition(List<OrderCreatedEvent> events, Set<String> completed) {
+        Deque<OrderCreatedEvent> pending = new ArrayDeque<>(events);
+
+        while (!pending.isEmpty()) {
+            List<OrderCreatedEvent> chunk = new ArrayList<>(transactionSize);
+
+            while (!pending.isEmpty() && chunk.size() < transactionSize) {
+                chunk.add(pending.poll());
+            }
+
+            ChunkResult result;
+            List<DomainEvent> heldBack;
+
+            eventPublisher.startBuffering();
+            try {
+                result = reservationStrategy.joinsCallerTransaction()
+                        ? transactionTemplate.execute(status -> reserveChunk(chunk, status))
+                        : reserveChunk(chunk, null);
+            } finally {
+                heldBack = eventPublisher.stopBuffering();
+            }
+
+            if (result.failedAt() < 0) {
+                heldBack.forEach(eventPublisher::publish);
+
+                // Warehouses are chosen once the chunk's reservations are committed
+                result.reserved().forEach(order -> publishReserved(order.event(), order.reservations()));
+                chunk.forEach(event -> completed.add(idempotencyKey(event)));
+                continue;
+            }
+
+            // The chunk was rolled back because of one order: settle that order on its own and
+            // requeue the others, keeping their offset order. Their held-back events are dropped and
+            // raised again when they are reserved anew.
+            OrderCreatedEvent failed = chunk.get(result.failedAt());
+
+            if (result.retryAlone()) {
+                reserveAlone(failed);
+            } else {
+                heldBack.stream()
+                        .filter(event -> failed.getOrderId().equals(event.getAggregateId()))
+                        .forEach(eventPublisher::publish);
+            }
+            completed.add(idempotencyKey(failed));
+
+            for (int i = chunk.size() - 1; i >= 0; i--) {
+                if (i != result.failedAt()) {
+                    pending.addFirst(chunk.get(i));
+                }
+            }
+        }
+    }
+
+    private ChunkResult reserveChunk(List<OrderCreatedEvent> chunk, TransactionStatus status) {
+        List<ReservedOrder> reserved = new ArrayList<>();
+
+        if (status != null) {
+            // Each order locks its own products in order, but the chunk's orders would lock them in
+            // event order; taking every row up front keeps overlapping chunks from deadlocking
+            Set<UUID> productIds = new TreeSet<>(Comparator.comparing(UUID::toString));
+            chunk.forEach(event -> event.getItems().forEach(item -> productIds.add(UUID.fromString(item.getProductId()))));
+
+            inventoryJdbcRepository.lockRows(productIds);
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            OrderCreatedEvent orderCreatedEvent = chunk.get(i);
+            boolean failedWithException = false;
+
+            try {
+                List<StockReservation> reservations = reserve(orderCreatedEvent);
+
+                if (!reservations.isEmpty()) {
+                    reserved.add(new ReservedOrder(orderCreatedEvent, reservations));
+                    continue;
+                }
+            } catch (Exception | InsufficientStockException e) {
+                log.error("Error reserving stock for order {} in batch", orderCreatedEvent.getOrderId(), e);
+                failedWithException = true;
+            }
+
+            // An out-of-stock order that wrote nothing can share the transaction with the others
+            if (status != null && (failedWithException || status.isRollbackOnly())) {
+                status.setRollbackOnly();
+
+                return new ChunkResult(List.of(), i, failedWithException);
+            }
+        }
+
+        return new ChunkResult(reserved, -1, false);
+    }
+
+    private void reserveAlone(OrderCreatedEvent orderCreatedEvent) {
+        try {
+            List<StockReservation> reservations = reserve(orderCreatedEvent);
+
+            if (!reservations.isEmpty()) {
+                publishReserved(orderCreatedEvent, reservations);
+            }
+        } catch (Exception | InsufficientStockException e) {
+            log.error("Error processing order created event", e);
+        }
+    }
+
+    private List<StockReservation> reserve(OrderCreatedEvent orderCreatedEvent) throws InsufficientStockException {
+        List<ReservationRequestDto> reservationRequests = orderCreatedEvent.getItems()
+                .stream()
+                .map(item -> new ReservationRequestDto(
+                        UUID.fromString(item.getProductId()),
+                        item.getQuantity()))
+                .toList();
+
+        return reservationStrategy.reserve(UUID.fromString(orderCreatedEvent.getOrderId()), reservationRequests);
+    }
+
+    private void publishReserved(OrderCreatedEvent orderCreatedEvent, List<StockReservation> reservations) {
+        String orderId = orderCreatedEvent.getOrderId();
+
+        warehouseAllocationService.ifAvailable(allocation -> allocation.assign(
+                UUID.fromString(orderId), orderCreatedEvent.getShippingAddress().getCountry(), reservations));
+
+        StockReservedEvent stockReservedEvent = stockReservationMapper.toStockReservedEvent(reservations, orderId);
+        eventPublisher.publish(new StockReserved(stockReservedTopic, stockReservedEvent, orderId));
+    }
+
+    private static String idempotencyKey(OrderCreatedEvent orderCreatedEvent) {
+        return "stock-reservation-order-" + orderCreatedEvent.getOrderId();
+    }
+
+    private record ReservedOrder(OrderCreatedEvent event, List<StockReservation> reservations) {
+    }
+
+    private record ChunkResult(List<ReservedOrder> reserved, int failedAt, boolean retryAlone) {
+    }
+}
@@ -2,17 +2,20 @@ package com.example.inventory_service.consumer;
 
 import com.example.events.inventory.StockReservedEvent;
 import com.example.events.order.OrderCreatedEvent;
+import com.example.inventory_service.allocation.WarehouseAllocationService;
 import com.example.inventory_service.dto.ReservationRequestDto;
 import com.example.inventory_service.event.StockReserved;
 import com.example.inventory_service.exception.InsufficientStockException;
 import com.example.inventory_service.mapper.StockReservationMapper;
 import com.example.inventory_service.model.StockReservation;
 import com.example.inventory_service.publisher.EventPublisher;
-import com.example.inventory_service.service.StockReservationService;
+import com.example.inventory_service.service.ReservationStrategy;
 import com.example.shared_common.idempotency.EventIdempotencyService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
@@ -20,26 +23,31 @@ import java.util.List;
 import java.util.UUID;
 
 @Component
+@ConditionalOnProperty(name = "inventory.order-created.batch.enabled", havingValue = "false", matchIfMissing = true)
+@ConditionalOnProperty(name = "inventory.ownership.enabled", havingValue = "false", matchIfMissing = true)
 @Slf4j
 public class OrderCreatedEventConsumer {
     @Value("#{kafkaTopics.stockReserved}")
     private String stockReservedTopic;
 
-    private final StockReservationService stockReservationService;
+    private final ReservationStrategy reservationStrategy;
     private final StockReservationMapper stockReservationMapper;
     private final EventPublisher eventPublisher;
     private final EventIdempotencyService eventIdempotencyService;
+    private final ObjectProvider<WarehouseAllocationService> warehouseAllocationService;
 
     public OrderCreatedEventConsumer(
-            StockReservationService stockReservationService,
+            ReservationStrategy reservationStrategy,
             StockReservationMapper stockReservationMapper,
             EventPublisher eventPublisher,
-            EventIdempotencyService eventIdempotencyService
+            EventIdempotencyService eventIdempotencyService,
+            ObjectProvider<WarehouseAllocationService> warehouseAllocationService
     ) {
-        this.stockReservationService = stockReservationService;
+        this.reservationStrategy = reservationStrategy;
         this.stockReservationMapper = stockReservationMapper;
         this.eventPublisher = eventPublisher;
         this.eventIdempotencyService = eventIdempotencyService;
+        this.warehouseAllocationService = warehouseAllocationService;
     }
 
     @KafkaListener(topics = "#{kafkaTopics.orderCreated}")
@@ -63,12 +71,15 @@ public class OrderCreatedEventConsumer {
                                 item.getQuantity()))
                         .toList();
 
-                List<StockReservation> reservations = stockReservationService.reserveStock(
+                List<StockReservation> reservations = reservationStrategy.reserve(
                         UUID.fromString(orderCreatedEvent.getOrderId()),
                         reservationRequests
                 );
 
                 if (!reservations.isEmpty()) {
+                    warehouseAllocationService.ifAvailable(allocation -> allocation.assign(
+                            UUID.fromString(orderId), orderCreatedEvent.getShippingAddress().getCountry(), reservations));
+
                     StockReservedEvent stockReservedEvent = stockReservationMapper.toStockReservedEvent(reservations, orderId);
 
                     eventPublisher.publish(new StockReserved(stockReservedTopic, stockReservedEvent, orderId));
@@ -0,0 +1,44 @@
+package com.example.inventory_service.controller;
+
+import com.example.inventory_service.dto.StockAvailabilityDto;
+import com.example.inventory_service.service.InventoryAvailabilityStore;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/inventory/availability")
+@ConditionalOnProperty(name = "inventory.availability-streams.enabled", havingValue = "true")
+public class InventoryAvailabilityController {
+
+    private final InventoryAvailabilityStore inventoryAvailabilityStore;
+
+    public InventoryAvailabilityController(InventoryAvailabilityStore inventoryAvailabilityStore) {
+        this.inventoryAvailabilityStore = inventoryAvailabilityStore;
+    }
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<StockAvailabilityDto> getAvailability(
+            @PathVariable UUID productId,
+            @RequestParam(value = "local", defaultValue = "false") boolean local
+    ) {
+        Optional<StockAvailabilityDto> availability;
+
+        try {
+            availability = local ? inventoryAvailabilityStore.findLocal(productId) : inventoryAvailabilityStore.find(productId);
+        } catch (InvalidStateStoreException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        return availability.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.inventory_service.controller;
+
+import com.example.inventory_service.dto.InStockBitmapDto;
+import com.example.inventory_service.service.InventoryAvailabilityIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/inventory/in-stock")
+@ConditionalOnProperty(name = "inventory.availability-index.enabled", havingValue = "true")
+public class InventoryAvailabilityIndexController {
+
+    @Value("${inventory.availability-index.max-products:5000}")
+    private int maxProducts;
+
+    private final InventoryAvailabilityIndex inventoryAvailabilityIndex;
+
+    public InventoryAvailabilityIndexController(InventoryAvailabilityIndex inventoryAvailabilityIndex) {
+        this.inventoryAvailabilityIndex = inventoryAvailabilityIndex;
+    }
+
+    @PostMapping
+    public ResponseEntity<InStockBitmapDto> getInStock(@RequestBody List<UUID> productIds) {
+        if (productIds.size() > maxProducts) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        byte[] bitmap = inventoryAvailabilityIndex.inStock(productIds).toByteArray();
+
+        return ResponseEntity.ok(new InStockBitmapDto(productIds.size(), Base64.getEncoder().encodeToString(bitmap)));
+    }
+}
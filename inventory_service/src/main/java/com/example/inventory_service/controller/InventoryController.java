@@ -2,23 +2,30 @@ package com.example.inventory_service.controller;
 
 import com.example.inventory_service.dto.OrderItemDto;
 import com.example.inventory_service.dto.OrderItemInventoryCheckDto;
+import com.example.inventory_service.service.InventoryBucketService;
 import com.example.inventory_service.service.InventoryService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/inventory")
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final InventoryBucketService inventoryBucketService;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, InventoryBucketService inventoryBucketService) {
         this.inventoryService = inventoryService;
+        this.inventoryBucketService = inventoryBucketService;
     }
 
     @PostMapping
@@ -28,4 +35,28 @@ public class InventoryController {
 
         return ResponseEntity.ok(orderItemInventoryCheckDtoList);
     }
+
+    @PostMapping("/{productId}/restock")
+    public ResponseEntity<Void> restock(@PathVariable UUID productId, @RequestParam("quantity") int quantity) {
+        try {
+            if (!inventoryService.restock(productId, quantity)) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/{productId}/buckets")
+    public ResponseEntity<Void> setBucketCount(@PathVariable UUID productId, @RequestParam("count") int bucketCount) {
+        try {
+            inventoryBucketService.setBucketCount(productId, bucketCount);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,58 @@
+package com.example.inventory_service.controller;
+
+import com.example.inventory_service.service.InventoryExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Availability snapshots for downstream systems. Pass the largest {@code updatedAt} of the previous
+ * export as {@code updatedSince} to pull only what changed since; products changed shortly before it
+ * are sent again, so apply lines as upserts.
+ */
+@RestController
+@RequestMapping("/api/inventory/export")
+public class InventoryExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final InventoryExportService inventoryExportService;
+
+    public InventoryExportController(InventoryExportService inventoryExportService) {
+        this.inventoryExportService = inventoryExportService;
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "updatedSince", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            return response.body(out -> inventoryExportService.export(category, updatedSince, out));
+        }
+
+        return response
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+                    inventoryExportService.export(category, updatedSince, gzip);
+                    gzip.finish();
+                });
+    }
+}
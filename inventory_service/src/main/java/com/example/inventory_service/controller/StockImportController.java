@@ -0,0 +1,59 @@
+package com.example.inventory_service.controller;
+
+import com.example.inventory_service.dto.StockImportDto;
+import com.example.inventory_service.service.StockImportService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Bulk catalog and stock imports. The client picks the import id; sending the file again under the
+ * same id resumes after the last committed chunk, and GET reports how far an import got.
+ */
+@RestController
+@RequestMapping("/api/inventory/imports")
+public class StockImportController {
+
+    private final StockImportService stockImportService;
+
+    public StockImportController(StockImportService stockImportService) {
+        this.stockImportService = stockImportService;
+    }
+
+    @PutMapping(value = "/{importId}", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<StockImportDto> importStock(
+            @PathVariable UUID importId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body
+    ) {
+        StockImportService.Format format = "csv".equals(contentType.getSubtype())
+                ? StockImportService.Format.CSV
+                : StockImportService.Format.NDJSON;
+
+        try {
+            return ResponseEntity.ok(stockImportService.importLines(importId, format, body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/{importId}")
+    public ResponseEntity<StockImportDto> getImport(@PathVariable UUID importId) {
+        return stockImportService.getImport(importId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.inventory_service.controller;
+
+import com.example.inventory_service.allocation.WarehouseAllocationService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/inventory")
+@ConditionalOnProperty(name = "inventory.warehouses.enabled", havingValue = "true")
+public class WarehouseInventoryController {
+
+    private final WarehouseAllocationService warehouseAllocationService;
+
+    public WarehouseInventoryController(WarehouseAllocationService warehouseAllocationService) {
+        this.warehouseAllocationService = warehouseAllocationService;
+    }
+
+    @PutMapping("/{productId}/warehouses/{warehouseId}")
+    public ResponseEntity<Void> setWarehouseStock(
+            @PathVariable UUID productId,
+            @PathVariable String warehouseId,
+            @RequestParam("quantity") int quantity
+    ) {
+        try {
+            warehouseAllocationService.setStock(productId, warehouseId, quantity);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BucketAllocationDto {
+    private int bucket;
+    private int quantity;
+}
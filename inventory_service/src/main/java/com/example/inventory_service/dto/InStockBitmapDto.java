@@ -0,0 +1,18 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * In-stock flags for a list of products, packed eight to a byte and Base64-encoded. Bit {@code i}
+ * (byte {@code i / 8}, bit {@code i % 8} counting from the least significant) belongs to the
+ * {@code i}-th product of the request; trailing out-of-stock products may have no byte at all.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InStockBitmapDto {
+    private int count;
+    private String bitmap;
+}
@@ -0,0 +1,17 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryBucketDto {
+    private UUID productId;
+    private int bucket;
+    private int availableQuantity;
+    private int reservedQuantity;
+}
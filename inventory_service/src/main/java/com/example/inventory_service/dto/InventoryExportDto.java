@@ -0,0 +1,23 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryExportDto {
+    private UUID productId;
+    private String sku;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private boolean active;
+    private int availableToSell;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductAvailabilityDto {
+    private UUID productId;
+    private String name;
+    private BigDecimal price;
+    private Integer availableQuantity;
+    private Integer reservedQuantity;
+}
@@ -0,0 +1,20 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Read-only view of the product fields the reservation path needs, as held by the product catalog cache.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductSnapshotDto {
+    private final UUID id;
+    private final String sku;
+    private final String name;
+    private final BigDecimal price;
+    private final int lowStockThreshold;
+}
@@ -0,0 +1,18 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReleasedReservationDto {
+    private UUID orderId;
+    private UUID productId;
+    private int quantity;
+    private Integer bucket;
+    private String warehouseId;
+}
@@ -0,0 +1,18 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAvailabilityDto {
+    private UUID productId;
+    private int availableQuantity;
+    private int reservedQuantity;
+    private int freeQuantity;
+    private long updatedAt;
+}
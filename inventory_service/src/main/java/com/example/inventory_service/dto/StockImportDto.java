@@ -0,0 +1,22 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockImportDto {
+    private UUID id;
+    private String format;
+    private String status;
+    private long linesCommitted;
+    private long linesRejected;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
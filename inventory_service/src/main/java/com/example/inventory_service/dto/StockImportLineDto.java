@@ -0,0 +1,22 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a bulk import. Name and price create or update the product with that SKU; a positive
+ * quantity is added to its on-hand stock. Either part may be left out.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockImportLineDto {
+    private String sku;
+    private String name;
+    private BigDecimal price;
+    private String category;
+    private Integer quantity;
+}
@@ -0,0 +1,16 @@
+package com.example.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WarehouseStockDto {
+    private UUID productId;
+    private String warehouseId;
+    private int freeQuantity;
+}
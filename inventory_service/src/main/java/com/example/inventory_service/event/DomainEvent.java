@@ -18,7 +18,7 @@ public abstract class DomainEvent {
     protected DomainEvent(Object payload, String aggregateId) {
         this.eventId = UUID.randomUUID().toString();
         this.payload = payload;
-        this.eventId = aggregateId;
+        this.aggregateId = aggregateId;
     }
 
     public abstract String getEventType();
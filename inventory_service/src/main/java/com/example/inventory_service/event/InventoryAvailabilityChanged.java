@@ -0,0 +1,23 @@
+package com.example.inventory_service.event;
+
+import com.example.events.inventory.InventoryAvailabilityChangedEvent;
+
+public class InventoryAvailabilityChanged extends DomainEvent {
+    private final String inventoryAvailabilityChangedTopic;
+
+    public InventoryAvailabilityChanged(String inventoryAvailabilityChangedTopic, InventoryAvailabilityChangedEvent inventoryAvailabilityChangedEvent, String sourceInstance) {
+        super(inventoryAvailabilityChangedEvent, sourceInstance);
+
+        this.inventoryAvailabilityChangedTopic = inventoryAvailabilityChangedTopic;
+    }
+
+    @Override
+    public String getEventType() {
+        return inventoryAvailabilityChangedTopic;
+    }
+
+    @Override
+    public String getTopic() {
+        return inventoryAvailabilityChangedTopic;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.inventory_service.event;
+
+import com.example.events.inventory.ReservationCommandEvent;
+
+public class ReservationCommand extends DomainEvent {
+    private final String reservationCommandsTopic;
+
+    public ReservationCommand(String reservationCommandsTopic, ReservationCommandEvent reservationCommandEvent) {
+        super(reservationCommandEvent, reservationCommandEvent.getProductId());
+
+        this.reservationCommandsTopic = reservationCommandsTopic;
+    }
+
+    @Override
+    public String getEventType() {
+        return reservationCommandsTopic;
+    }
+
+    @Override
+    public String getTopic() {
+        return reservationCommandsTopic;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.inventory_service.event;
+
+import com.example.events.inventory.ReservationLineResultEvent;
+
+public class ReservationLineResult extends DomainEvent {
+    private final String reservationResultsTopic;
+
+    public ReservationLineResult(String reservationResultsTopic, ReservationLineResultEvent reservationLineResultEvent) {
+        super(reservationLineResultEvent, reservationLineResultEvent.getOrderId());
+
+        this.reservationResultsTopic = reservationResultsTopic;
+    }
+
+    @Override
+    public String getEventType() {
+        return reservationResultsTopic;
+    }
+
+    @Override
+    public String getTopic() {
+        return reservationResultsTopic;
+    }
+}
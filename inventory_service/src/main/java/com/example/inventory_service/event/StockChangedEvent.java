@@ -0,0 +1,30 @@
+package com.example.inventory_service.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-process notification that reserved or on-hand stock changed for a set of products.
+ * Published through Spring's event bus; not sent to Kafka.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class StockChangedEvent {
+    public enum Type { RESERVED, CONFIRMED, RELEASED, RESTOCKED }
+
+    private final Type type;
+
+    private final UUID orderId;
+
+    private final Map<UUID, Integer> quantities;
+
+    // Postgres id of the transaction that made the change, stamped just before it commits
+    @Setter
+    private Long transactionId;
+}
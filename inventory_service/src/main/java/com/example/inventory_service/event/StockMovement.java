@@ -0,0 +1,23 @@
+package com.example.inventory_service.event;
+
+import com.example.events.inventory.StockMovementEvent;
+
+public class StockMovement extends DomainEvent {
+    private final String stockMovementsTopic;
+
+    public StockMovement(String stockMovementsTopic, StockMovementEvent stockMovementEvent) {
+        super(stockMovementEvent, stockMovementEvent.getProductId());
+
+        this.stockMovementsTopic = stockMovementsTopic;
+    }
+
+    @Override
+    public String getEventType() {
+        return stockMovementsTopic;
+    }
+
+    @Override
+    public String getTopic() {
+        return stockMovementsTopic;
+    }
+}
@@ -13,6 +13,6 @@ public class InventoryHelper {
             return false;
         }
         
-        return inventory.getAvailableQuantity() - inventory.getReservedQuantity() >= requestedQuantity;
+        return inventory.getTotalAvailableQuantity() - inventory.getTotalReservedQuantity() >= requestedQuantity;
     }
 }
@@ -0,0 +1,219 @@
+package com.example.inventory_service.ledger;
+
+import com.example.inventory_service.model.StockReservation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists reservations decided by the {@link StockLedger}. Callers hand over the rows of one order
+ * and wait on the returned future; a single writer thread drains everything queued in the meantime
+ * and commits it in one transaction, so the database sees one round trip per batch instead of one
+ * lock-check-write sequence per line.
+ * <p>
+ * Writes are idempotent on the order: an order that already has reservation rows, for instance a
+ * redelivery of one whose first write timed out on the caller but committed, is not written again
+ * and its future completes with {@code false}. Products sharded into buckets are refused, since
+ * their reserved stock lives in the buckets and would drift from the main row.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.reservation.strategy", havingValue = "ledger")
+@Slf4j
+public class LedgerWriter {
+    private static final String INSERT_RESERVATION = """
+            INSERT INTO inventory_service.stock_reservation (id, order_id, product_id, quantity, status, expires_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String SELECT_WRITTEN_ORDERS = """
+            SELECT DISTINCT order_id FROM inventory_service.stock_reservation WHERE order_id = ANY(?)
+            """;
+
+    private static final String INCREMENT_RESERVED = """
+            UPDATE inventory_service.inventory
+            SET reserved_quantity = reserved_quantity + ?, last_updated = ?
+            WHERE product_id = ? AND bucket_count = 0
+            """;
+
+    @Value("${inventory.ledger.writer.batch-size:256}")
+    private int batchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running = true;
+    private Thread writerThread;
+
+    public LedgerWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        writerThread = new Thread(this::drain, "stock-ledger-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues the reservations of one order. The future completes with {@code true} once they are
+     * committed, or {@code false} when the order's reservations had already been written.
+     */
+    public CompletableFuture<Boolean> submit(UUID orderId, List<StockReservation> reservations) {
+        PendingWrite pendingWrite = new PendingWrite(orderId, reservations, new CompletableFuture<>());
+
+        if (!running) {
+            pendingWrite.result().completeExceptionally(new IllegalStateException("Ledger writer is stopped"));
+            return pendingWrite.result();
+        }
+
+        queue.add(pendingWrite);
+        return pendingWrite.result();
+    }
+
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        try {
+            Set<PendingWrite> written = persist(batch);
+            batch.forEach(pendingWrite -> pendingWrite.result().complete(written.contains(pendingWrite)));
+        } catch (Exception e) {
+            log.warn("Ledger batch of {} orders failed, retrying orders one by one", batch.size(), e);
+
+            for (PendingWrite pendingWrite : batch) {
+                try {
+                    pendingWrite.result().complete(!persist(List.of(pendingWrite)).isEmpty());
+                } catch (Exception single) {
+                    pendingWrite.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction, skipping orders whose reservations already exist, and
+     * returns the pending writes it persisted.
+     */
+    private Set<PendingWrite> persist(List<PendingWrite> batch) {
+        Set<PendingWrite> written = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<UUID> orderIds = writtenOrders(batch);
+
+            for (PendingWrite pendingWrite : batch) {
+                if (orderIds.add(pendingWrite.orderId())) {
+                    written.add(pendingWrite);
+                }
+            }
+
+            insert(written);
+        });
+
+        return written;
+    }
+
+    private Set<UUID> writtenOrders(List<PendingWrite> batch) {
+        UUID[] orderIds = batch.stream()
+                .map(PendingWrite::orderId)
+                .distinct()
+                .toArray(UUID[]::new);
+
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_WRITTEN_ORDERS);
+            statement.setArray(1, connection.createArrayOf("uuid", orderIds));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject("order_id", UUID.class)));
+    }
+
+    private void insert(Collection<PendingWrite> batch) {
+        List<Object[]> reservationRows = new ArrayList<>();
+        Map<UUID, Integer> reservedByProduct = new TreeMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        for (PendingWrite pendingWrite : batch) {
+            for (StockReservation reservation : pendingWrite.reservations()) {
+                UUID productId = reservation.getProduct().getId();
+
+                reservationRows.add(new Object[]{
+                        reservation.getId(),
+                        reservation.getOrderId(),
+                        productId,
+                        reservation.getQuantity(),
+                        reservation.getStatus(),
+                        Timestamp.valueOf(reservation.getExpiresAt()),
+                        Timestamp.valueOf(reservation.getCreatedAt())
+                });
+                reservedByProduct.merge(productId, reservation.getQuantity(), Integer::sum);
+            }
+        }
+
+        List<UUID> productIds = new ArrayList<>(reservedByProduct.keySet());
+        List<Object[]> inventoryRows = productIds.stream()
+                .map(productId -> new Object[]{reservedByProduct.get(productId), now, productId})
+                .toList();
+
+        jdbcTemplate.batchUpdate(INSERT_RESERVATION, reservationRows);
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_RESERVED, inventoryRows);
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new IllegalStateException("Product " + productIds.get(i) + " is unknown or sharded into buckets, which ledger reservations do not support");
+            }
+        }
+    }
+
+    private record PendingWrite(UUID orderId, List<StockReservation> reservations, CompletableFuture<Boolean> result) {
+    }
+}
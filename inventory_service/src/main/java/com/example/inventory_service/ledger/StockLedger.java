@@ -0,0 +1,148 @@
+package com.example.inventory_service.ledger;
+
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory view of on-hand and reserved stock per product. Reservation decisions are taken with a
+ * compare-and-set on a single word per product, so concurrent checkouts for one SKU never wait on a
+ * database row lock. The ledger assumes it is the only writer of reservations for the products it
+ * holds; it is seeded from the {@code inventory} table and kept in step with confirmations and
+ * releases through {@link StockChangedEvent}.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.reservation.strategy", havingValue = "ledger")
+@Slf4j
+public class StockLedger {
+    private final InventoryRepository inventoryRepository;
+    private final Map<UUID, AtomicLong> levels = new ConcurrentHashMap<>();
+
+    public StockLedger(InventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        List<InventoryLevelDto> inventoryLevels = inventoryRepository.findAllTotalLevels();
+
+        inventoryLevels.forEach(level -> levels.putIfAbsent(
+                level.getProductId(),
+                new AtomicLong(pack(level.getAvailableQuantity(), level.getReservedQuantity()))
+        ));
+
+        log.info("Stock ledger seeded with {} products", inventoryLevels.size());
+    }
+
+    public boolean tryReserve(UUID productId, int quantity) {
+        AtomicLong level = level(productId);
+
+        if (level == null) {
+            return false;
+        }
+
+        while (true) {
+            long current = level.get();
+            int available = available(current);
+            int reserved = reserved(current);
+
+            if (available - reserved < quantity) {
+                return false;
+            }
+
+            if (level.compareAndSet(current, pack(available, reserved + quantity))) {
+                return true;
+            }
+        }
+    }
+
+    public void release(UUID productId, int quantity) {
+        apply(productId, 0, -quantity);
+    }
+
+    public void confirm(UUID productId, int quantity) {
+        apply(productId, -quantity, -quantity);
+    }
+
+    public int getAvailableToReserve(UUID productId) {
+        AtomicLong level = level(productId);
+
+        if (level == null) {
+            return 0;
+        }
+
+        long current = level.get();
+        return available(current) - reserved(current);
+    }
+
+    public int getAvailableQuantity(UUID productId) {
+        AtomicLong level = level(productId);
+
+        return level == null ? 0 : available(level.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        switch (event.getType()) {
+            case CONFIRMED -> event.getQuantities().forEach(this::confirm);
+            case RELEASED -> event.getQuantities().forEach(this::release);
+            case RESTOCKED -> event.getQuantities().forEach((productId, quantity) -> apply(productId, quantity, 0));
+            default -> {
+                // reservations are applied to the ledger before they are persisted
+            }
+        }
+    }
+
+    private void apply(UUID productId, int availableDelta, int reservedDelta) {
+        AtomicLong level = level(productId);
+
+        if (level == null) {
+            log.warn("Stock ledger has no entry for product {}", productId);
+            return;
+        }
+
+        level.updateAndGet(current -> pack(
+                available(current) + availableDelta,
+                Math.max(0, reserved(current) + reservedDelta)
+        ));
+    }
+
+    private AtomicLong level(UUID productId) {
+        AtomicLong level = levels.get(productId);
+
+        if (level != null) {
+            return level;
+        }
+
+        Optional<InventoryLevelDto> inventoryLevel = inventoryRepository.findLevelByProductId(productId);
+
+        return inventoryLevel
+                .map(value -> levels.computeIfAbsent(productId, id -> new AtomicLong(pack(value.getAvailableQuantity(), value.getReservedQuantity()))))
+                .orElse(null);
+    }
+
+    static long pack(int available, int reserved) {
+        return ((long) available << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    static int available(long level) {
+        return (int) (level >> 32);
+    }
+
+    static int reserved(long level) {
+        return (int) level;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.inventory_service.mapper;
 
 import com.example.inventory_service.dto.OrderItemInventoryCheckDto;
+import com.example.inventory_service.dto.ProductAvailabilityDto;
 import com.example.inventory_service.helper.InventoryHelper;
 import com.example.inventory_service.model.Inventory;
 import org.mapstruct.AfterMapping;
@@ -16,9 +17,24 @@ public interface InventoryMapper {
     @Mapping(target = "productId", source = "inventory.product.id")
     @Mapping(target = "name", source = "inventory.product.name")
     @Mapping(target = "price", source = "inventory.product.price")
+    @Mapping(target = "availableQuantity", source = "inventory.totalAvailableQuantity")
+    @Mapping(target = "reservedQuantity", source = "inventory.totalReservedQuantity")
     @Mapping(target = "available", ignore = true)
     OrderItemInventoryCheckDto toOrderItemInventoryCheckDto(Inventory inventory, Integer requestedQuantity);
 
+    @Mapping(target = "available", ignore = true)
+    @Mapping(target = "totalPrice", ignore = true)
+    @Mapping(target = "quantity", ignore = true)
+    OrderItemInventoryCheckDto toOrderItemInventoryCheckDto(ProductAvailabilityDto availability, Integer requestedQuantity);
+
+    @AfterMapping
+    default void setAvailable(@MappingTarget OrderItemInventoryCheckDto dto, ProductAvailabilityDto availability, Integer requestedQuantity) {
+        dto.setAvailable(requestedQuantity != null && requestedQuantity > 0
+                && availability.getAvailableQuantity() - availability.getReservedQuantity() >= requestedQuantity);
+        dto.setTotalPrice(availability.getPrice().multiply(BigDecimal.valueOf(requestedQuantity)));
+        dto.setQuantity(requestedQuantity);
+    }
+
     @AfterMapping
     default void setAvailable(@MappingTarget OrderItemInventoryCheckDto dto, Inventory inventory, Integer requestedQuantity) {
         dto.setAvailable(hasStock(inventory, requestedQuantity));
@@ -32,7 +48,7 @@ public interface InventoryMapper {
             return false;
         }
 
-        return inventory.getAvailableQuantity() - inventory.getReservedQuantity() >= requestedQuantity;
+        return inventory.getTotalAvailableQuantity() - inventory.getTotalReservedQuantity() >= requestedQuantity;
     }
 
     @Named("totalPrice")
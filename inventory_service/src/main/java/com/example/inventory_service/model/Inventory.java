@@ -2,6 +2,7 @@ package com.example.inventory_service.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -24,6 +25,19 @@ public class Inventory {
     @Column(name = "reserved_quantity", nullable = false)
     private Integer reservedQuantity = 0;
 
+    @Column(name = "bucket_count", nullable = false)
+    private Integer bucketCount = 0;
+
+    // Sharded products keep their stock in inventory_buckets, see InventoryBucketService; unsharded
+    // ones add the stock_movements not yet folded into this row, see StockMovementService
+    @Formula("(CASE WHEN bucket_count > 0 THEN (SELECT COALESCE(SUM(b.available_quantity), 0) FROM inventory_service.inventory_buckets b WHERE b.product_id = product_id) " +
+            "ELSE available_quantity + (SELECT COALESCE(SUM(m.available_delta), 0) FROM inventory_service.stock_movements m WHERE m.product_id = product_id AND NOT m.folded) END)")
+    private Integer totalAvailableQuantity;
+
+    @Formula("(CASE WHEN bucket_count > 0 THEN (SELECT COALESCE(SUM(b.reserved_quantity), 0) FROM inventory_service.inventory_buckets b WHERE b.product_id = product_id) " +
+            "ELSE reserved_quantity + (SELECT COALESCE(SUM(m.reserved_delta), 0) FROM inventory_service.stock_movements m WHERE m.product_id = product_id AND NOT m.folded) END)")
+    private Integer totalReservedQuantity;
+
     @Column(name = "last_updated", nullable = false)
     private LocalDateTime lastUpdated = LocalDateTime.now();
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.inventory_service.model;
 
+import com.example.inventory_service.service.ProductChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -9,6 +10,7 @@ import java.util.UUID;
 
 @Data
 @Entity
+@EntityListeners(ProductChangeListener.class)
 @Table(name = "products", schema = "inventory_service")
 public class Product {
     @Id
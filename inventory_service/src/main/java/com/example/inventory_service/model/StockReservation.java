@@ -24,6 +24,12 @@ public class StockReservation {
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
+    @Column(name = "bucket")
+    private Integer bucket;
+
+    @Column(name = "warehouse_id", length = 20)
+    private String warehouseId;
+
     @Column(name = "status", nullable = false, length = 20)
     private String status;
 
@@ -0,0 +1,66 @@
+package com.example.inventory_service.ownership;
+
+import com.example.events.inventory.ReservationCommandEvent;
+import com.example.events.order.OrderCreatedEvent;
+import com.example.events.order.OrderItem;
+import com.example.inventory_service.event.ReservationCommand;
+import com.example.inventory_service.publisher.EventPublisher;
+import com.example.shared_common.idempotency.EventIdempotencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the order-created consumers when ownership is enabled: splits each order into one
+ * reservation command per product, keyed by product id, so the instance owning that product applies
+ * it. Lines of the same product are merged first.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.ownership.enabled", havingValue = "true")
+@Slf4j
+public class OrderCreatedCommandDispatcher {
+    @Value("#{kafkaTopics.reservationCommands}")
+    private String reservationCommandsTopic;
+
+    private final EventPublisher eventPublisher;
+    private final EventIdempotencyService eventIdempotencyService;
+
+    public OrderCreatedCommandDispatcher(EventPublisher eventPublisher, EventIdempotencyService eventIdempotencyService) {
+        this.eventPublisher = eventPublisher;
+        this.eventIdempotencyService = eventIdempotencyService;
+    }
+
+    @KafkaListener(topics = "#{kafkaTopics.orderCreated}")
+    public void orderCreatedListener(OrderCreatedEvent orderCreatedEvent) {
+        String orderId = orderCreatedEvent.getOrderId();
+
+        boolean processed = eventIdempotencyService.processOnce("stock-reservation-order-" + orderId, () -> {
+            Map<String, Integer> quantities = new LinkedHashMap<>();
+            for (OrderItem item : orderCreatedEvent.getItems()) {
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+
+            List<String> productIds = new ArrayList<>(quantities.keySet());
+            quantities.forEach((productId, quantity) -> eventPublisher.publish(new ReservationCommand(
+                    reservationCommandsTopic,
+                    new ReservationCommandEvent(orderId, productId, quantity, productIds)
+            )));
+
+            // The order is only marked processed once its commands have left the producer
+            eventPublisher.flush();
+        });
+
+        if (processed) {
+            log.info("Dispatched reservation commands for order {}", orderId);
+        } else {
+            log.info("Order {} already dispatched", orderId);
+        }
+    }
+}
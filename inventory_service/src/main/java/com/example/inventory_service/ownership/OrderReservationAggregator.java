@@ -0,0 +1,172 @@
+package com.example.inventory_service.ownership;
+
+import com.example.events.inventory.ReservationLineResultEvent;
+import com.example.events.inventory.StockReservedEvent;
+import com.example.inventory_service.dto.ReservationRequestDto;
+import com.example.inventory_service.event.StockReserved;
+import com.example.inventory_service.mapper.StockReservationMapper;
+import com.example.inventory_service.model.StockReservation;
+import com.example.inventory_service.publisher.EventPublisher;
+import com.example.inventory_service.repository.StockReservationRepository;
+import com.example.inventory_service.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the line results of each order, which all land on the same partition since they are keyed
+ * by order id. Once every product of the order has answered, the order is either reported as
+ * reserved, or its reserved lines are released and it is reported out of stock. Orders whose results
+ * went missing, e.g. because this partition moved mid-order, are settled from the database after
+ * {@code aggregation-timeout-ms}. Settled orders are remembered for {@code settled-retention-ms} so a
+ * result arriving after that does not start the order over.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.ownership.enabled", havingValue = "true")
+@EnableScheduling
+@Slf4j
+public class OrderReservationAggregator {
+    @Value("#{kafkaTopics.stockReserved}")
+    private String stockReservedTopic;
+
+    @Value("${inventory.ownership.aggregation-timeout-ms:30000}")
+    private long aggregationTimeoutMs;
+
+    @Value("${inventory.ownership.settled-retention-ms:600000}")
+    private long settledRetentionMs;
+
+    private final StockReservationService stockReservationService;
+    private final StockReservationRepository stockReservationRepository;
+    private final StockReservationMapper stockReservationMapper;
+    private final EventPublisher eventPublisher;
+
+    private final Map<String, PendingOrder> pendingOrders = new ConcurrentHashMap<>();
+
+    // Order id -> when it was settled
+    private final Map<String, Long> settledOrders = new ConcurrentHashMap<>();
+
+    public OrderReservationAggregator(
+            StockReservationService stockReservationService,
+            StockReservationRepository stockReservationRepository,
+            StockReservationMapper stockReservationMapper,
+            EventPublisher eventPublisher
+    ) {
+        this.stockReservationService = stockReservationService;
+        this.stockReservationRepository = stockReservationRepository;
+        this.stockReservationMapper = stockReservationMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @KafkaListener(topics = "#{kafkaTopics.reservationResults}", groupId = "inventory-order-aggregator")
+    public void onLineResult(ReservationLineResultEvent result) {
+        // Settling marks the order before removing it, so this either sees the mark or joins the order being settled
+        PendingOrder order = pendingOrders.compute(result.getOrderId(), (orderId, existing) -> existing != null || settledOrders.containsKey(orderId)
+                ? existing
+                : new PendingOrder(Set.copyOf(result.getOrderProductIds()), System.currentTimeMillis()));
+
+        if (order == null) {
+            log.info("Dropping late result of product {} for already settled order {}", result.getProductId(), result.getOrderId());
+            return;
+        }
+
+        order.results().put(result.getProductId(), result);
+
+        if (order.results().keySet().containsAll(order.productIds()) && settle(result.getOrderId(), order)) {
+            complete(result.getOrderId(), order);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ownership.aggregation-timeout-ms:30000}")
+    public void settleTimedOutOrders() {
+        long now = System.currentTimeMillis();
+        long cutoff = now - aggregationTimeoutMs;
+
+        pendingOrders.forEach((orderId, order) -> {
+            if (order.startedAt() < cutoff && settle(orderId, order)) {
+                settleFromDatabase(orderId, order);
+            }
+        });
+
+        settledOrders.values().removeIf(settledAt -> settledAt < now - settledRetentionMs);
+    }
+
+    private boolean settle(String orderId, PendingOrder order) {
+        settledOrders.put(orderId, System.currentTimeMillis());
+
+        return pendingOrders.remove(orderId, order);
+    }
+
+    private void complete(String orderId, PendingOrder order) {
+        Optional<ReservationLineResultEvent> failed = order.results().values().stream()
+                .filter(result -> !result.getReserved())
+                .findFirst();
+
+        if (failed.isEmpty()) {
+            StockReservedEvent stockReservedEvent = StockReservedEvent.newBuilder()
+                    .setOrderId(orderId)
+                    .setReservations(order.results().values().stream()
+                            .flatMap(result -> result.getReservations().stream())
+                            .toList())
+                    .build();
+
+            eventPublisher.publish(new StockReserved(stockReservedTopic, stockReservedEvent, orderId));
+            log.info("Reserved all {} products of order {}", order.productIds().size(), orderId);
+            return;
+        }
+
+        fail(orderId, order, failed.get().getProductId(), failed.get().getQuantity(), failed.get().getAvailableQuantity());
+    }
+
+    private void settleFromDatabase(String orderId, PendingOrder order) {
+        List<StockReservation> reserved = stockReservationRepository.findByOrderId(UUID.fromString(orderId))
+                .stream()
+                .filter(reservation -> "RESERVED".equals(reservation.getStatus()))
+                .toList();
+        Set<String> reservedProductIds = reserved.stream()
+                .map(reservation -> reservation.getProduct().getId().toString())
+                .collect(Collectors.toSet());
+
+        if (reservedProductIds.containsAll(order.productIds())) {
+            log.warn("Line results of order {} went missing, reporting its reservations from the database", orderId);
+            eventPublisher.publish(new StockReserved(stockReservedTopic, stockReservationMapper.toStockReservedEvent(reserved, orderId), orderId));
+            return;
+        }
+
+        String missing = order.productIds().stream()
+                .filter(productId -> !reservedProductIds.contains(productId))
+                .findFirst()
+                .orElseThrow();
+        ReservationLineResultEvent result = order.results().get(missing);
+
+        log.warn("Order {} timed out waiting for product {}", orderId, missing);
+        fail(orderId, order, missing, result == null ? 0 : result.getQuantity(), result == null ? 0 : result.getAvailableQuantity());
+    }
+
+    private void fail(String orderId, PendingOrder order, String productId, int quantity, int availableQuantity) {
+        boolean anyReserved = order.results().values().stream().anyMatch(ReservationLineResultEvent::getReserved);
+
+        if (anyReserved || order.results().size() < order.productIds().size()) {
+            stockReservationService.releaseReservation(UUID.fromString(orderId));
+        }
+
+        stockReservationService.publishOutOfStock(UUID.fromString(orderId), new ReservationRequestDto(UUID.fromString(productId), quantity), availableQuantity);
+    }
+
+    private record PendingOrder(Set<String> productIds, long startedAt, Map<String, ReservationLineResultEvent> results) {
+        PendingOrder(Set<String> productIds, long startedAt) {
+            this(productIds, startedAt, new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.inventory_service.ownership;
+
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Free stock of the products whose command partitions are assigned to this instance. Each product
+ * is only ever touched by the listener thread of its partition, so reservation decisions need no
+ * locking. Products that were released or confirmed elsewhere only gain free stock, which is picked
+ * up by reloading the product whenever it looks too low; the guarded UPDATE behind every
+ * reservation keeps this view from overselling if it is ever stale in the other direction.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.ownership.enabled", havingValue = "true")
+@Slf4j
+public class OwnedStock {
+    private final InventoryRepository inventoryRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final int partitions;
+
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Integer> freeQuantities = new ConcurrentHashMap<>();
+
+    public OwnedStock(
+            InventoryRepository inventoryRepository,
+            InventoryJdbcRepository inventoryJdbcRepository,
+            @Value("${inventory.ownership.partitions:6}") int partitions
+    ) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Takes over the products of newly assigned partitions, reading their stock fresh from the
+     * database since the previous owner may have reserved from it until just now.
+     */
+    public void assign(Collection<Integer> assigned) {
+        ownedPartitions.addAll(assigned);
+
+        List<InventoryLevelDto> levels = inventoryRepository.findAllTotalLevels()
+                .stream()
+                .filter(level -> assigned.contains(partitionOf(level.getProductId())))
+                .toList();
+
+        levels.forEach(this::update);
+
+        log.info("Now owning command partitions {}: loaded {} products", ownedPartitions, levels.size());
+    }
+
+    public void revoke(Collection<Integer> revoked) {
+        ownedPartitions.removeAll(revoked);
+        freeQuantities.keySet().removeIf(productId -> revoked.contains(partitionOf(productId)));
+
+        log.info("Handed over command partitions {}", revoked);
+    }
+
+    /**
+     * Free stock of the product, reloaded from the database when it is unknown or below
+     * {@code needed}; 0 when the product has no inventory.
+     */
+    public int freeQuantity(UUID productId, int needed) {
+        Integer free = freeQuantities.get(productId);
+
+        if (free != null && free >= needed) {
+            return free;
+        }
+
+        return inventoryJdbcRepository.findLevel(productId)
+                .map(this::update)
+                .orElse(0);
+    }
+
+    public void reserved(UUID productId, int quantity) {
+        freeQuantities.computeIfPresent(productId, (id, free) -> free - quantity);
+    }
+
+    public int update(InventoryLevelDto level) {
+        int free = level.getAvailableQuantity() - level.getReservedQuantity();
+        freeQuantities.put(level.getProductId(), free);
+
+        return free;
+    }
+
+    /**
+     * Partition the default Kafka partitioner sends a command keyed by {@code productId} to.
+     */
+    int partitionOf(UUID productId) {
+        return Utils.toPositive(Utils.murmur2(productId.toString().getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.inventory_service.ownership;
+
+import com.example.events.inventory.ReservationCommandEvent;
+import com.example.events.inventory.ReservationLineResultEvent;
+import com.example.inventory_service.dto.BucketAllocationDto;
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.event.ReservationLineResult;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.mapper.StockReservationMapper;
+import com.example.inventory_service.model.StockReservation;
+import com.example.inventory_service.publisher.EventPublisher;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.repository.StockReservationRepository;
+import com.example.inventory_service.service.InventoryBucketService;
+import com.example.inventory_service.service.StockReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Applies the reservation commands of the partitions this instance owns, one at a time per
+ * partition. A line costs one guarded UPDATE and one insert; nothing is read with a row lock because
+ * no other instance reserves the same product. The outcome of each line is sent to the
+ * {@link OrderReservationAggregator} of its order.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.ownership.enabled", havingValue = "true")
+@Slf4j
+public class ReservationCommandConsumer implements ConsumerSeekAware {
+    @Value("#{kafkaTopics.reservationResults}")
+    private String reservationResultsTopic;
+
+    private final OwnedStock ownedStock;
+    private final StockReservationService stockReservationService;
+    private final StockReservationRepository stockReservationRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final InventoryBucketService inventoryBucketService;
+    private final StockReservationMapper stockReservationMapper;
+    private final EventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReservationCommandConsumer(
+            OwnedStock ownedStock,
+            StockReservationService stockReservationService,
+            StockReservationRepository stockReservationRepository,
+            InventoryJdbcRepository inventoryJdbcRepository,
+            InventoryBucketService inventoryBucketService,
+            StockReservationMapper stockReservationMapper,
+            EventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.ownedStock = ownedStock;
+        this.stockReservationService = stockReservationService;
+        this.stockReservationRepository = stockReservationRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.inventoryBucketService = inventoryBucketService;
+        this.stockReservationMapper = stockReservationMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        ownedStock.assign(assignments.keySet().stream().map(TopicPartition::partition).toList());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        ownedStock.revoke(partitions.stream().map(TopicPartition::partition).toList());
+    }
+
+    @KafkaListener(topics = "#{kafkaTopics.reservationCommands}", groupId = "inventory-sku-owners")
+    public void onReservationCommand(ReservationCommandEvent command) {
+        UUID orderId = UUID.fromString(command.getOrderId());
+        UUID productId = UUID.fromString(command.getProductId());
+
+        // Only a shortage answers "not reserved"; any other failure propagates so the listener retries the command
+        List<StockReservation> reservations = transactionTemplate.execute(status -> reserve(orderId, productId, command.getQuantity(), status));
+
+        ReservationLineResultEvent result = new ReservationLineResultEvent(
+                command.getOrderId(),
+                command.getProductId(),
+                command.getQuantity(),
+                command.getOrderProductIds(),
+                !reservations.isEmpty(),
+                reservations.isEmpty() ? ownedStock.freeQuantity(productId, Integer.MAX_VALUE) : 0,
+                reservations.stream().map(stockReservationMapper::toStockReservation).toList()
+        );
+
+        eventPublisher.publish(new ReservationLineResult(reservationResultsTopic, result));
+    }
+
+    private List<StockReservation> reserve(UUID orderId, UUID productId, int quantity, TransactionStatus status) {
+        // A redelivered command finds the rows written the first time
+        List<StockReservation> existing = stockReservationRepository.findByOrderIdAndProductIdAndStatus(orderId, productId, "RESERVED");
+
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+
+        if (ownedStock.freeQuantity(productId, quantity) < quantity) {
+            return List.of();
+        }
+
+        List<StockReservation> reservations = new ArrayList<>();
+        Optional<InventoryLevelDto> level = inventoryJdbcRepository.reserveIfAvailable(productId, quantity);
+
+        if (level.isPresent()) {
+            ownedStock.update(level.get());
+            reservations.add(stockReservationService.newReservation(orderId, productId, quantity));
+        } else {
+            Optional<InventoryLevelDto> current = inventoryJdbcRepository.findLevel(productId);
+
+            if (current.isEmpty() || current.get().getBucketCount() == 0) {
+                current.ifPresent(ownedStock::update);
+                return List.of();
+            }
+
+            List<BucketAllocationDto> allocations = inventoryBucketService.reserve(orderId, productId, current.get().getBucketCount(), quantity);
+
+            if (allocations.isEmpty()) {
+                status.setRollbackOnly();
+                return List.of();
+            }
+
+            ownedStock.reserved(productId, quantity);
+            allocations.forEach(allocation -> {
+                StockReservation reservation = stockReservationService.newReservation(orderId, productId, allocation.getQuantity());
+                reservation.setBucket(allocation.getBucket());
+                reservations.add(reservation);
+            });
+        }
+
+        stockReservationRepository.saveAll(reservations);
+        stockReservationService.publishStockChanged(StockChangedEvent.Type.RESERVED, orderId, reservations);
+
+        return reservations;
+    }
+}
@@ -5,16 +5,53 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @Slf4j
 public class EventPublisher {
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    // Events published on a thread between startBuffering and stopBuffering are held back here
+    private final ThreadLocal<List<DomainEvent>> buffered = new ThreadLocal<>();
+
     public EventPublisher(KafkaTemplate<String, Object> kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
     }
 
+    /**
+     * Blocks until every event handed to {@link #publish} so far has been sent.
+     */
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    /**
+     * Holds back every event this thread publishes until {@link #stopBuffering()}, for work whose
+     * transaction may still roll back.
+     */
+    public void startBuffering() {
+        buffered.set(new ArrayList<>());
+    }
+
+    /**
+     * Ends buffering on this thread and returns the held-back events, none of which were sent.
+     */
+    public List<DomainEvent> stopBuffering() {
+        List<DomainEvent> events = buffered.get();
+        buffered.remove();
+
+        return events == null ? List.of() : events;
+    }
+
     public void publish(DomainEvent event) {
+        List<DomainEvent> buffer = buffered.get();
+        if (buffer != null) {
+            buffer.add(event);
+            return;
+        }
+
         try {
             log.info("Publishing event: {}, {}", event.getPayload(), event.getTopic());
 
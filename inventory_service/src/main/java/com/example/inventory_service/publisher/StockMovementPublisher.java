@@ -0,0 +1,155 @@
+package com.example.inventory_service.publisher;
+
+import com.example.events.inventory.SnapshotWatermark;
+import com.example.events.inventory.StockMovementEvent;
+import com.example.events.inventory.StockMovementType;
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.event.StockMovement;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Feeds the availability topology: every committed reservation, confirmation and release goes out
+ * as one movement per product, keyed by product id and stamped with the Postgres id of the
+ * transaction that made it. Absolute snapshots of every inventory row are published at startup and
+ * then periodically by whichever instance takes the Redis lock first.
+ *
+ * <p>A snapshot round first sends SNAPSHOT_STARTED for every product and flushes, then reads the
+ * levels in one REPEATABLE READ transaction and sends them with that transaction's Postgres snapshot
+ * as watermark. A delta that commits after the watermark was taken is sent after the marker, so the
+ * fold can tell from the watermark alone whether the snapshot already counts a delta that races it.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.availability-streams.enabled", havingValue = "true")
+@EnableScheduling
+@Slf4j
+public class StockMovementPublisher {
+    @Value("#{kafkaTopics.stockMovements}")
+    private String stockMovementsTopic;
+
+    private static final String SNAPSHOT_LOCK_KEY = "inventory:availability-snapshot";
+
+    @Value("${inventory.availability-streams.snapshot-interval-ms:600000}")
+    private long snapshotIntervalMs;
+
+    @Value("${spring.application.name}")
+    private String serviceName;
+
+    private final EventPublisher eventPublisher;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TransactionTemplate snapshotTransaction;
+
+    public StockMovementPublisher(
+            EventPublisher eventPublisher,
+            InventoryRepository inventoryRepository,
+            InventoryJdbcRepository inventoryJdbcRepository,
+            RedisTemplate<String, String> redisTemplate,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.eventPublisher = eventPublisher;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.redisTemplate = redisTemplate;
+
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void stampTransaction(StockChangedEvent event) {
+        event.setTransactionId(inventoryJdbcRepository.currentTransactionId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        StockMovementType type = StockMovementType.valueOf(event.getType().name());
+        long now = System.currentTimeMillis();
+
+        for (Map.Entry<UUID, Integer> quantity : event.getQuantities().entrySet()) {
+            StockMovementEvent movement = new StockMovementEvent(
+                    quantity.getKey().toString(),
+                    type,
+                    quantity.getValue(),
+                    0,
+                    0,
+                    event.getOrderId() == null ? null : event.getOrderId().toString(),
+                    now,
+                    event.getTransactionId(),
+                    null
+            );
+
+            eventPublisher.publish(new StockMovement(stockMovementsTopic, movement));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${inventory.availability-streams.snapshot-interval-ms:600000}",
+            fixedDelayString = "${inventory.availability-streams.snapshot-interval-ms:600000}")
+    public void publishSnapshots() {
+        // The lock is left to expire, so one instance publishes per interval however many run the job
+        Boolean acquired = redisTemplate.opsForValue()
+                .setIfAbsent(SNAPSHOT_LOCK_KEY, serviceName, Duration.ofMillis(snapshotIntervalMs));
+
+        if (!Boolean.TRUE.equals(acquired)) {
+            log.debug("Availability snapshots are being published by another instance");
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        for (UUID productId : inventoryJdbcRepository.findAllProductIds()) {
+            eventPublisher.publish(new StockMovement(stockMovementsTopic, new StockMovementEvent(
+                    productId.toString(), StockMovementType.SNAPSHOT_STARTED, 0, 0, 0, null, now, null, null)));
+        }
+        eventPublisher.flush();
+
+        Snapshot snapshot = snapshotTransaction.execute(status -> {
+            SnapshotWatermark watermark = inventoryJdbcRepository.currentSnapshot();
+            return new Snapshot(watermark, inventoryRepository.findAllTotalLevels());
+        });
+
+        for (InventoryLevelDto level : snapshot.levels()) {
+            StockMovementEvent event = new StockMovementEvent(
+                    level.getProductId().toString(),
+                    StockMovementType.SNAPSHOT,
+                    0,
+                    level.getAvailableQuantity(),
+                    level.getReservedQuantity(),
+                    null,
+                    now,
+                    null,
+                    snapshot.watermark()
+            );
+
+            eventPublisher.publish(new StockMovement(stockMovementsTopic, event));
+        }
+
+        log.info("Published availability snapshots for {} products", snapshot.levels().size());
+    }
+
+    private record Snapshot(SnapshotWatermark watermark, List<InventoryLevelDto> levels) {
+    }
+}
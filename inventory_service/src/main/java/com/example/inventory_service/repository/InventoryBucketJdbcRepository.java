@@ -0,0 +1,288 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.dto.InventoryBucketDto;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Statements on {@code inventory_buckets}, the per-product slices of stock used for hot products.
+ * Every statement touches a single bucket row unless stated otherwise, so reservations that land in
+ * different buckets of the same product never wait on each other.
+ */
+@Repository
+public class InventoryBucketJdbcRepository {
+    private static final RowMapper<InventoryBucketDto> BUCKET_MAPPER = (rs, rowNum) -> new InventoryBucketDto(
+            rs.getObject("product_id", UUID.class),
+            rs.getInt("bucket"),
+            rs.getInt("available_quantity"),
+            rs.getInt("reserved_quantity")
+    );
+
+    private static final String SELECT_BUCKET_COUNTS = """
+            SELECT product_id, bucket_count
+            FROM inventory_service.inventory
+            WHERE product_id IN (:productIds) AND bucket_count > 0
+            """;
+
+    private static final String RESERVE_IN_BUCKET = """
+            UPDATE inventory_service.inventory_buckets
+            SET reserved_quantity = reserved_quantity + :quantity, last_updated = CURRENT_TIMESTAMP
+            WHERE product_id = :productId AND bucket = :bucket AND available_quantity - reserved_quantity >= :quantity
+            """;
+
+    // Takes whatever the bucket can spare, up to :quantity; %s is the row lock clause.
+    private static final String BORROW_FROM_BUCKET = """
+            WITH candidate AS (
+                SELECT product_id, bucket, available_quantity - reserved_quantity AS free
+                FROM inventory_service.inventory_buckets
+                WHERE product_id = :productId AND bucket = :bucket AND available_quantity - reserved_quantity > 0
+                %s
+            )
+            UPDATE inventory_service.inventory_buckets b
+            SET reserved_quantity = b.reserved_quantity + LEAST(:quantity, c.free), last_updated = CURRENT_TIMESTAMP
+            FROM candidate c
+            WHERE b.product_id = c.product_id AND b.bucket = c.bucket
+            RETURNING LEAST(:quantity, c.free) AS taken
+            """;
+
+    private static final String BORROW_FROM_FREE_BUCKET = BORROW_FROM_BUCKET.formatted("FOR UPDATE SKIP LOCKED");
+
+    private static final String BORROW_FROM_BUCKET_WAITING = BORROW_FROM_BUCKET.formatted("FOR UPDATE");
+
+    // A bucket that survived a re-sharding may hold less reserved than the slice; bucket 0 carries it then
+    private static final String RELEASE_IN_BUCKET = """
+            UPDATE inventory_service.inventory_buckets
+            SET reserved_quantity = reserved_quantity - :quantity, last_updated = CURRENT_TIMESTAMP
+            WHERE product_id = :productId AND bucket = :bucket AND reserved_quantity >= :quantity
+            """;
+
+    private static final String CONFIRM_IN_BUCKET = """
+            UPDATE inventory_service.inventory_buckets
+            SET available_quantity = available_quantity - :quantity,
+                reserved_quantity = reserved_quantity - :quantity,
+                last_updated = CURRENT_TIMESTAMP
+            WHERE product_id = :productId AND bucket = :bucket AND available_quantity >= :quantity
+            """;
+
+    private static final String RESTOCK_IN_BUCKET = """
+            UPDATE inventory_service.inventory_buckets
+            SET available_quantity = available_quantity + :quantity, last_updated = CURRENT_TIMESTAMP
+            WHERE product_id = :productId AND bucket = :bucket
+            """;
+
+    private static final String RELEASE_IN_BUCKETS = """
+            WITH settled AS (
+                SELECT * FROM unnest(?::uuid[], ?::int[], ?::int[]) AS s(product_id, bucket, quantity)
+            ), locked AS MATERIALIZED (
+                SELECT b.product_id, b.bucket
+                FROM inventory_service.inventory_buckets b
+                JOIN settled s ON s.product_id = b.product_id AND s.bucket = b.bucket
+                ORDER BY b.product_id, b.bucket
+                FOR NO KEY UPDATE OF b
+            )
+            UPDATE inventory_service.inventory_buckets b
+            SET reserved_quantity = b.reserved_quantity - s.quantity, last_updated = CURRENT_TIMESTAMP
+            FROM settled s
+            JOIN locked l ON l.product_id = s.product_id AND l.bucket = s.bucket
+            WHERE b.product_id = s.product_id AND b.bucket = s.bucket AND b.reserved_quantity >= s.quantity
+            RETURNING b.product_id, b.bucket
+            """;
+
+    private static final String CONFIRM_IN_BUCKETS = """
+            WITH settled AS (
+                SELECT * FROM unnest(?::uuid[], ?::int[], ?::int[]) AS s(product_id, bucket, quantity)
+            ), locked AS MATERIALIZED (
+                SELECT b.product_id, b.bucket
+                FROM inventory_service.inventory_buckets b
+                JOIN settled s ON s.product_id = b.product_id AND s.bucket = b.bucket
+                ORDER BY b.product_id, b.bucket
+                FOR NO KEY UPDATE OF b
+            )
+            UPDATE inventory_service.inventory_buckets b
+            SET available_quantity = b.available_quantity - s.quantity,
+                reserved_quantity = b.reserved_quantity - s.quantity,
+                last_updated = CURRENT_TIMESTAMP
+            FROM settled s
+            JOIN locked l ON l.product_id = s.product_id AND l.bucket = s.bucket
+            WHERE b.product_id = s.product_id AND b.bucket = s.bucket AND b.available_quantity >= s.quantity
+            RETURNING b.product_id, b.bucket
+            """;
+
+    private static final String BUCKET_EXISTS = """
+            SELECT COUNT(*)
+            FROM inventory_service.inventory_buckets
+            WHERE product_id = :productId AND bucket = :bucket
+            """;
+
+    private static final String LOCK_BUCKETS = """
+            SELECT product_id, bucket, available_quantity, reserved_quantity
+            FROM inventory_service.inventory_buckets
+            WHERE product_id = :productId
+            ORDER BY bucket
+            FOR UPDATE
+            """;
+
+    private static final String INSERT_BUCKET = """
+            INSERT INTO inventory_service.inventory_buckets (product_id, bucket, available_quantity, reserved_quantity, last_updated)
+            VALUES (:productId, :bucket, :availableQuantity, :reservedQuantity, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String UPDATE_BUCKET_AVAILABLE = """
+            UPDATE inventory_service.inventory_buckets
+            SET available_quantity = :availableQuantity, last_updated = CURRENT_TIMESTAMP
+            WHERE product_id = :productId AND bucket = :bucket
+            """;
+
+    private static final String DELETE_BUCKETS = """
+            DELETE FROM inventory_service.inventory_buckets
+            WHERE product_id = :productId
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public InventoryBucketJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the bucket count of every sharded product among {@code productIds}; unsharded and
+     * unknown products are left out.
+     */
+    public Map<UUID, Integer> findBucketCounts(Collection<UUID> productIds) {
+        Map<UUID, Integer> bucketCounts = new HashMap<>();
+
+        jdbcTemplate.query(SELECT_BUCKET_COUNTS, new MapSqlParameterSource("productIds", productIds), rs -> {
+            bucketCounts.put(rs.getObject("product_id", UUID.class), rs.getInt("bucket_count"));
+        });
+
+        return bucketCounts;
+    }
+
+    public boolean reserveInBucket(UUID productId, int bucket, int quantity) {
+        return jdbcTemplate.update(RESERVE_IN_BUCKET, bucketParams(productId, bucket, quantity)) > 0;
+    }
+
+    /**
+     * Reserves up to {@code quantity} from a bucket and returns how much was taken. Without
+     * {@code wait} a bucket another order holds is skipped and counts as 0 like an empty one; with it
+     * the statement waits for the lock and takes from the bucket's committed state.
+     */
+    public int borrowFromBucket(UUID productId, int bucket, int quantity, boolean wait) {
+        return jdbcTemplate.query(wait ? BORROW_FROM_BUCKET_WAITING : BORROW_FROM_FREE_BUCKET, bucketParams(productId, bucket, quantity), (rs, rowNum) -> rs.getInt("taken"))
+                .stream()
+                .findFirst()
+                .orElse(0);
+    }
+
+    /**
+     * Returns false when the bucket is gone or holds fewer reserved units than {@code quantity}.
+     */
+    public boolean releaseInBucket(UUID productId, int bucket, int quantity) {
+        return jdbcTemplate.update(RELEASE_IN_BUCKET, bucketParams(productId, bucket, quantity)) > 0;
+    }
+
+    public boolean confirmInBucket(UUID productId, int bucket, int quantity) {
+        return jdbcTemplate.update(CONFIRM_IN_BUCKET, bucketParams(productId, bucket, quantity)) > 0;
+    }
+
+    /**
+     * Releases several slices, keyed by product and then bucket, with one statement. Returns the
+     * slices that were not updated because their bucket no longer exists or, after a re-sharding,
+     * holds fewer reserved units than the slice.
+     */
+    public Map<UUID, Map<Integer, Integer>> releaseInBuckets(Map<UUID, Map<Integer, Integer>> quantities) {
+        return notSettled(RELEASE_IN_BUCKETS, quantities);
+    }
+
+    /**
+     * Same as {@link #releaseInBuckets}, but a slice is also not updated when its bucket does not hold
+     * enough on-hand stock.
+     */
+    public Map<UUID, Map<Integer, Integer>> confirmInBuckets(Map<UUID, Map<Integer, Integer>> quantities) {
+        return notSettled(CONFIRM_IN_BUCKETS, quantities);
+    }
+
+    public boolean restockInBucket(UUID productId, int bucket, int quantity) {
+        return jdbcTemplate.update(RESTOCK_IN_BUCKET, bucketParams(productId, bucket, quantity)) > 0;
+    }
+
+    public boolean bucketExists(UUID productId, int bucket) {
+        Integer count = jdbcTemplate.queryForObject(BUCKET_EXISTS, bucketParams(productId, bucket, 0), Integer.class);
+
+        return count != null && count > 0;
+    }
+
+    public List<InventoryBucketDto> lockBuckets(UUID productId) {
+        return jdbcTemplate.query(LOCK_BUCKETS, new MapSqlParameterSource("productId", productId), BUCKET_MAPPER);
+    }
+
+    public void insertBuckets(List<InventoryBucketDto> buckets) {
+        jdbcTemplate.batchUpdate(INSERT_BUCKET, buckets.stream().map(InventoryBucketJdbcRepository::levelParams).toArray(MapSqlParameterSource[]::new));
+    }
+
+    public void updateAvailableQuantities(List<InventoryBucketDto> buckets) {
+        jdbcTemplate.batchUpdate(UPDATE_BUCKET_AVAILABLE, buckets.stream().map(InventoryBucketJdbcRepository::levelParams).toArray(MapSqlParameterSource[]::new));
+    }
+
+    public void deleteBuckets(UUID productId) {
+        jdbcTemplate.update(DELETE_BUCKETS, new MapSqlParameterSource("productId", productId));
+    }
+
+    private Map<UUID, Map<Integer, Integer>> notSettled(String sql, Map<UUID, Map<Integer, Integer>> quantities) {
+        if (quantities.isEmpty()) {
+            return Map.of();
+        }
+
+        List<UUID> productIds = new ArrayList<>();
+        List<Integer> buckets = new ArrayList<>();
+        List<Integer> amounts = new ArrayList<>();
+        Map<UUID, Map<Integer, Integer>> notSettled = new HashMap<>();
+
+        quantities.forEach((productId, slices) -> {
+            slices.forEach((bucket, quantity) -> {
+                productIds.add(productId);
+                buckets.add(bucket);
+                amounts.add(quantity);
+            });
+            notSettled.put(productId, new HashMap<>(slices));
+        });
+
+        jdbcTemplate.getJdbcOperations().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("uuid", productIds.toArray()));
+            statement.setArray(2, connection.createArrayOf("int4", buckets.toArray()));
+            statement.setArray(3, connection.createArrayOf("int4", amounts.toArray()));
+            return statement;
+        }, rs -> {
+            notSettled.get(rs.getObject("product_id", UUID.class)).remove(rs.getInt("bucket"));
+        });
+
+        notSettled.values().removeIf(Map::isEmpty);
+        return notSettled;
+    }
+
+    private static MapSqlParameterSource bucketParams(UUID productId, int bucket, int quantity) {
+        return new MapSqlParameterSource()
+                .addValue("productId", productId)
+                .addValue("bucket", bucket)
+                .addValue("quantity", quantity);
+    }
+
+    private static MapSqlParameterSource levelParams(InventoryBucketDto bucket) {
+        return new MapSqlParameterSource()
+                .addValue("productId", bucket.getProductId())
+                .addValue("bucket", bucket.getBucket())
+                .addValue("availableQuantity", bucket.getAvailableQuantity())
+                .addValue("reservedQuantity", bucket.getReservedQuantity());
+    }
+}
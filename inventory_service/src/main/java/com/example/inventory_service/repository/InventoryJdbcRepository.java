@@ -0,0 +1,350 @@
+package com.example.inventory_service.repository;
+
+import com.example.events.inventory.SnapshotWatermark;
+import com.example.inventory_service.dto.InventoryExportDto;
+import com.example.inventory_service.dto.InventoryLevelDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Inventory statements that Spring Data cannot express, such as guarded updates that report the
+ * resulting row in the same round trip.
+ */
+@Repository
+public class InventoryJdbcRepository {
+    private static final RowMapper<InventoryLevelDto> LEVEL_MAPPER = (rs, rowNum) -> new InventoryLevelDto(
+            rs.getObject("product_id", UUID.class),
+            rs.getInt("available_quantity"),
+            rs.getInt("reserved_quantity"),
+            rs.getInt("bucket_count")
+    );
+
+    private static final RowMapper<InventoryExportDto> EXPORT_MAPPER = (rs, rowNum) -> new InventoryExportDto(
+            rs.getObject("id", UUID.class),
+            rs.getString("sku"),
+            rs.getString("name"),
+            rs.getString("category"),
+            rs.getBigDecimal("price"),
+            rs.getBoolean("active"),
+            rs.getInt("available_to_sell"),
+            toLocalDateTime(rs.getTimestamp("updated_at"))
+    );
+
+    private static final String LOCK_ROW = """
+            SELECT product_id FROM inventory_service.inventory WHERE product_id = ? AND bucket_count = 0 FOR UPDATE
+            """;
+
+    // With the movement log on it runs with the row already locked: an UPDATE that waited for the
+    // lock would recheck its guard against the new row but the stock_movements of its old snapshot,
+    // counting freshly folded movements twice
+    private static final String RESERVE_IF_AVAILABLE = """
+            UPDATE inventory_service.inventory
+            SET reserved_quantity = reserved_quantity + ?, last_updated = CURRENT_TIMESTAMP
+            WHERE product_id = ? AND bucket_count = 0
+              AND available_quantity - reserved_quantity
+                  + COALESCE((SELECT SUM(m.available_delta - m.reserved_delta) FROM inventory_service.stock_movements m
+                              WHERE m.product_id = inventory.product_id AND NOT m.folded), 0) >= ?
+            RETURNING product_id, available_quantity, reserved_quantity, bucket_count
+            """;
+
+    private static final String LOCK_ROWS = """
+            SELECT product_id
+            FROM inventory_service.inventory
+            WHERE product_id = ANY(?::uuid[]) AND bucket_count = 0
+            ORDER BY product_id
+            FOR UPDATE
+            """;
+
+    // Unsharded rows add the stock_movements not folded into them yet
+    private static final String SELECT_LEVEL = """
+            SELECT i.product_id,
+                   i.bucket_count,
+                   CASE WHEN i.bucket_count > 0 THEN COALESCE(SUM(b.available_quantity), 0)
+                        ELSE i.available_quantity + COALESCE(m.available_delta, 0) END AS available_quantity,
+                   CASE WHEN i.bucket_count > 0 THEN COALESCE(SUM(b.reserved_quantity), 0)
+                        ELSE i.reserved_quantity + COALESCE(m.reserved_delta, 0) END AS reserved_quantity
+            FROM inventory_service.inventory i
+            LEFT JOIN inventory_service.inventory_buckets b ON b.product_id = i.product_id
+            LEFT JOIN LATERAL (
+                SELECT SUM(available_delta) AS available_delta, SUM(reserved_delta) AS reserved_delta
+                FROM inventory_service.stock_movements
+                WHERE product_id = i.product_id AND NOT folded
+            ) m ON TRUE
+            WHERE i.product_id = ?
+            GROUP BY i.product_id, i.bucket_count, i.available_quantity, i.reserved_quantity, m.available_delta, m.reserved_delta
+            """;
+
+    // Rows are locked in product id order first, the UPDATE ... FROM join alone would lock them in plan order
+    private static final String RELEASE_RESERVED = """
+            WITH settled AS (
+                SELECT * FROM unnest(?::uuid[], ?::int[]) AS s(product_id, quantity)
+            ), locked AS MATERIALIZED (
+                SELECT i.product_id
+                FROM inventory_service.inventory i
+                JOIN settled s ON s.product_id = i.product_id
+                WHERE i.bucket_count = 0
+                ORDER BY i.product_id
+                FOR NO KEY UPDATE OF i
+            )
+            UPDATE inventory_service.inventory i
+            SET reserved_quantity = i.reserved_quantity - s.quantity, last_updated = CURRENT_TIMESTAMP
+            FROM settled s
+            JOIN locked l ON l.product_id = s.product_id
+            WHERE i.product_id = s.product_id AND i.bucket_count = 0
+            RETURNING i.product_id
+            """;
+
+    private static final String CONFIRM_RESERVED = """
+            WITH settled AS (
+                SELECT * FROM unnest(?::uuid[], ?::int[]) AS s(product_id, quantity)
+            ), locked AS MATERIALIZED (
+                SELECT i.product_id
+                FROM inventory_service.inventory i
+                JOIN settled s ON s.product_id = i.product_id
+                WHERE i.bucket_count = 0
+                ORDER BY i.product_id
+                FOR NO KEY UPDATE OF i
+            )
+            UPDATE inventory_service.inventory i
+            SET available_quantity = i.available_quantity - s.quantity,
+                reserved_quantity = i.reserved_quantity - s.quantity,
+                last_updated = CURRENT_TIMESTAMP
+            FROM settled s
+            JOIN locked l ON l.product_id = s.product_id
+            WHERE i.product_id = s.product_id AND i.bucket_count = 0 AND i.available_quantity >= s.quantity
+            RETURNING i.product_id
+            """;
+
+    private static final String RESTOCK_ALL = """
+            WITH restocked AS (
+                SELECT * FROM unnest(?::uuid[], ?::int[]) AS r(product_id, quantity)
+            ), locked AS MATERIALIZED (
+                SELECT i.product_id
+                FROM inventory_service.inventory i
+                JOIN restocked r ON r.product_id = i.product_id
+                WHERE i.bucket_count = 0
+                ORDER BY i.product_id
+                FOR NO KEY UPDATE OF i
+            )
+            UPDATE inventory_service.inventory i
+            SET available_quantity = i.available_quantity + r.quantity, last_updated = CURRENT_TIMESTAMP
+            FROM restocked r
+            JOIN locked l ON l.product_id = r.product_id
+            WHERE i.product_id = r.product_id AND i.bucket_count = 0
+            RETURNING i.product_id
+            """;
+
+    // Same totals as SELECT_LEVEL; the filters are appended by exportLevels
+    private static final String SELECT_EXPORT = """
+            SELECT p.id, p.sku, p.name, p.category, p.price, COALESCE(p.active, TRUE) AS active,
+                   CASE WHEN i.bucket_count > 0 THEN COALESCE(b.available_quantity - b.reserved_quantity, 0)
+                        ELSE i.available_quantity - i.reserved_quantity
+                             + COALESCE(m.available_delta - m.reserved_delta, 0) END AS available_to_sell,
+                   GREATEST(p.updated_at, i.last_updated, b.last_updated, m.last_created) AS updated_at
+            FROM inventory_service.products p
+            JOIN inventory_service.inventory i ON i.product_id = p.id
+            LEFT JOIN LATERAL (
+                SELECT SUM(available_quantity) AS available_quantity, SUM(reserved_quantity) AS reserved_quantity,
+                       MAX(last_updated) AS last_updated
+                FROM inventory_service.inventory_buckets
+                WHERE product_id = p.id AND i.bucket_count > 0
+            ) b ON TRUE
+            LEFT JOIN LATERAL (
+                SELECT SUM(available_delta) AS available_delta, SUM(reserved_delta) AS reserved_delta,
+                       MAX(created_at) AS last_created
+                FROM inventory_service.stock_movements
+                WHERE product_id = p.id AND NOT folded AND i.bucket_count = 0
+            ) m ON TRUE
+            WHERE TRUE
+            """;
+
+    private static final String SELECT_PRODUCT_IDS = """
+            SELECT product_id FROM inventory_service.inventory
+            """;
+
+    private static final String CURRENT_TRANSACTION_ID = """
+            SELECT pg_current_xact_id()::text::bigint
+            """;
+
+    private static final String CURRENT_SNAPSHOT = """
+            SELECT pg_snapshot_xmin(s)::text::bigint AS xmin,
+                   pg_snapshot_xmax(s)::text::bigint AS xmax,
+                   ARRAY(SELECT x::text::bigint FROM pg_snapshot_xip(s) x) AS xip
+            FROM pg_current_snapshot() s
+            """;
+
+    @Value("${inventory.movements.enabled:false}")
+    private boolean movementsEnabled;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserves {@code quantity} only if that much is still free. Returns the updated level, or empty
+     * when the product is unknown, sharded into buckets or does not have enough stock. With the
+     * movement log enabled the row is locked by its own statement first, so the guard reads a snapshot
+     * taken after any concurrent fold of the product committed; without it no movement is ever
+     * pending and the UPDATE alone is safe.
+     */
+    public Optional<InventoryLevelDto> reserveIfAvailable(UUID productId, int quantity) {
+        if (movementsEnabled && jdbcTemplate.queryForList(LOCK_ROW, UUID.class, productId).isEmpty()) {
+            return Optional.empty();
+        }
+
+        return jdbcTemplate.query(RESERVE_IF_AVAILABLE, LEVEL_MAPPER, quantity, productId, quantity)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Locks the unsharded inventory rows of {@code productIds} in product id order, so a transaction
+     * touching several products takes their locks in the same order as every other one.
+     */
+    public void lockRows(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        UUID[] ids = productIds.toArray(UUID[]::new);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOCK_ROWS);
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject("product_id", UUID.class));
+    }
+
+    /**
+     * Current level of a product, summed over its buckets when it is sharded.
+     */
+    public Optional<InventoryLevelDto> findLevel(UUID productId) {
+        return jdbcTemplate.query(SELECT_LEVEL, LEVEL_MAPPER, productId)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Gives reserved stock back for several products with one statement. Returns the products whose
+     * row was not updated because they are sharded into buckets or unknown.
+     */
+    public List<UUID> releaseReserved(Map<UUID, Integer> quantities) {
+        return notUpdated(RELEASE_RESERVED, quantities);
+    }
+
+    /**
+     * Takes confirmed stock off hand and out of reserved for several products with one statement.
+     * Returns the products whose row was not updated: sharded, unknown, or short of on-hand stock.
+     */
+    public List<UUID> confirmReserved(Map<UUID, Integer> quantities) {
+        return notUpdated(CONFIRM_RESERVED, quantities);
+    }
+
+    /**
+     * Adds on-hand stock to several unsharded products with one statement. Returns the products that
+     * are sharded or unknown.
+     */
+    public List<UUID> restockAll(Map<UUID, Integer> quantities) {
+        return notUpdated(RESTOCK_ALL, quantities);
+    }
+
+    /**
+     * Streams every product with its available-to-sell through a server-side cursor reading
+     * {@code fetchSize} rows at a time, so memory stays flat whatever the catalog size. Must run in a
+     * transaction: the driver only keeps a cursor open with auto-commit off. {@code category} and
+     * {@code updatedSince} are optional; the latter matches products whose catalog entry, stock or
+     * unfolded stock movements changed after it.
+     */
+    public void exportLevels(String category, LocalDateTime updatedSince, int fetchSize, Consumer<InventoryExportDto> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT_EXPORT);
+        List<Object> params = new ArrayList<>();
+
+        if (category != null) {
+            sql.append(" AND p.category = ?");
+            params.add(category);
+        }
+        if (updatedSince != null) {
+            Timestamp since = Timestamp.valueOf(updatedSince);
+            sql.append(" AND (p.updated_at > ? OR i.last_updated > ? OR b.last_updated > ? OR m.last_created > ?)");
+            params.add(since);
+            params.add(since);
+            params.add(since);
+            params.add(since);
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString());
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        }, rs -> {
+            consumer.accept(EXPORT_MAPPER.mapRow(rs, 0));
+        });
+    }
+
+    public List<UUID> findAllProductIds() {
+        return jdbcTemplate.queryForList(SELECT_PRODUCT_IDS, UUID.class);
+    }
+
+    /**
+     * Id of the current transaction, assigning one if it has not written anything yet.
+     */
+    public long currentTransactionId() {
+        return jdbcTemplate.queryForObject(CURRENT_TRANSACTION_ID, Long.class);
+    }
+
+    /**
+     * Snapshot the current statement reads with; under REPEATABLE READ the first statement's snapshot is
+     * the one every later statement of the transaction sees.
+     */
+    public SnapshotWatermark currentSnapshot() {
+        return jdbcTemplate.queryForObject(CURRENT_SNAPSHOT, (rs, rowNum) -> new SnapshotWatermark(
+                rs.getLong("xmin"),
+                rs.getLong("xmax"),
+                Arrays.asList((Long[]) rs.getArray("xip").getArray())
+        ));
+    }
+
+    private List<UUID> notUpdated(String sql, Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+
+        UUID[] productIds = quantities.keySet().toArray(UUID[]::new);
+        Integer[] amounts = quantities.values().toArray(Integer[]::new);
+
+        List<UUID> updated = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("uuid", productIds));
+            statement.setArray(2, connection.createArrayOf("int4", amounts));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject("product_id", UUID.class));
+
+        List<UUID> notUpdated = new ArrayList<>(quantities.keySet());
+        notUpdated.removeAll(updated);
+
+        return notUpdated;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -1,19 +1,45 @@
 package com.example.inventory_service.repository;
 
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.dto.ProductAvailabilityDto;
 import com.example.inventory_service.model.Inventory;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
+    // The @Formula totals are read in the locking statement itself. If it has to wait for the lock, READ
+    // COMMITTED rechecks only the row, so the totals would mix a freshly folded row with the unfolded
+    // movements of the old snapshot. Lock the row beforehand or read under REPEATABLE READ.
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Inventory> findByProductId(UUID productId);
 
-    List<Inventory> findAllByProductIdIn(List<UUID> productIds);
+    // Same caveat as findByProductId; StockReservationService reads it under REPEATABLE READ
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.product.id IN :productIds AND i.bucketCount = 0 ORDER BY i.product.id")
+    List<Inventory> findAllUnshardedByProductIdIn(@Param("productIds") List<UUID> productIds);
+
+    // Plain read for availability checks: no row lock, totals already summed over buckets and unfolded movements
+    @Query("SELECT new com.example.inventory_service.dto.ProductAvailabilityDto(p.id, p.name, p.price, i.totalAvailableQuantity, i.totalReservedQuantity) " +
+            "FROM Inventory i JOIN i.product p WHERE p.id IN :productIds")
+    List<ProductAvailabilityDto> findAvailabilityByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    // Totals: summed over the buckets of sharded products and over the unfolded stock movements of the rest
+    @Query("SELECT new com.example.inventory_service.dto.InventoryLevelDto(i.product.id, i.totalAvailableQuantity, i.totalReservedQuantity, i.bucketCount) FROM Inventory i")
+    List<InventoryLevelDto> findAllTotalLevels();
+
+    @Query("SELECT new com.example.inventory_service.dto.InventoryLevelDto(i.product.id, i.totalAvailableQuantity, i.totalReservedQuantity, i.bucketCount) FROM Inventory i WHERE i.product.id IN :productIds")
+    List<InventoryLevelDto> findTotalLevelsByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    @Query("SELECT new com.example.inventory_service.dto.InventoryLevelDto(i.product.id, i.totalAvailableQuantity, i.totalReservedQuantity, i.bucketCount) FROM Inventory i WHERE i.product.id = :productId")
+    Optional<InventoryLevelDto> findLevelByProductId(@Param("productId") UUID productId);
 }
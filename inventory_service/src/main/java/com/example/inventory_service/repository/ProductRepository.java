@@ -1,13 +1,27 @@
 package com.example.inventory_service.repository;
 
+import com.example.inventory_service.dto.ProductSnapshotDto;
 import com.example.inventory_service.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, UUID> {
     Optional<Product> findById(UUID productId);
+
+    @Query("SELECT new com.example.inventory_service.dto.ProductSnapshotDto(p.id, p.sku, p.name, p.price, p.lowStockThreshold) " +
+            "FROM Product p WHERE p.id IN :productIds")
+    List<ProductSnapshotDto> findSnapshotsByIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    @Query("SELECT new com.example.inventory_service.dto.ProductSnapshotDto(p.id, p.sku, p.name, p.price, p.lowStockThreshold) " +
+            "FROM Product p WHERE p.active = true ORDER BY p.updatedAt DESC")
+    List<ProductSnapshotDto> findActiveSnapshots(Pageable pageable);
 }
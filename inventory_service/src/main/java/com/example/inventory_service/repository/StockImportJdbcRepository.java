@@ -0,0 +1,185 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.dto.StockImportDto;
+import com.example.inventory_service.dto.StockImportLineDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Statements behind bulk catalog and stock imports: the {@code stock_imports} progress rows and the
+ * set-based product writes of one chunk of lines. Every chunk statement binds its lines as arrays, so
+ * a chunk costs the same handful of round trips whatever its size.
+ */
+@Repository
+public class StockImportJdbcRepository {
+    private static final RowMapper<StockImportDto> IMPORT_MAPPER = (rs, rowNum) -> new StockImportDto(
+            rs.getObject("id", UUID.class),
+            rs.getString("format"),
+            rs.getString("status"),
+            rs.getLong("lines_committed"),
+            rs.getLong("lines_rejected"),
+            rs.getString("error"),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at"))
+    );
+
+    private static final String INSERT_IMPORT = """
+            INSERT INTO inventory_service.stock_imports (id, format)
+            VALUES (?, ?)
+            ON CONFLICT (id) DO NOTHING
+            """;
+
+    private static final String SELECT_IMPORT = """
+            SELECT id, format, status, lines_committed, lines_rejected, error, created_at, updated_at
+            FROM inventory_service.stock_imports
+            WHERE id = ?
+            """;
+
+    // Only matches while nobody else advanced the import, so two uploads of one import cannot interleave
+    private static final String ADVANCE_IMPORT = """
+            UPDATE inventory_service.stock_imports
+            SET lines_committed = ?, lines_rejected = lines_rejected + ?, status = 'RUNNING', error = NULL, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ? AND lines_committed = ? AND status <> 'COMPLETED'
+            """;
+
+    private static final String FINISH_IMPORT = """
+            UPDATE inventory_service.stock_imports
+            SET status = ?, error = ?, updated_at = CURRENT_TIMESTAMP
+            WHERE id = ?
+            """;
+
+    // Rows that would not change are left alone, so re-importing a catalog does not lock or rewrite them
+    private static final String UPSERT_PRODUCTS = """
+            INSERT INTO inventory_service.products (sku, name, price, category)
+            SELECT l.sku, l.name, l.price, l.category
+            FROM unnest(?::varchar[], ?::varchar[], ?::numeric[], ?::varchar[]) AS l(sku, name, price, category)
+            ORDER BY l.sku
+            ON CONFLICT (sku) DO UPDATE
+            SET name = EXCLUDED.name,
+                price = EXCLUDED.price,
+                category = COALESCE(EXCLUDED.category, products.category),
+                updated_at = CURRENT_TIMESTAMP
+            WHERE (products.name, products.price, products.category)
+                  IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.price, COALESCE(EXCLUDED.category, products.category))
+            RETURNING id
+            """;
+
+    // DO NOTHING takes no lock on an existing inventory row, so reservations on it carry on
+    private static final String INSERT_MISSING_INVENTORY = """
+            INSERT INTO inventory_service.inventory (product_id)
+            SELECT product_id FROM unnest(?::uuid[]) AS p(product_id)
+            ON CONFLICT (product_id) DO NOTHING
+            """;
+
+    private static final String SELECT_IDS_BY_SKU = """
+            SELECT id, sku FROM inventory_service.products WHERE sku = ANY(?::varchar[])
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockImportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Starts the import, or returns it as it is when an import with this id already exists.
+     */
+    public StockImportDto findOrCreate(UUID importId, String format) {
+        jdbcTemplate.update(INSERT_IMPORT, importId, format);
+
+        return jdbcTemplate.queryForObject(SELECT_IMPORT, IMPORT_MAPPER, importId);
+    }
+
+    public Optional<StockImportDto> findById(UUID importId) {
+        return jdbcTemplate.query(SELECT_IMPORT, IMPORT_MAPPER, importId).stream().findFirst();
+    }
+
+    /**
+     * Moves the import from {@code expectedCommitted} to {@code linesCommitted}. Returns false when it
+     * is no longer at {@code expectedCommitted}, i.e. another upload of the same import got there first.
+     */
+    public boolean advance(UUID importId, long expectedCommitted, long linesCommitted, int linesRejected) {
+        return jdbcTemplate.update(ADVANCE_IMPORT, linesCommitted, linesRejected, importId, expectedCommitted) > 0;
+    }
+
+    public void finish(UUID importId, String status, String error) {
+        jdbcTemplate.update(FINISH_IMPORT, status, error, importId);
+    }
+
+    /**
+     * Inserts or updates the products of lines carrying a name and price, by SKU. Returns the ids of
+     * the products that were inserted or changed.
+     */
+    public List<UUID> upsertProducts(Collection<StockImportLineDto> lines) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+
+        String[] skus = lines.stream().map(StockImportLineDto::getSku).toArray(String[]::new);
+        String[] names = lines.stream().map(StockImportLineDto::getName).toArray(String[]::new);
+        BigDecimal[] prices = lines.stream().map(StockImportLineDto::getPrice).toArray(BigDecimal[]::new);
+        String[] categories = lines.stream().map(StockImportLineDto::getCategory).toArray(String[]::new);
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_PRODUCTS);
+            statement.setArray(1, connection.createArrayOf("varchar", skus));
+            statement.setArray(2, connection.createArrayOf("varchar", names));
+            statement.setArray(3, connection.createArrayOf("numeric", prices));
+            statement.setArray(4, connection.createArrayOf("varchar", categories));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject("id", UUID.class));
+    }
+
+    /**
+     * Gives every product without an inventory row an empty one.
+     */
+    public void insertMissingInventory(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        UUID[] ids = productIds.toArray(UUID[]::new);
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_MISSING_INVENTORY);
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            return statement;
+        });
+    }
+
+    public Map<String, UUID> findIdsBySku(Collection<String> skus) {
+        Map<String, UUID> ids = new HashMap<>();
+
+        if (skus.isEmpty()) {
+            return ids;
+        }
+
+        String[] values = skus.toArray(String[]::new);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_IDS_BY_SKU);
+            statement.setArray(1, connection.createArrayOf("varchar", values));
+            return statement;
+        }, rs -> {
+            ids.put(rs.getString("sku"), rs.getObject("id", UUID.class));
+        });
+
+        return ids;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
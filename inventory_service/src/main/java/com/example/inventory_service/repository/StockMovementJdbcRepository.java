@@ -0,0 +1,200 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.dto.StockMovementDeltaDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Statements on {@code stock_movements}, the append-only log of stock deltas for unsharded products.
+ * An order's movements are appended with one statement. Appends take a KEY SHARE lock on the inventory row, which does not conflict with the row updates of
+ * reservations or folding, so confirmations, releases and restocks of one SKU never queue behind each
+ * other. Only a fold of a single product before it is sharded locks them out.
+ */
+@Repository
+public class StockMovementJdbcRepository {
+    public enum Type {
+        CONFIRM(-1, -1),
+        RELEASE(0, -1),
+        RESTOCK(1, 0);
+
+        private final int availableSign;
+        private final int reservedSign;
+
+        Type(int availableSign, int reservedSign) {
+            this.availableSign = availableSign;
+            this.reservedSign = reservedSign;
+        }
+    }
+
+    private static final RowMapper<StockMovementDeltaDto> DELTA_MAPPER = (rs, rowNum) -> new StockMovementDeltaDto(
+            rs.getObject("product_id", UUID.class),
+            rs.getInt("available_delta"),
+            rs.getInt("reserved_delta"),
+            rs.getInt("movements")
+    );
+
+    private static final String APPEND = """
+            INSERT INTO inventory_service.stock_movements (product_id, order_id, type, available_delta, reserved_delta)
+            SELECT i.product_id, ?::uuid, ?, ? * d.quantity, ? * d.quantity
+            FROM unnest(?::uuid[], ?::int[]) AS d(product_id, quantity)
+            JOIN inventory_service.inventory i ON i.product_id = d.product_id
+            WHERE i.bucket_count = 0
+            ORDER BY i.product_id
+            FOR KEY SHARE OF i
+            RETURNING product_id
+            """;
+
+    // Confirmed units are already held by the reservation, the guard only catches a drifted row
+    private static final String APPEND_CONFIRM = """
+            INSERT INTO inventory_service.stock_movements (product_id, order_id, type, available_delta, reserved_delta)
+            SELECT i.product_id, ?::uuid, ?, ? * d.quantity, ? * d.quantity
+            FROM unnest(?::uuid[], ?::int[]) AS d(product_id, quantity)
+            JOIN inventory_service.inventory i ON i.product_id = d.product_id
+            WHERE i.bucket_count = 0
+              AND i.available_quantity + COALESCE((SELECT SUM(m.available_delta) FROM inventory_service.stock_movements m
+                                                   WHERE m.product_id = i.product_id AND NOT m.folded), 0) >= d.quantity
+            ORDER BY i.product_id
+            FOR KEY SHARE OF i
+            RETURNING product_id
+            """;
+
+    private static final String CLAIM_PAGE = """
+            WITH claimed AS (
+                UPDATE inventory_service.stock_movements
+                SET folded = TRUE
+                WHERE id IN (
+                    SELECT id FROM inventory_service.stock_movements
+                    WHERE NOT folded
+                    ORDER BY id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING product_id, available_delta, reserved_delta
+            )
+            SELECT product_id, SUM(available_delta) AS available_delta, SUM(reserved_delta) AS reserved_delta, COUNT(*) AS movements
+            FROM claimed
+            GROUP BY product_id
+            """;
+
+    private static final String CLAIM_PRODUCT = """
+            WITH claimed AS (
+                UPDATE inventory_service.stock_movements
+                SET folded = TRUE
+                WHERE product_id = ? AND NOT folded
+                RETURNING product_id, available_delta, reserved_delta
+            )
+            SELECT product_id, SUM(available_delta) AS available_delta, SUM(reserved_delta) AS reserved_delta, COUNT(*) AS movements
+            FROM claimed
+            GROUP BY product_id
+            """;
+
+    private static final String LOCK_INVENTORY_ROW = """
+            SELECT product_id FROM inventory_service.inventory WHERE product_id = ? FOR UPDATE
+            """;
+
+    private static final String APPLY_TO_ROW = """
+            UPDATE inventory_service.inventory
+            SET available_quantity = available_quantity + ?, reserved_quantity = reserved_quantity + ?, last_updated = CURRENT_TIMESTAMP
+            WHERE product_id = ? AND bucket_count = 0
+            """;
+
+    private static final String APPLY_TO_BUCKET_ZERO = """
+            UPDATE inventory_service.inventory_buckets
+            SET available_quantity = available_quantity + ?, reserved_quantity = reserved_quantity + ?, last_updated = CURRENT_TIMESTAMP
+            WHERE product_id = ? AND bucket = 0
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockMovementJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Appends one movement per product with one statement. Returns the products nothing was appended
+     * for: sharded or unknown ones, and for CONFIRM also those without enough on-hand stock.
+     */
+    public List<UUID> append(Type type, UUID orderId, Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+
+        UUID[] productIds = quantities.keySet().toArray(UUID[]::new);
+        Integer[] amounts = quantities.values().toArray(Integer[]::new);
+
+        List<UUID> appended = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(type == Type.CONFIRM ? APPEND_CONFIRM : APPEND);
+            statement.setObject(1, orderId);
+            statement.setString(2, type.name());
+            statement.setInt(3, type.availableSign);
+            statement.setInt(4, type.reservedSign);
+            statement.setArray(5, connection.createArrayOf("uuid", productIds));
+            statement.setArray(6, connection.createArrayOf("int4", amounts));
+            return statement;
+        }, (rs, rowNum) -> rs.getObject("product_id", UUID.class));
+
+        List<UUID> notAppended = new ArrayList<>(quantities.keySet());
+        notAppended.removeAll(appended);
+
+        return notAppended;
+    }
+
+    /**
+     * Marks up to {@code limit} of the oldest unfolded movements as folded, skipping rows another
+     * folder holds, and returns their deltas summed per product.
+     */
+    public List<StockMovementDeltaDto> claimPage(int limit) {
+        return jdbcTemplate.query(CLAIM_PAGE, DELTA_MAPPER, limit);
+    }
+
+    /**
+     * Locks the product's inventory row against appends and claims all of its unfolded movements.
+     */
+    public List<StockMovementDeltaDto> lockAndClaimProduct(UUID productId) {
+        jdbcTemplate.queryForList(LOCK_INVENTORY_ROW, UUID.class, productId);
+
+        return jdbcTemplate.query(CLAIM_PRODUCT, DELTA_MAPPER, productId);
+    }
+
+    /**
+     * Adds claimed deltas to the inventory rows in the iteration order of {@code deltas}. A product
+     * sharded after its movements were appended gets them in bucket 0; returns how many products
+     * could be applied neither way.
+     */
+    public int applyDeltas(List<StockMovementDeltaDto> deltas) {
+        int[] updated = jdbcTemplate.batchUpdate(APPLY_TO_ROW, toRows(deltas));
+
+        List<StockMovementDeltaDto> sharded = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                sharded.add(deltas.get(i));
+            }
+        }
+
+        if (sharded.isEmpty()) {
+            return 0;
+        }
+
+        int missing = 0;
+        for (int count : jdbcTemplate.batchUpdate(APPLY_TO_BUCKET_ZERO, toRows(sharded))) {
+            if (count == 0) {
+                missing++;
+            }
+        }
+
+        return missing;
+    }
+
+    private static List<Object[]> toRows(List<StockMovementDeltaDto> deltas) {
+        return deltas.stream()
+                .map(delta -> new Object[]{delta.getAvailableDelta(), delta.getReservedDelta(), delta.getProductId()})
+                .toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.dto.ReleasedReservationDto;
+import com.example.inventory_service.model.StockReservation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public class StockReservationJdbcRepository {
+    private static final RowMapper<ReleasedReservationDto> RELEASED_MAPPER = (rs, rowNum) -> new ReleasedReservationDto(
+            rs.getObject("order_id", UUID.class),
+            rs.getObject("product_id", UUID.class),
+            rs.getInt("quantity"),
+            rs.getObject("bucket", Integer.class),
+            rs.getString("warehouse_id")
+    );
+
+    // Rows another instance is already releasing are skipped rather than waited for
+    private static final String RELEASE_EXPIRED_PAGE = """
+            WITH expired AS (
+                SELECT id
+                FROM inventory_service.stock_reservation
+                WHERE status = 'RESERVED' AND expires_at < ?
+                ORDER BY expires_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE inventory_service.stock_reservation sr
+            SET status = 'RELEASED'
+            FROM expired
+            WHERE sr.id = expired.id
+            RETURNING sr.order_id, sr.product_id, sr.quantity, sr.bucket, sr.warehouse_id
+            """;
+
+    private static final String SETTLE_ORDER = """
+            UPDATE inventory_service.stock_reservation
+            SET status = ?
+            WHERE order_id = ? AND status = 'RESERVED'
+            RETURNING order_id, product_id, quantity, bucket, warehouse_id
+            """;
+
+    private static final String ASSIGN_WAREHOUSE = """
+            UPDATE inventory_service.stock_reservation
+            SET warehouse_id = ?, quantity = ?
+            WHERE id = ? AND status = 'RESERVED'
+            """;
+
+    private static final String INSERT_SPLIT = """
+            INSERT INTO inventory_service.stock_reservation (id, order_id, product_id, quantity, bucket, warehouse_id, status, expires_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, 'RESERVED', ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockReservationJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Marks at most {@code limit} reservations that expired before {@code cutoff} as RELEASED and
+     * returns them. The caller must give the stock back in the same transaction.
+     */
+    public List<ReleasedReservationDto> releaseExpiredPage(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.query(RELEASE_EXPIRED_PAGE, RELEASED_MAPPER, Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * Moves every RESERVED line of the order to {@code status} and returns them. The row locks taken
+     * here make a concurrent confirm, release or sweep of the same order wait and then find nothing
+     * left to settle. The caller must settle the stock in the same transaction.
+     */
+    public List<ReleasedReservationDto> settleOrder(UUID orderId, String status) {
+        return jdbcTemplate.query(SETTLE_ORDER, RELEASED_MAPPER, status, orderId);
+    }
+
+    /**
+     * Records the warehouse of each reservation in {@code assigned}, whose quantity may have shrunk to
+     * make room for the {@code splits} shipping the rest from other warehouses. Returns false when one
+     * of the reservations was no longer RESERVED; the caller must roll back.
+     */
+    public boolean assignWarehouses(List<StockReservation> assigned, List<StockReservation> splits) {
+        int[] updated = jdbcTemplate.batchUpdate(ASSIGN_WAREHOUSE, assigned.stream()
+                .map(reservation -> new Object[]{
+                        reservation.getWarehouseId(),
+                        reservation.getQuantity(),
+                        reservation.getId()
+                })
+                .toList());
+
+        for (int count : updated) {
+            if (count == 0) {
+                return false;
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SPLIT, splits.stream()
+                .map(reservation -> new Object[]{
+                        reservation.getId(),
+                        reservation.getOrderId(),
+                        reservation.getProduct().getId(),
+                        reservation.getQuantity(),
+                        reservation.getBucket(),
+                        reservation.getWarehouseId(),
+                        Timestamp.valueOf(reservation.getExpiresAt()),
+                        Timestamp.valueOf(reservation.getCreatedAt())
+                })
+                .toList());
+
+        return true;
+    }
+}
@@ -1,21 +1,30 @@
 package com.example.inventory_service.repository;
 
+import com.example.inventory_service.dto.OrderExpiryDto;
+import com.example.inventory_service.dto.ReservedQuantityDto;
 import com.example.inventory_service.model.StockReservation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
     List<StockReservation> findByOrderId(UUID orderId);
-    
+
+    List<StockReservation> findByOrderIdAndProductIdAndStatus(UUID orderId, UUID productId, String status);
+
     @Query("SELECT COALESCE(SUM(sr.quantity), 0) FROM StockReservation sr WHERE sr.product.id = :productId AND sr.status = 'RESERVED'")
     Integer getTotalReservedQuantityByProductId(@Param("productId") UUID productId);
+
+    @Query("SELECT new com.example.inventory_service.dto.ReservedQuantityDto(sr.product.id, SUM(sr.quantity)) FROM StockReservation sr " +
+            "WHERE sr.product.id IN :productIds AND sr.status = 'RESERVED' GROUP BY sr.product.id")
+    List<ReservedQuantityDto> getTotalReservedQuantityByProductIds(@Param("productIds") List<UUID> productIds);
     
-    List<StockReservation> findByStatusAndExpiresAtBefore(String status, LocalDateTime expirationTime);
+    @Query("SELECT new com.example.inventory_service.dto.OrderExpiryDto(sr.orderId, MIN(sr.expiresAt)) FROM StockReservation sr " +
+            "WHERE sr.status = 'RESERVED' GROUP BY sr.orderId")
+    List<OrderExpiryDto> findReservedOrderExpiries();
 }
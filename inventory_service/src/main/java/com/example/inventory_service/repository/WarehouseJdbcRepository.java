@@ -0,0 +1,159 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.dto.WarehouseStockDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Statements on the warehouse tables. Free stock per warehouse is its on-hand quantity less the
+ * RESERVED reservations allocated to it, so reserving never writes a warehouse row; only setting the
+ * stock and confirming reservations do.
+ */
+@Repository
+public class WarehouseJdbcRepository {
+    private static final RowMapper<WarehouseStockDto> STOCK_MAPPER = (rs, rowNum) -> new WarehouseStockDto(
+            rs.getObject("product_id", UUID.class),
+            rs.getString("warehouse_id"),
+            rs.getInt("free_quantity")
+    );
+
+    private static final String SELECT_ACTIVE_WAREHOUSES = """
+            SELECT id FROM inventory_service.warehouses WHERE active ORDER BY id
+            """;
+
+    private static final String SELECT_SHIPPING_COSTS = """
+            SELECT c.warehouse_id, c.region, c.cost
+            FROM inventory_service.warehouse_shipping_costs c
+            JOIN inventory_service.warehouses w ON w.id = c.warehouse_id
+            WHERE w.active
+            """;
+
+    private static final String SELECT_ALL_FREE_STOCK = """
+            SELECT wi.product_id, wi.warehouse_id, wi.available_quantity - COALESCE(r.reserved, 0) AS free_quantity
+            FROM inventory_service.warehouse_inventory wi
+            LEFT JOIN (
+                SELECT product_id, warehouse_id, SUM(quantity) AS reserved
+                FROM inventory_service.stock_reservation
+                WHERE status = 'RESERVED' AND warehouse_id IS NOT NULL
+                GROUP BY product_id, warehouse_id
+            ) r ON r.product_id = wi.product_id AND r.warehouse_id = wi.warehouse_id
+            """;
+
+    private static final String SELECT_FREE_STOCK = """
+            SELECT wi.product_id, wi.warehouse_id,
+                   wi.available_quantity - COALESCE((SELECT SUM(sr.quantity) FROM inventory_service.stock_reservation sr
+                                                     WHERE sr.product_id = wi.product_id AND sr.warehouse_id = wi.warehouse_id
+                                                       AND sr.status = 'RESERVED'), 0) AS free_quantity
+            FROM inventory_service.warehouse_inventory wi
+            WHERE wi.product_id = ANY(?::uuid[])
+            """;
+
+    private static final String SET_STOCK = """
+            INSERT INTO inventory_service.warehouse_inventory (product_id, warehouse_id, available_quantity)
+            VALUES (?, ?, ?)
+            ON CONFLICT (product_id, warehouse_id) DO UPDATE
+            SET available_quantity = EXCLUDED.available_quantity, last_updated = CURRENT_TIMESTAMP
+            """;
+
+    // Confirmed units leave the warehouse they were allocated to; rows are locked in key order and a
+    // warehouse short of the units is left untouched rather than going negative
+    private static final String SHIP_CONFIRMED = """
+            WITH shipped AS (
+                SELECT * FROM unnest(?::uuid[], ?::varchar[], ?::int[]) AS s(product_id, warehouse_id, quantity)
+            ), locked AS MATERIALIZED (
+                SELECT wi.product_id, wi.warehouse_id
+                FROM inventory_service.warehouse_inventory wi
+                JOIN shipped s ON s.product_id = wi.product_id AND s.warehouse_id = wi.warehouse_id
+                ORDER BY wi.product_id, wi.warehouse_id
+                FOR NO KEY UPDATE OF wi
+            )
+            UPDATE inventory_service.warehouse_inventory wi
+            SET available_quantity = wi.available_quantity - s.quantity, last_updated = CURRENT_TIMESTAMP
+            FROM shipped s
+            JOIN locked l ON l.product_id = s.product_id AND l.warehouse_id = s.warehouse_id
+            WHERE wi.product_id = s.product_id AND wi.warehouse_id = s.warehouse_id
+              AND wi.available_quantity >= s.quantity
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WarehouseJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<String> findActiveWarehouseIds() {
+        return jdbcTemplate.queryForList(SELECT_ACTIVE_WAREHOUSES, String.class);
+    }
+
+    /**
+     * Shipment cost in cents per region and warehouse, for active warehouses.
+     */
+    public Map<String, Map<String, Long>> findShippingCosts() {
+        Map<String, Map<String, Long>> costs = new HashMap<>();
+
+        jdbcTemplate.query(SELECT_SHIPPING_COSTS, rs -> {
+            costs.computeIfAbsent(rs.getString("region"), region -> new HashMap<>())
+                    .put(rs.getString("warehouse_id"), rs.getBigDecimal("cost").movePointRight(2).longValue());
+        });
+
+        return costs;
+    }
+
+    public List<WarehouseStockDto> findAllFreeStock() {
+        return jdbcTemplate.query(SELECT_ALL_FREE_STOCK, STOCK_MAPPER);
+    }
+
+    public List<WarehouseStockDto> findFreeStock(Collection<UUID> productIds) {
+        UUID[] ids = productIds.toArray(UUID[]::new);
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_FREE_STOCK);
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            return statement;
+        }, STOCK_MAPPER);
+    }
+
+    public void setStock(UUID productId, String warehouseId, int quantity) {
+        jdbcTemplate.update(SET_STOCK, productId, warehouseId, quantity);
+    }
+
+    /**
+     * Takes confirmed quantities off the on-hand stock of their warehouses with one statement. Returns
+     * false when a warehouse does not hold its quantity, in which case the other rows are still
+     * updated and the caller is expected to roll back.
+     */
+    public boolean shipConfirmed(Map<UUID, Map<String, Integer>> quantities) {
+        if (quantities.isEmpty()) {
+            return true;
+        }
+
+        List<UUID> productIds = new ArrayList<>();
+        List<String> warehouseIds = new ArrayList<>();
+        List<Integer> amounts = new ArrayList<>();
+
+        quantities.forEach((productId, byWarehouse) -> byWarehouse.forEach((warehouseId, quantity) -> {
+            productIds.add(productId);
+            warehouseIds.add(warehouseId);
+            amounts.add(quantity);
+        }));
+
+        int updated = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SHIP_CONFIRMED);
+            statement.setArray(1, connection.createArrayOf("uuid", productIds.toArray()));
+            statement.setArray(2, connection.createArrayOf("varchar", warehouseIds.toArray()));
+            statement.setArray(3, connection.createArrayOf("int4", amounts.toArray()));
+            return statement;
+        });
+
+        return updated == productIds.size();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.inventory_service.scheduler;
+
+import com.example.inventory_service.service.InventoryBucketService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@EnableScheduling
+@Slf4j
+public class InventoryBucketRebalancer {
+    private final InventoryBucketService inventoryBucketService;
+
+    public InventoryBucketRebalancer(InventoryBucketService inventoryBucketService) {
+        this.inventoryBucketService = inventoryBucketService;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.buckets.rebalance-delay-ms:5000}")
+    public void rebalanceDryBuckets() {
+        List<UUID> productIds = inventoryBucketService.drainDryProducts();
+
+        for (UUID productId : productIds) {
+            try {
+                inventoryBucketService.rebalance(productId);
+            } catch (Exception e) {
+                log.error("Failed to rebalance inventory buckets for product {}", productId, e);
+            }
+        }
+    }
+}
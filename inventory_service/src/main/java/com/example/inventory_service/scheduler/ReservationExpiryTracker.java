@@ -0,0 +1,125 @@
+package com.example.inventory_service.scheduler;
+
+import com.example.inventory_service.dto.OrderExpiryDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.repository.StockReservationRepository;
+import com.example.inventory_service.service.StockReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases each order's reservations as soon as they expire instead of waiting for a periodic sweep.
+ * Orders are tracked in a {@link DelayQueue} from the moment their reservation commits and dropped
+ * again when they are confirmed or released; the queue is rebuilt from {@code stock_reservation} on
+ * startup. Anything this misses, e.g. reservations taken by another instance, is left to the catch-up
+ * sweep in {@link ReservationTimeoutScheduler}.
+ */
+@Component
+@Slf4j
+public class ReservationExpiryTracker {
+    @Value("${inventory.reservation.ttl-minutes:15}")
+    private long reservationTtlMinutes;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final StockReservationService stockReservationService;
+    private final DelayQueue<ExpiringOrder> queue = new DelayQueue<>();
+    private final Map<UUID, ExpiringOrder> pending = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    private Thread expiryThread;
+
+    public ReservationExpiryTracker(
+            StockReservationRepository stockReservationRepository,
+            StockReservationService stockReservationService,
+            MeterRegistry meterRegistry
+    ) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.stockReservationService = stockReservationService;
+
+        meterRegistry.gaugeMapSize("inventory.reservation.expiry.pending", List.of(), pending);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<OrderExpiryDto> expiries = stockReservationRepository.findReservedOrderExpiries();
+        expiries.forEach(expiry -> track(expiry.getOrderId(), expiry.getExpiresAt()));
+
+        expiryThread = new Thread(this::releaseDueOrders, "reservation-expiry");
+        expiryThread.setDaemon(true);
+        expiryThread.start();
+
+        log.info("Reservation expiry tracker started with {} orders", expiries.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+
+        if (expiryThread != null) {
+            expiryThread.interrupt();
+        }
+    }
+
+    public void track(UUID orderId, LocalDateTime expiresAt) {
+        ExpiringOrder expiringOrder = new ExpiringOrder(orderId, System.nanoTime() + Duration.between(LocalDateTime.now(), expiresAt).toNanos());
+
+        pending.put(orderId, expiringOrder);
+        queue.add(expiringOrder);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        switch (event.getType()) {
+            case RESERVED -> track(event.getOrderId(), LocalDateTime.now().plusMinutes(reservationTtlMinutes));
+            // The stale queue entry is skipped when it comes due
+            case CONFIRMED, RELEASED -> pending.remove(event.getOrderId());
+        }
+    }
+
+    private void releaseDueOrders() {
+        while (running) {
+            try {
+                ExpiringOrder due = queue.take();
+
+                if (!pending.remove(due.orderId(), due)) {
+                    continue;
+                }
+
+                stockReservationService.releaseReservation(due.orderId());
+                log.info("Released expired reservations for order: {}", due.orderId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Failed to release expired reservations, the catch-up sweep will retry", e);
+            }
+        }
+    }
+
+    private record ExpiringOrder(UUID orderId, long deadlineNanos) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineNanos, ((ExpiringOrder) other).deadlineNanos);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.inventory_service.scheduler;
+
+import com.example.inventory_service.dto.ReservedQuantityDto;
+import com.example.inventory_service.repository.StockReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Compares {@code inventory.reserved_quantity} with the sum of RESERVED rows in
+ * {@code stock_reservation} and repairs any drift. Rows are walked in product id order in small
+ * chunks; each chunk is locked with SKIP LOCKED before the aggregate is read, so the comparison
+ * never races a reservation in flight and never blocks one either. The lock also holds off new
+ * {@code stock_movements} appends, so the counter is compared including the reserved deltas not
+ * folded into it yet. Products sharded into {@code inventory_buckets} are skipped, their row counter
+ * is not used.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "inventory.reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ReservedQuantityReconciler {
+    private static final UUID LOWEST_PRODUCT_ID = new UUID(0L, 0L);
+
+    private static final String LOCK_CHUNK = """
+            SELECT product_id,
+                   reserved_quantity,
+                   COALESCE((SELECT SUM(m.reserved_delta) FROM inventory_service.stock_movements m
+                             WHERE m.product_id = inventory.product_id AND NOT m.folded), 0) AS pending_delta
+            FROM inventory_service.inventory
+            WHERE product_id > ? AND bucket_count = 0
+            ORDER BY product_id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String REPAIR_RESERVED = """
+            UPDATE inventory_service.inventory
+            SET reserved_quantity = ?, last_updated = ?
+            WHERE product_id = ?
+            """;
+
+    @Value("${inventory.reconciliation.chunk-size:200}")
+    private int chunkSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockReservationRepository stockReservationRepository;
+
+    private final Counter driftedProducts;
+    private final DistributionSummary driftUnits;
+    private final Timer reconciliationTimer;
+    private final AtomicInteger lastRunDriftedProducts = new AtomicInteger();
+
+    public ReservedQuantityReconciler(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            StockReservationRepository stockReservationRepository,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stockReservationRepository = stockReservationRepository;
+
+        this.driftedProducts = Counter.builder("inventory.reconciliation.drifted.products")
+                .description("Products whose reserved_quantity did not match their RESERVED reservations")
+                .register(meterRegistry);
+        this.driftUnits = DistributionSummary.builder("inventory.reconciliation.drift.units")
+                .description("Absolute reserved quantity drift repaired per product")
+                .register(meterRegistry);
+        this.reconciliationTimer = Timer.builder("inventory.reconciliation.duration")
+                .register(meterRegistry);
+        meterRegistry.gauge("inventory.reconciliation.last.drifted.products", lastRunDriftedProducts);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reconciliation.fixed-delay-ms:300000}")
+    public void reconcileReservedQuantities() {
+        reconciliationTimer.record(() -> {
+            UUID after = LOWEST_PRODUCT_ID;
+            int checked = 0;
+            int drifted = 0;
+
+            while (after != null) {
+                ChunkResult chunk = reconcileChunk(after);
+
+                checked += chunk.checked();
+                drifted += chunk.drifted();
+                after = chunk.lastProductId();
+            }
+
+            lastRunDriftedProducts.set(drifted);
+
+            if (drifted > 0) {
+                log.warn("Reserved quantity reconciliation repaired {} of {} products", drifted, checked);
+            } else {
+                log.debug("Reserved quantity reconciliation checked {} products, no drift", checked);
+            }
+        });
+    }
+
+    private ChunkResult reconcileChunk(UUID after) {
+        return transactionTemplate.execute(status -> {
+            Map<UUID, Integer> counters = new LinkedHashMap<>();
+            Map<UUID, Integer> pendingDeltas = new HashMap<>();
+
+            jdbcTemplate.query(LOCK_CHUNK, rs -> {
+                UUID productId = rs.getObject("product_id", UUID.class);
+                int pendingDelta = rs.getInt("pending_delta");
+
+                counters.put(productId, rs.getInt("reserved_quantity") + pendingDelta);
+                pendingDeltas.put(productId, pendingDelta);
+            }, after, chunkSize);
+
+            if (counters.isEmpty()) {
+                return new ChunkResult(0, 0, null);
+            }
+
+            List<UUID> productIds = new ArrayList<>(counters.keySet());
+            Map<UUID, Long> actual = stockReservationRepository.getTotalReservedQuantityByProductIds(productIds)
+                    .stream()
+                    .collect(Collectors.toMap(ReservedQuantityDto::getProductId, ReservedQuantityDto::getQuantity));
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> repairs = new ArrayList<>();
+
+            counters.forEach((productId, counter) -> {
+                int expected = actual.getOrDefault(productId, 0L).intValue();
+
+                if (expected != counter) {
+                    log.warn("Reserved quantity drift for product {}: counter {}, reservations {}", productId, counter, expected);
+
+                    driftedProducts.increment();
+                    driftUnits.record(Math.abs(expected - counter));
+                    repairs.add(new Object[]{expected - pendingDeltas.get(productId), now, productId});
+                }
+            });
+
+            if (!repairs.isEmpty()) {
+                jdbcTemplate.batchUpdate(REPAIR_RESERVED, repairs);
+            }
+
+            return new ChunkResult(counters.size(), repairs.size(), productIds.get(productIds.size() - 1));
+        });
+    }
+
+    private record ChunkResult(int checked, int drifted, UUID lastProductId) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.inventory_service.scheduler;
+
+import com.example.inventory_service.service.StockMovementService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically folds the {@code stock_movements} log into the inventory rows, one page per
+ * transaction until the backlog is drained. Pages are claimed with SKIP LOCKED, so replicas running
+ * the same job fold disjoint movements.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "inventory.movements.enabled", havingValue = "true")
+@Slf4j
+public class StockMovementFoldScheduler {
+    @Value("${inventory.movements.fold-page-size:1000}")
+    private int pageSize;
+
+    private final StockMovementService stockMovementService;
+
+    private final Counter foldedMovements;
+    private final Timer foldTimer;
+
+    public StockMovementFoldScheduler(StockMovementService stockMovementService, MeterRegistry meterRegistry) {
+        this.stockMovementService = stockMovementService;
+
+        this.foldedMovements = Counter.builder("inventory.movements.folded")
+                .description("Stock movements folded into inventory rows")
+                .register(meterRegistry);
+        this.foldTimer = Timer.builder("inventory.movements.fold.duration")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.movements.fold-delay-ms:1000}")
+    public void foldMovements() {
+        foldTimer.record(() -> {
+            int folded = 0;
+            int page;
+
+            do {
+                try {
+                    page = stockMovementService.foldPage(pageSize);
+                } catch (Exception e) {
+                    log.error("Failed to fold a page of stock movements", e);
+                    break;
+                }
+
+                folded += page;
+                foldedMovements.increment(page);
+            } while (page == pageSize);
+
+            if (folded > 0) {
+                log.debug("Folded {} stock movements", folded);
+            }
+        });
+    }
+}
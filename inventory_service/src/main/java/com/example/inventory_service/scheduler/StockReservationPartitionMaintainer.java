@@ -0,0 +1,298 @@
+package com.example.inventory_service.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps {@code stock_reservation} partitioned by day. Partitions are created {@code days-ahead} days in
+ * advance so inserts never land in the default partition. Once a day is older than
+ * {@code retention-days} and holds no RESERVED rows, its partition is detached and attached to
+ * {@code stock_reservation_archive}, which moves it without copying a row. Archived days are dropped
+ * whole after {@code archive-retention-days}. The hot tables therefore only ever hold a bounded number
+ * of days, whatever the total history. DDL runs with a short lock timeout and is retried on the next
+ * run rather than queueing reservations behind it.
+ *
+ * <p>Partitions leave {@code stock_reservation} with {@code DETACH PARTITION ... CONCURRENTLY}, which
+ * never takes more than SHARE UPDATE EXCLUSIVE on the table reservations use. Postgres refuses it
+ * while the table has a default partition, so a default left by older schemas is detached once. A
+ * concurrent detach that was interrupted is finished with {@code FINALIZE}, and a detached partition
+ * that did not make it into the archive is attached there on the next run.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "inventory.reservation-partitions.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class StockReservationPartitionMaintainer {
+    static final String PARTITION_PREFIX = "stock_reservation_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    static final String LIST_PARTITIONS = """
+            SELECT child.relname
+            FROM pg_inherits i
+            JOIN pg_class parent ON parent.oid = i.inhparent
+            JOIN pg_class child ON child.oid = i.inhrelid
+            JOIN pg_namespace n ON n.oid = parent.relnamespace
+            WHERE n.nspname = 'inventory_service' AND parent.relname = ?
+            """;
+
+    static final String LIST_DETACH_PENDING = """
+            SELECT child.relname
+            FROM pg_inherits i
+            JOIN pg_class parent ON parent.oid = i.inhparent
+            JOIN pg_class child ON child.oid = i.inhrelid
+            JOIN pg_namespace n ON n.oid = parent.relnamespace
+            WHERE n.nspname = 'inventory_service' AND parent.relname = 'stock_reservation' AND i.inhdetachpending
+            """;
+
+    // Daily partitions attached to neither table
+    static final String LIST_DETACHED = """
+            SELECT c.relname
+            FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = 'inventory_service' AND c.relkind = 'r' AND NOT c.relispartition
+              AND starts_with(c.relname, 'stock_reservation_p')
+            """;
+
+    static final String DEFAULT_PARTITION = "stock_reservation_default";
+
+    static final String IS_PARTITIONED = """
+            SELECT EXISTS (
+                SELECT 1
+                FROM pg_partitioned_table p
+                JOIN pg_class c ON c.oid = p.partrelid
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE n.nspname = 'inventory_service' AND c.relname = 'stock_reservation'
+            )
+            """;
+
+    @Value("${inventory.reservation-partitions.days-ahead:7}")
+    private int daysAhead;
+
+    @Value("${inventory.reservation-partitions.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${inventory.reservation-partitions.archive-retention-days:90}")
+    private int archiveRetentionDays;
+
+    @Value("${inventory.reservation-partitions.lock-timeout-ms:2000}")
+    private long lockTimeoutMs;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archivedPartitions;
+    private final Counter droppedPartitions;
+
+    public StockReservationPartitionMaintainer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+
+        this.archivedPartitions = Counter.builder("inventory.reservation.partitions.archived")
+                .description("Daily stock_reservation partitions moved to the archive")
+                .register(meterRegistry);
+        this.droppedPartitions = Counter.builder("inventory.reservation.partitions.dropped")
+                .description("Daily archive partitions dropped after the archive retention")
+                .register(meterRegistry);
+    }
+
+    // Runs before the Kafka listeners start, so today's partition exists before the first reservation
+    @PostConstruct
+    public void init() {
+        requirePartitionedTable();
+        createUpcomingPartitions(LocalDate.now());
+        detachDefaultPartition();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation-partitions.maintenance-delay-ms:3600000}")
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+
+        createUpcomingPartitions(today);
+        detachDefaultPartition();
+        archiveOldPartitions(today.minusDays(retentionDays));
+        dropArchivedPartitions(today.minusDays(archiveRetentionDays));
+    }
+
+    /**
+     * schema.sql cannot turn an existing plain {@code stock_reservation} into a partitioned one, and every
+     * ATTACH and DETACH against it would only fail with a warning, so the service refuses to start instead.
+     */
+    void requirePartitionedTable() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED, Boolean.class))) {
+            throw new IllegalStateException("inventory_service.stock_reservation is not partitioned, "
+                    + "run scripts/stock-reservation-partitioning.sql against the inventory database first");
+        }
+    }
+
+    void createUpcomingPartitions(LocalDate today) {
+        List<String> existing = partitionsOf("stock_reservation");
+
+        for (LocalDate day = today; !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            String partition = PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+
+            if (existing.contains(partition)) {
+                continue;
+            }
+
+            LocalDate from = day;
+            runDdl("create partition " + partition, () -> {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS inventory_service." + partition
+                        + " (LIKE inventory_service.stock_reservation INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                jdbcTemplate.execute("ALTER TABLE inventory_service.stock_reservation ATTACH PARTITION inventory_service." + partition
+                        + " FOR VALUES FROM ('" + from + "') TO ('" + from.plusDays(1) + "')");
+            });
+        }
+    }
+
+    void detachDefaultPartition() {
+        if (!partitionsOf("stock_reservation").contains(DEFAULT_PARTITION)) {
+            return;
+        }
+
+        // The daily partitions are created days ahead, so the default only ever catches stray rows
+        runDdl("detach the default partition", () -> {
+            jdbcTemplate.execute("ALTER TABLE inventory_service.stock_reservation DETACH PARTITION inventory_service." + DEFAULT_PARTITION);
+
+            Boolean hasRows = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM inventory_service." + DEFAULT_PARTITION + ")", Boolean.class);
+
+            if (Boolean.TRUE.equals(hasRows)) {
+                log.warn("Detached default partition {} still holds rows, kept for inspection", DEFAULT_PARTITION);
+            } else {
+                jdbcTemplate.execute("DROP TABLE inventory_service." + DEFAULT_PARTITION);
+            }
+        });
+    }
+
+    void archiveOldPartitions(LocalDate before) {
+        List<String> detachPending = jdbcTemplate.queryForList(LIST_DETACH_PENDING, String.class);
+
+        for (String partition : detachPending) {
+            runOutsideTransaction("finish detaching partition " + partition,
+                    "ALTER TABLE inventory_service.stock_reservation DETACH PARTITION inventory_service." + partition + " FINALIZE");
+        }
+
+        for (String partition : partitionsOf("stock_reservation")) {
+            Optional<LocalDate> day = dayOf(partition);
+
+            if (detachPending.contains(partition) || day.isEmpty() || !day.get().isBefore(before)) {
+                continue;
+            }
+
+            Boolean hasReserved = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM inventory_service." + partition + " WHERE status = 'RESERVED')", Boolean.class);
+
+            if (Boolean.TRUE.equals(hasReserved)) {
+                log.info("Partition {} still holds RESERVED rows, waiting for the expiry sweep", partition);
+                continue;
+            }
+
+            runOutsideTransaction("detach partition " + partition,
+                    "ALTER TABLE inventory_service.stock_reservation DETACH PARTITION inventory_service." + partition + " CONCURRENTLY");
+        }
+
+        // Everything detached above, plus partitions whose archive step failed on an earlier run
+        for (String partition : jdbcTemplate.queryForList(LIST_DETACHED, String.class)) {
+            Optional<LocalDate> day = dayOf(partition);
+
+            if (day.isEmpty()) {
+                continue;
+            }
+
+            boolean archived = runDdl("archive partition " + partition, () -> jdbcTemplate.execute(
+                    "ALTER TABLE inventory_service.stock_reservation_archive ATTACH PARTITION inventory_service." + partition
+                            + " FOR VALUES FROM ('" + day.get() + "') TO ('" + day.get().plusDays(1) + "')"));
+
+            if (archived) {
+                archivedPartitions.increment();
+                log.info("Archived stock_reservation partition {}", partition);
+            }
+        }
+    }
+
+    void dropArchivedPartitions(LocalDate before) {
+        for (String partition : partitionsOf("stock_reservation_archive")) {
+            Optional<LocalDate> day = dayOf(partition);
+
+            if (day.isEmpty() || !day.get().isBefore(before)) {
+                continue;
+            }
+
+            if (runDdl("drop partition " + partition, () -> jdbcTemplate.execute("DROP TABLE inventory_service." + partition))) {
+                droppedPartitions.increment();
+                log.info("Dropped archived stock_reservation partition {}", partition);
+            }
+        }
+    }
+
+    private List<String> partitionsOf(String parent) {
+        return jdbcTemplate.queryForList(LIST_PARTITIONS, String.class, parent);
+    }
+
+    // DETACH ... CONCURRENTLY cannot run in a transaction block; the connection is in auto-commit here
+    private boolean runOutsideTransaction(String description, String ddl) {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET lock_timeout = '" + lockTimeoutMs + "ms'");
+                    try {
+                        statement.execute(ddl);
+                    } finally {
+                        statement.execute("RESET lock_timeout");
+                    }
+                }
+                return null;
+            });
+
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not {}, retrying on the next run: {}", description, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean runDdl(String description, Runnable ddl) {
+        try {
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeoutMs + "ms'");
+                ddl.run();
+                return null;
+            });
+
+            return true;
+        } catch (DataAccessException | IllegalStateException e) {
+            log.warn("Could not {}, retrying on the next run: {}", description, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Optional<LocalDate> dayOf(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
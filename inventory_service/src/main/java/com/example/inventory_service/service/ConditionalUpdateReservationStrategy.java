@@ -0,0 +1,139 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.BucketAllocationDto;
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.dto.ProductSnapshotDto;
+import com.example.inventory_service.dto.ReservationRequestDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.model.StockReservation;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Reserves each product with a single guarded UPDATE instead of locking, reading and writing the
+ * inventory row. The row lock is only held from the UPDATE to the commit (with the movement log on,
+ * from a lock taken just before it), and a failed guard simply affects no row, so there is nothing
+ * to retry. Products sharded into buckets never match the guard
+ * and are reserved through {@link InventoryBucketService} instead.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.reservation.strategy", havingValue = "conditional-update")
+@Slf4j
+public class ConditionalUpdateReservationStrategy implements ReservationStrategy {
+    // Same order Postgres uses for uuid, so concurrent orders update shared rows in the same sequence.
+    private static final Comparator<UUID> LOCK_ORDER = Comparator.comparing(UUID::toString);
+
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final StockReservationRepository stockReservationRepository;
+    private final StockReservationService stockReservationService;
+    private final StockAlertService stockAlertService;
+    private final InventoryBucketService inventoryBucketService;
+
+    public ConditionalUpdateReservationStrategy(
+            InventoryJdbcRepository inventoryJdbcRepository,
+            ProductCatalogCache productCatalogCache,
+            StockReservationRepository stockReservationRepository,
+            StockReservationService stockReservationService,
+            StockAlertService stockAlertService,
+            InventoryBucketService inventoryBucketService
+    ) {
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.stockReservationRepository = stockReservationRepository;
+        this.stockReservationService = stockReservationService;
+        this.stockAlertService = stockAlertService;
+        this.inventoryBucketService = inventoryBucketService;
+    }
+
+    @Override
+    @Transactional
+    public List<StockReservation> reserve(UUID orderId, List<ReservationRequestDto> reservationRequests) {
+        log.info("Attempting conditional reservation for order: {}", orderId);
+
+        Map<UUID, Integer> requestedByProduct = new TreeMap<>(LOCK_ORDER);
+        reservationRequests.forEach(request -> requestedByProduct.merge(request.getProductId(), request.getQuantity(), Integer::sum));
+
+        Map<UUID, InventoryLevelDto> levels = new HashMap<>();
+        Map<UUID, List<BucketAllocationDto>> bucketAllocations = new HashMap<>();
+
+        for (Map.Entry<UUID, Integer> requested : requestedByProduct.entrySet()) {
+            Optional<InventoryLevelDto> level = inventoryJdbcRepository.reserveIfAvailable(requested.getKey(), requested.getValue());
+
+            if (level.isPresent()) {
+                levels.put(requested.getKey(), level.get());
+                continue;
+            }
+
+            Optional<InventoryLevelDto> current = inventoryJdbcRepository.findLevel(requested.getKey());
+
+            if (current.isPresent() && current.get().getBucketCount() > 0) {
+                List<BucketAllocationDto> allocations = inventoryBucketService.reserve(orderId, requested.getKey(), current.get().getBucketCount(), requested.getValue());
+
+                if (!allocations.isEmpty()) {
+                    bucketAllocations.put(requested.getKey(), allocations);
+                    continue;
+                }
+
+                current = inventoryJdbcRepository.findLevel(requested.getKey());
+            }
+
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+
+            int availableForReservation = current
+                    .map(value -> value.getAvailableQuantity() - value.getReservedQuantity())
+                    .orElse(0);
+
+            log.warn("Insufficient stock for product {} - requested: {}, available: {}",
+                    requested.getKey(), requested.getValue(), availableForReservation);
+
+            stockReservationService.publishOutOfStock(orderId, new ReservationRequestDto(requested.getKey(), requested.getValue()), availableForReservation);
+
+            return new ArrayList<>();
+        }
+
+        Map<UUID, ProductSnapshotDto> products = productCatalogCache.getAll(requestedByProduct.keySet());
+
+        List<StockReservation> reservations = new ArrayList<>();
+        for (ReservationRequestDto request : reservationRequests) {
+            if (!products.containsKey(request.getProductId())) {
+                throw new RuntimeException("Product not found: " + request.getProductId());
+            }
+
+            if (!bucketAllocations.containsKey(request.getProductId())) {
+                reservations.add(stockReservationService.newReservation(orderId, request.getProductId(), request.getQuantity()));
+            }
+        }
+
+        bucketAllocations.forEach((productId, allocations) -> allocations.forEach(allocation -> {
+            StockReservation reservation = stockReservationService.newReservation(orderId, productId, allocation.getQuantity());
+            reservation.setBucket(allocation.getBucket());
+            reservations.add(reservation);
+        }));
+
+        stockReservationRepository.saveAll(reservations);
+
+        levels.forEach((productId, level) -> stockAlertService.checkAndAlertLowStock(products.get(productId), level.getAvailableQuantity()));
+        bucketAllocations.keySet().forEach(productId -> inventoryJdbcRepository.findLevel(productId)
+                .ifPresent(level -> stockAlertService.checkAndAlertLowStock(products.get(productId), level.getAvailableQuantity())));
+
+        stockReservationService.publishStockChanged(StockChangedEvent.Type.RESERVED, orderId, reservations);
+
+        log.info("Successfully reserved stock for order: {} ({} lines)", orderId, reservations.size());
+        return reservations;
+    }
+}
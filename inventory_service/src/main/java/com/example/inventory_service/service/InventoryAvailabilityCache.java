@@ -0,0 +1,176 @@
+package com.example.inventory_service.service;
+
+import com.example.events.inventory.InventoryAvailabilityChangedEvent;
+import com.example.inventory_service.dto.ProductAvailabilityDto;
+import com.example.inventory_service.event.InventoryAvailabilityChanged;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.publisher.EventPublisher;
+import com.example.inventory_service.repository.InventoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded near-cache of product availability for the read-only {@code POST /api/inventory} check.
+ * Entries are dropped as soon as this instance commits a reservation, confirmation or release for
+ * the product, and the product ids are broadcast on the availability-changed topic so the other
+ * instances drop theirs too. The TTL bounds staleness if a broadcast is lost.
+ */
+@Component
+@EnableScheduling
+@Slf4j
+public class InventoryAvailabilityCache {
+    @Value("#{kafkaTopics.inventoryAvailabilityChanged}")
+    private String inventoryAvailabilityChangedTopic;
+
+    private final InventoryRepository inventoryRepository;
+    private final EventPublisher eventPublisher;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Cache<UUID, CachedAvailability> cache;
+    // When each product was last invalidated, so a load that raced an invalidation is not cached
+    private final Cache<UUID, Long> invalidatedAt;
+    private final Set<UUID> pendingBroadcast = ConcurrentHashMap.newKeySet();
+
+    private final DistributionSummary entryAge;
+    private final Timer invalidationLag;
+
+    public InventoryAvailabilityCache(
+            InventoryRepository inventoryRepository,
+            EventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.availability-cache.maximum-size:100000}") long maximumSize,
+            @Value("${inventory.availability-cache.ttl-ms:5000}") long ttlMs
+    ) {
+        this.inventoryRepository = inventoryRepository;
+        this.eventPublisher = eventPublisher;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        this.invalidatedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "inventory.availability");
+        meterRegistry.gauge("inventory.availability.cache.hit.ratio", cache, value -> value.stats().hitRate());
+        this.entryAge = DistributionSummary.builder("inventory.availability.cache.entry.age")
+                .description("Age in milliseconds of cached availability when it is served")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("inventory.availability.cache.invalidation.lag")
+                .description("Delay between a stock change on another instance and its invalidation here")
+                .register(meterRegistry);
+    }
+
+    public Map<UUID, ProductAvailabilityDto> getAll(Collection<UUID> productIds) {
+        Map<UUID, ProductAvailabilityDto> result = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        long now = System.nanoTime();
+
+        for (UUID productId : productIds) {
+            CachedAvailability cached = cache.getIfPresent(productId);
+
+            if (cached != null) {
+                entryAge.record(TimeUnit.NANOSECONDS.toMillis(now - cached.loadedAt()));
+                result.put(productId, cached.availability());
+            } else {
+                missing.add(productId);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long loadStartedAt = System.nanoTime();
+
+        for (ProductAvailabilityDto availability : inventoryRepository.findAvailabilityByProductIdIn(missing)) {
+            result.put(availability.getProductId(), availability);
+
+            Long lastInvalidated = invalidatedAt.getIfPresent(availability.getProductId());
+            if (lastInvalidated == null || lastInvalidated < loadStartedAt) {
+                cache.put(availability.getProductId(), new CachedAvailability(availability, loadStartedAt));
+            }
+        }
+
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        invalidate(event.getQuantities().keySet());
+        pendingBroadcast.addAll(event.getQuantities().keySet());
+    }
+
+    /**
+     * Name and price are cached alongside the quantities, so a product update is handled like a stock
+     * change.
+     */
+    public void onProductChanged(Collection<UUID> productIds) {
+        invalidate(productIds);
+        pendingBroadcast.addAll(productIds);
+    }
+
+    /**
+     * Applies an invalidation broadcast by another instance; our own broadcasts are ignored.
+     */
+    public void onRemoteChange(InventoryAvailabilityChangedEvent event) {
+        if (instanceId.equals(event.getSourceInstance())) {
+            return;
+        }
+
+        invalidate(event.getProductIds().stream().map(UUID::fromString).toList());
+        invalidationLag.record(Math.max(0, System.currentTimeMillis() - event.getChangedAt()), TimeUnit.MILLISECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.availability-cache.broadcast-interval-ms:100}")
+    public void broadcastChanges() {
+        if (pendingBroadcast.isEmpty()) {
+            return;
+        }
+
+        List<UUID> productIds = new ArrayList<>(pendingBroadcast);
+        pendingBroadcast.removeAll(productIds);
+
+        InventoryAvailabilityChangedEvent event = new InventoryAvailabilityChangedEvent(
+                productIds.stream().map(UUID::toString).toList(),
+                instanceId,
+                System.currentTimeMillis()
+        );
+
+        eventPublisher.publish(new InventoryAvailabilityChanged(inventoryAvailabilityChangedTopic, event, instanceId));
+    }
+
+    private void invalidate(Collection<UUID> productIds) {
+        long now = System.nanoTime();
+
+        productIds.forEach(productId -> invalidatedAt.put(productId, now));
+        cache.invalidateAll(productIds);
+    }
+
+    private record CachedAvailability(ProductAvailabilityDto availability, long loadedAt) {
+    }
+}
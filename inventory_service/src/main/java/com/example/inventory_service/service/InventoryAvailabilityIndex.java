@@ -0,0 +1,128 @@
+package com.example.inventory_service.service;
+
+import com.example.events.inventory.InventoryAvailabilityChangedEvent;
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory in-stock flag per product behind {@code POST /api/inventory/in-stock}, so listing pages
+ * never reach the database. The index is loaded once at startup and then kept current incrementally:
+ * products touched by a local stock change or by another instance's availability broadcast are
+ * marked dirty and re-read in batches every {@code refresh-interval-ms}. A full rebuild every
+ * {@code rebuild-interval-ms} repairs anything a lost broadcast left stale.
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "inventory.availability-index.enabled", havingValue = "true")
+@Slf4j
+public class InventoryAvailabilityIndex {
+    @Value("${inventory.availability-index.refresh-batch-size:1000}")
+    private int refreshBatchSize;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final Map<UUID, Boolean> inStock = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    // Products changed while a rebuild was loading; the rebuild may have read them before the change
+    private final Set<UUID> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    public InventoryAvailabilityIndex(InventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    /**
+     * Bit {@code i} of the result is set when {@code productIds.get(i)} has stock free to reserve.
+     * Unknown products read as out of stock.
+     */
+    public BitSet inStock(List<UUID> productIds) {
+        BitSet bitmap = new BitSet(productIds.size());
+
+        for (int i = 0; i < productIds.size(); i++) {
+            if (inStock.getOrDefault(productIds.get(i), false)) {
+                bitmap.set(i);
+            }
+        }
+
+        return bitmap;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        markDirty(event.getQuantities().keySet());
+    }
+
+    public void onRemoteChange(InventoryAvailabilityChangedEvent event) {
+        markDirty(event.getProductIds().stream().map(UUID::fromString).toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${inventory.availability-index.rebuild-interval-ms:600000}",
+            fixedDelayString = "${inventory.availability-index.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        rebuilding = true;
+
+        try {
+            List<InventoryLevelDto> levels = inventoryRepository.findAllTotalLevels();
+            levels.forEach(this::put);
+
+            log.info("Availability index rebuilt with {} products", levels.size());
+        } finally {
+            rebuilding = false;
+            dirty.addAll(changedDuringRebuild);
+            changedDuringRebuild.clear();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.availability-index.refresh-interval-ms:200}")
+    public void refreshDirty() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<UUID> productIds = new ArrayList<>(dirty);
+        dirty.removeAll(productIds);
+
+        for (int from = 0; from < productIds.size(); from += refreshBatchSize) {
+            List<UUID> batch = productIds.subList(from, Math.min(from + refreshBatchSize, productIds.size()));
+
+            try {
+                inventoryRepository.findTotalLevelsByProductIdIn(batch).forEach(this::put);
+            } catch (RuntimeException e) {
+                log.error("Failed to refresh availability of {} products, retrying on the next run", batch.size(), e);
+                dirty.addAll(batch);
+            }
+        }
+    }
+
+    private void markDirty(Collection<UUID> productIds) {
+        dirty.addAll(productIds);
+
+        if (rebuilding) {
+            changedDuringRebuild.addAll(productIds);
+        }
+    }
+
+    private void put(InventoryLevelDto level) {
+        inStock.put(level.getProductId(), level.getAvailableQuantity() > level.getReservedQuantity());
+    }
+}
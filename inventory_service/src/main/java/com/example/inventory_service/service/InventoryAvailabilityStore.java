@@ -0,0 +1,179 @@
+package com.example.inventory_service.service;
+
+import com.example.events.inventory.ProductAvailabilityEvent;
+import com.example.events.inventory.ProductAvailabilityState;
+import com.example.events.inventory.SnapshotWatermark;
+import com.example.events.inventory.StockMovementEvent;
+import com.example.events.inventory.StockMovementType;
+import com.example.inventory_service.config.InventoryStreamsConfig;
+import com.example.inventory_service.dto.StockAvailabilityDto;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.streams.KafkaStreamsInteractiveQueryService;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Interactive queries against the availability table built by {@link InventoryStreamsConfig}. Each
+ * instance holds the partitions assigned to it; a product owned by another instance is fetched from
+ * that instance's {@code local} endpoint. Postgres is never read.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.availability-streams.enabled", havingValue = "true")
+public class InventoryAvailabilityStore {
+    private final KafkaStreamsInteractiveQueryService interactiveQueryService;
+    private final RestTemplate restTemplate;
+
+    public InventoryAvailabilityStore(KafkaStreamsInteractiveQueryService interactiveQueryService, RestTemplate restTemplate) {
+        this.interactiveQueryService = interactiveQueryService;
+        this.restTemplate = restTemplate;
+    }
+
+    public Optional<StockAvailabilityDto> find(UUID productId) {
+        HostInfo owner = interactiveQueryService.getKafkaStreamsApplicationHostInfo(
+                InventoryStreamsConfig.AVAILABILITY_STORE, productId.toString(), Serdes.String().serializer());
+
+        if (owner == null || owner.equals(interactiveQueryService.getCurrentKafkaStreamsApplicationHostInfo())) {
+            return findLocal(productId);
+        }
+
+        String url = "http://" + owner.host() + ":" + owner.port() + "/api/inventory/availability/" + productId + "?local=true";
+
+        try {
+            return Optional.ofNullable(restTemplate.getForObject(url, StockAvailabilityDto.class));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    public Optional<StockAvailabilityDto> findLocal(UUID productId) {
+        ReadOnlyKeyValueStore<String, ProductAvailabilityState> store = interactiveQueryService.retrieveQueryableStore(
+                InventoryStreamsConfig.AVAILABILITY_STORE, QueryableStoreTypes.keyValueStore());
+
+        return Optional.ofNullable(store.get(productId.toString()))
+                .filter(ProductAvailabilityState::getSeeded)
+                .map(InventoryAvailabilityStore::toDto);
+    }
+
+    /**
+     * Applies one movement to a product's fold state. Deltas that arrive before the product's first
+     * snapshot round are dropped; the snapshot already accounts for them.
+     *
+     * <p>A snapshot counts exactly the deltas whose transaction is visible in its watermark. Those
+     * arriving after it are dropped, and those that arrived between SNAPSHOT_STARTED and the snapshot
+     * but committed too late for it are applied again on top of it.
+     */
+    public static ProductAvailabilityState fold(ProductAvailabilityState current, StockMovementEvent movement) {
+        if (movement.getType() == StockMovementType.SNAPSHOT_STARTED) {
+            ProductAvailabilityState state = current == null ? unseeded(movement.getProductId()) : copy(current);
+            state.setSnapshotStarted(true);
+            state.setPending(new ArrayList<>());
+            return state;
+        }
+
+        if (movement.getType() == StockMovementType.SNAPSHOT) {
+            ProductAvailabilityState state = current == null ? unseeded(movement.getProductId()) : copy(current);
+            SnapshotWatermark watermark = movement.getWatermark();
+
+            state.setSeeded(true);
+            state.setAvailableQuantity(movement.getAvailableQuantity());
+            state.setReservedQuantity(movement.getReservedQuantity());
+            state.setUpdatedAt(movement.getOccurredAt());
+            state.setWatermark(watermark);
+
+            for (StockMovementEvent pending : state.getPending()) {
+                if (!countedIn(watermark, pending)) {
+                    apply(state, pending);
+                }
+            }
+
+            state.setSnapshotStarted(false);
+            state.setPending(new ArrayList<>());
+            return state;
+        }
+
+        if (current == null || countedIn(current.getWatermark(), movement)) {
+            return current;
+        }
+
+        ProductAvailabilityState state = copy(current);
+
+        if (state.getSnapshotStarted()) {
+            List<StockMovementEvent> pending = new ArrayList<>(state.getPending());
+            pending.add(movement);
+            state.setPending(pending);
+        }
+        if (state.getSeeded()) {
+            apply(state, movement);
+        }
+
+        return state;
+    }
+
+    public static ProductAvailabilityEvent toEvent(ProductAvailabilityState state) {
+        int available = state.getAvailableQuantity();
+        int reserved = state.getReservedQuantity();
+
+        return new ProductAvailabilityEvent(state.getProductId(), available, reserved, available - reserved, state.getUpdatedAt());
+    }
+
+    // Same rule as pg_visible_in_snapshot; deltas written outside a transaction are never counted
+    static boolean countedIn(SnapshotWatermark watermark, StockMovementEvent movement) {
+        Long transactionId = movement.getTransactionId();
+
+        if (watermark == null || transactionId == null) {
+            return false;
+        }
+
+        return transactionId < watermark.getXmin()
+                || (transactionId < watermark.getXmax() && !watermark.getInProgress().contains(transactionId));
+    }
+
+    private static void apply(ProductAvailabilityState state, StockMovementEvent movement) {
+        int available = state.getAvailableQuantity();
+        int reserved = state.getReservedQuantity();
+
+        switch (movement.getType()) {
+            case RESERVED -> reserved += movement.getQuantity();
+            case RELEASED -> reserved -= movement.getQuantity();
+            case RESTOCKED -> available += movement.getQuantity();
+            case CONFIRMED -> {
+                available -= movement.getQuantity();
+                reserved -= movement.getQuantity();
+            }
+            default -> {
+            }
+        }
+
+        state.setAvailableQuantity(available);
+        state.setReservedQuantity(reserved);
+        state.setUpdatedAt(movement.getOccurredAt());
+    }
+
+    private static ProductAvailabilityState unseeded(String productId) {
+        return new ProductAvailabilityState(productId, false, 0, 0, 0L, null, false, new ArrayList<>());
+    }
+
+    private static ProductAvailabilityState copy(ProductAvailabilityState state) {
+        return ProductAvailabilityState.newBuilder(state).build();
+    }
+
+    private static StockAvailabilityDto toDto(ProductAvailabilityState state) {
+        return new StockAvailabilityDto(
+                UUID.fromString(state.getProductId()),
+                state.getAvailableQuantity(),
+                state.getReservedQuantity(),
+                state.getAvailableQuantity() - state.getReservedQuantity(),
+                state.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.BucketAllocationDto;
+import com.example.inventory_service.dto.InventoryBucketDto;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.model.Inventory;
+import com.example.inventory_service.repository.InventoryBucketJdbcRepository;
+import com.example.inventory_service.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in sharding of a hot product's stock into K buckets. While a product is sharded its
+ * {@code inventory} row only carries the bucket count; the stock itself lives in
+ * {@code inventory_buckets}, and each order reserves from the bucket its id hashes to, so concurrent
+ * checkouts of the same SKU spread over K row locks instead of queueing on one. An order whose bucket
+ * runs dry borrows from the others, and the bucket is queued for {@link #rebalance(UUID)}.
+ */
+@Service
+@Slf4j
+public class InventoryBucketService {
+    @Value("${inventory.reservation.strategy:pessimistic}")
+    private String reservationStrategy;
+
+    @Value("${inventory.buckets.max-count:64}")
+    private int maxBucketCount;
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryBucketJdbcRepository inventoryBucketJdbcRepository;
+    private final StockMovementService stockMovementService;
+    private final Set<UUID> dryProducts = ConcurrentHashMap.newKeySet();
+
+    public InventoryBucketService(
+            InventoryRepository inventoryRepository,
+            InventoryBucketJdbcRepository inventoryBucketJdbcRepository,
+            StockMovementService stockMovementService
+    ) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryBucketJdbcRepository = inventoryBucketJdbcRepository;
+        this.stockMovementService = stockMovementService;
+    }
+
+    /**
+     * Splits the product's stock into {@code bucketCount} buckets, or folds it back onto the
+     * inventory row when {@code bucketCount} is 0. Reservations already held stay counted in bucket 0.
+     */
+    @Transactional
+    public void setBucketCount(UUID productId, int bucketCount) {
+        if (bucketCount < 0 || bucketCount > maxBucketCount) {
+            throw new IllegalArgumentException("Bucket count must be between 0 and " + maxBucketCount);
+        }
+
+        if (bucketCount > 0 && "ledger".equals(reservationStrategy)) {
+            throw new IllegalStateException("Bucket sharding is not supported with the ledger reservation strategy");
+        }
+
+        // Pending movements must be in the row before its quantities are split or replaced. Folding
+        // locks the row, so the locking read below never waits and its totals match the row.
+        stockMovementService.foldProduct(productId);
+
+        Inventory inventory = inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new RuntimeException("Inventory not found"));
+
+        int available = inventory.getAvailableQuantity();
+        int reserved = inventory.getReservedQuantity();
+
+        if (inventory.getBucketCount() > 0) {
+            List<InventoryBucketDto> buckets = inventoryBucketJdbcRepository.lockBuckets(productId);
+
+            available = buckets.stream().mapToInt(InventoryBucketDto::getAvailableQuantity).sum();
+            reserved = buckets.stream().mapToInt(InventoryBucketDto::getReservedQuantity).sum();
+
+            inventoryBucketJdbcRepository.deleteBuckets(productId);
+        }
+
+        if (bucketCount > 0) {
+            inventoryBucketJdbcRepository.insertBuckets(split(productId, available, reserved, bucketCount));
+
+            inventory.setAvailableQuantity(0);
+            inventory.setReservedQuantity(0);
+        } else {
+            inventory.setAvailableQuantity(available);
+            inventory.setReservedQuantity(reserved);
+        }
+
+        inventory.setBucketCount(bucketCount);
+        inventory.setLastUpdated(LocalDateTime.now());
+        inventoryRepository.save(inventory);
+
+        log.info("Product {} now uses {} inventory buckets (available: {}, reserved: {})", productId, bucketCount, available, reserved);
+    }
+
+    /**
+     * Bucket counts of the sharded products among {@code productIds}, iterated in the same product
+     * order every reservation path locks rows in.
+     */
+    public Map<UUID, Integer> getBucketCounts(Collection<UUID> productIds) {
+        Map<UUID, Integer> bucketCounts = new TreeMap<>(Comparator.comparing(UUID::toString));
+        bucketCounts.putAll(inventoryBucketJdbcRepository.findBucketCounts(productIds));
+
+        return bucketCounts;
+    }
+
+    /**
+     * Reserves {@code quantity} of a sharded product, preferably from the order's own bucket. Must run
+     * inside the caller's transaction: when the result is empty some buckets may already have been
+     * drawn from, and the caller has to roll back.
+     */
+    public List<BucketAllocationDto> reserve(UUID orderId, UUID productId, int bucketCount, int quantity) {
+        int home = Math.floorMod(orderId.hashCode(), bucketCount);
+
+        if (inventoryBucketJdbcRepository.reserveInBucket(productId, home, quantity)) {
+            return List.of(new BucketAllocationDto(home, quantity));
+        }
+
+        dryProducts.add(productId);
+
+        Map<Integer, Integer> taken = new LinkedHashMap<>();
+        List<Integer> skipped = new ArrayList<>();
+        int remaining = quantity;
+
+        // Busy buckets are skipped first, so the order only waits when the free ones cannot cover it
+        for (int i = 0; i < bucketCount && remaining > 0; i++) {
+            int bucket = (home + i) % bucketCount;
+            int borrowed = inventoryBucketJdbcRepository.borrowFromBucket(productId, bucket, remaining, false);
+
+            if (borrowed > 0) {
+                taken.put(bucket, borrowed);
+                remaining -= borrowed;
+            } else {
+                skipped.add(bucket);
+            }
+        }
+
+        // Waits in bucket order; a deadlock with another borrowing order aborts the transaction and is retried
+        skipped.sort(null);
+        for (int i = 0; i < skipped.size() && remaining > 0; i++) {
+            int borrowed = inventoryBucketJdbcRepository.borrowFromBucket(productId, skipped.get(i), remaining, true);
+
+            if (borrowed > 0) {
+                taken.merge(skipped.get(i), borrowed, Integer::sum);
+                remaining -= borrowed;
+            }
+        }
+
+        if (remaining > 0) {
+            log.warn("Buckets of product {} could not cover {} units for order {}", productId, quantity, orderId);
+            return List.of();
+        }
+
+        List<BucketAllocationDto> allocations = new ArrayList<>();
+        taken.forEach((bucket, borrowed) -> allocations.add(new BucketAllocationDto(bucket, borrowed)));
+
+        log.debug("Order {} borrowed {} units of product {} across {} buckets", orderId, quantity, productId, allocations.size());
+        return allocations;
+    }
+
+    /**
+     * Returns false when the bucket no longer exists, i.e. the product was re-sharded or folded back
+     * since the reservation was taken, or when it holds fewer reserved units than {@code quantity}
+     * because re-sharding moved them to bucket 0; the caller then settles it against the inventory
+     * row or bucket 0.
+     */
+    public boolean release(UUID productId, int bucket, int quantity) {
+        return inventoryBucketJdbcRepository.releaseInBucket(productId, bucket, quantity);
+    }
+
+    /**
+     * Same contract as {@link #release}, but fails when the bucket exists and no longer holds enough
+     * on-hand stock.
+     */
+    public boolean confirm(UUID productId, int bucket, int quantity) throws InsufficientStockException {
+        if (inventoryBucketJdbcRepository.confirmInBucket(productId, bucket, quantity)) {
+            return true;
+        }
+
+        if (inventoryBucketJdbcRepository.bucketExists(productId, bucket)) {
+            throw new InsufficientStockException("Bucket " + bucket + " of product " + productId + " cannot cover " + quantity + " units", HttpStatus.BAD_REQUEST);
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds on-hand stock to a sharded product through bucket 0 and queues it for {@link #rebalance(UUID)}.
+     * Returns false when the product is not sharded.
+     */
+    public boolean restock(UUID productId, int quantity) {
+        if (!inventoryBucketJdbcRepository.restockInBucket(productId, 0, quantity)) {
+            return false;
+        }
+
+        dryProducts.add(productId);
+        return true;
+    }
+
+    /**
+     * Releases several slices with one statement; returns those whose bucket no longer exists, see
+     * {@link #release}.
+     */
+    public Map<UUID, Map<Integer, Integer>> releaseAll(Map<UUID, Map<Integer, Integer>> quantities) {
+        return inventoryBucketJdbcRepository.releaseInBuckets(quantities);
+    }
+
+    /**
+     * Confirms several slices with one statement; returns those whose bucket no longer exists, see
+     * {@link #confirm}.
+     */
+    public Map<UUID, Map<Integer, Integer>> confirmAll(Map<UUID, Map<Integer, Integer>> quantities) throws InsufficientStockException {
+        Map<UUID, Map<Integer, Integer>> notConfirmed = inventoryBucketJdbcRepository.confirmInBuckets(quantities);
+
+        for (Map.Entry<UUID, Map<Integer, Integer>> slices : notConfirmed.entrySet()) {
+            for (Map.Entry<Integer, Integer> slice : slices.getValue().entrySet()) {
+                if (inventoryBucketJdbcRepository.bucketExists(slices.getKey(), slice.getKey())) {
+                    throw new InsufficientStockException("Bucket " + slice.getKey() + " of product " + slices.getKey() + " cannot cover " + slice.getValue() + " units", HttpStatus.BAD_REQUEST);
+                }
+            }
+        }
+
+        return notConfirmed;
+    }
+
+    public List<UUID> drainDryProducts() {
+        List<UUID> productIds = new ArrayList<>(dryProducts);
+        dryProducts.removeAll(productIds);
+
+        return productIds;
+    }
+
+    /**
+     * Spreads the product's free stock evenly over its buckets again. Reserved quantities stay where
+     * they are, only {@code available_quantity} moves.
+     */
+    @Transactional
+    public void rebalance(UUID productId) {
+        List<InventoryBucketDto> buckets = inventoryBucketJdbcRepository.lockBuckets(productId);
+
+        if (buckets.isEmpty()) {
+            return;
+        }
+
+        int free = buckets.stream().mapToInt(bucket -> bucket.getAvailableQuantity() - bucket.getReservedQuantity()).sum();
+        List<InventoryBucketDto> changed = new ArrayList<>();
+
+        for (int i = 0; i < buckets.size(); i++) {
+            InventoryBucketDto bucket = buckets.get(i);
+            int target = bucket.getReservedQuantity() + share(free, buckets.size(), i);
+
+            if (target != bucket.getAvailableQuantity()) {
+                bucket.setAvailableQuantity(target);
+                changed.add(bucket);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            inventoryBucketJdbcRepository.updateAvailableQuantities(changed);
+            log.info("Rebalanced {} of {} buckets for product {} ({} units free)", changed.size(), buckets.size(), productId, free);
+        }
+    }
+
+    static List<InventoryBucketDto> split(UUID productId, int available, int reserved, int bucketCount) {
+        int free = Math.max(0, available - reserved);
+        List<InventoryBucketDto> buckets = new ArrayList<>(bucketCount);
+        int slicedOff = 0;
+
+        for (int i = 1; i < bucketCount; i++) {
+            int slice = share(free, bucketCount, i);
+            buckets.add(new InventoryBucketDto(productId, i, slice, 0));
+            slicedOff += slice;
+        }
+
+        buckets.add(0, new InventoryBucketDto(productId, 0, available - slicedOff, reserved));
+
+        return buckets;
+    }
+
+    private static int share(int free, int bucketCount, int bucket) {
+        return free / bucketCount + (bucket < free % bucketCount ? 1 : 0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Writes an availability snapshot as NDJSON, one product per line, straight from a database cursor.
+ * Nothing is loaded into the persistence context and no row outlives its line, so an export of the
+ * whole catalog runs in constant memory. The snapshot is consistent: it is read in one read-only
+ * transaction.
+ *
+ * <p>Change timestamps are taken when a write's transaction starts, not when it commits, so a row can
+ * become visible with a timestamp older than one a previous export already handed out. Incremental
+ * exports therefore reach back {@code watermark-lag-ms} before {@code updatedSince}, and lines must be
+ * applied as upserts.
+ */
+@Service
+@Slf4j
+public class InventoryExportService {
+    @Value("${inventory.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${inventory.export.watermark-lag-ms:300000}")
+    private long watermarkLagMs;
+
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectWriter lineWriter;
+
+    public InventoryExportService(
+            InventoryJdbcRepository inventoryJdbcRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper
+    ) {
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        // Lines are flushed by the generator's buffer, not one by one
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void export(String category, LocalDateTime updatedSince, OutputStream out) throws IOException {
+        long startedAt = System.nanoTime();
+        long[] lines = new long[1];
+
+        try (JsonGenerator generator = lineWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            LocalDateTime since = updatedSince == null ? null : updatedSince.minus(Duration.ofMillis(watermarkLagMs));
+
+            readOnlyTransactionTemplate.executeWithoutResult(status ->
+                    inventoryJdbcRepository.exportLevels(category, since, fetchSize, row -> {
+                        try {
+                            lineWriter.writeValue(generator, row);
+                            generator.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        lines[0]++;
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("Exported {} products (category: {}, updated since: {}) in {} ms",
+                lines[0], category, updatedSince, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
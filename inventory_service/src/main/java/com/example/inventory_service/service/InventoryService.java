@@ -2,43 +2,110 @@ package com.example.inventory_service.service;
 
 import com.example.inventory_service.dto.OrderItemDto;
 import com.example.inventory_service.dto.OrderItemInventoryCheckDto;
-import com.example.inventory_service.event.DomainEvent;
+import com.example.inventory_service.dto.ProductAvailabilityDto;
+import com.example.inventory_service.event.StockChangedEvent;
 import com.example.inventory_service.mapper.InventoryMapper;
-import com.example.inventory_service.model.Inventory;
-import com.example.inventory_service.repository.InventoryRepository;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.repository.StockMovementJdbcRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
 @Slf4j
 public class InventoryService {
-    private final InventoryRepository inventoryRepository;
+    @Value("${inventory.movements.enabled:false}")
+    private boolean movementsEnabled;
+
+    private final InventoryAvailabilityCache inventoryAvailabilityCache;
     private final InventoryMapper inventoryMapper;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final StockMovementJdbcRepository stockMovementJdbcRepository;
+    private final InventoryBucketService inventoryBucketService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     public InventoryService(
-            InventoryRepository inventoryRepository,
-            InventoryMapper inventoryMapper) {
-        this.inventoryRepository = inventoryRepository;
+            InventoryAvailabilityCache inventoryAvailabilityCache,
+            InventoryMapper inventoryMapper,
+            InventoryJdbcRepository inventoryJdbcRepository,
+            StockMovementJdbcRepository stockMovementJdbcRepository,
+            InventoryBucketService inventoryBucketService,
+            ApplicationEventPublisher applicationEventPublisher) {
+        this.inventoryAvailabilityCache = inventoryAvailabilityCache;
         this.inventoryMapper = inventoryMapper;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.stockMovementJdbcRepository = stockMovementJdbcRepository;
+        this.inventoryBucketService = inventoryBucketService;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     public List<OrderItemInventoryCheckDto> checkInventory(List<OrderItemDto> orderItemDtoList) {
         List<OrderItemInventoryCheckDto> orderItemInventoryList = new ArrayList<>();
 
+        List<UUID> productIds = orderItemDtoList.stream().map(OrderItemDto::getProductId).distinct().toList();
+        Map<UUID, ProductAvailabilityDto> availability = inventoryAvailabilityCache.getAll(productIds);
+
         orderItemDtoList.forEach(orderItemDto -> {
-            Optional<Inventory> inventory = inventoryRepository.findByProductId(orderItemDto.getProductId());
+            ProductAvailabilityDto productAvailability = availability.get(orderItemDto.getProductId());
 
-            inventory.ifPresent(value -> orderItemInventoryList.add(inventoryMapper.toOrderItemInventoryCheckDto(value, orderItemDto.getQuantity())));
+            if (productAvailability != null) {
+                orderItemInventoryList.add(inventoryMapper.toOrderItemInventoryCheckDto(productAvailability, orderItemDto.getQuantity()));
+            }
         });
 
         log.info("Inventory check result: {}", orderItemInventoryList.toString());
 
         return orderItemInventoryList;
     }
+
+    /**
+     * Adds on-hand stock. Unsharded products get a RESTOCK movement, or a row update when the movement
+     * log is disabled; sharded products are restocked through bucket 0. Returns false for an unknown
+     * product.
+     */
+    @Transactional
+    public boolean restock(UUID productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Restock quantity must be positive");
+        }
+
+        return restockAll(Map.of(productId, quantity)).isEmpty();
+    }
+
+    /**
+     * Restocks several products at once, see {@link #restock}; quantities must be positive. Returns
+     * the products that have no inventory.
+     */
+    @Transactional
+    public List<UUID> restockAll(Map<UUID, Integer> quantities) {
+        List<UUID> unsharded = movementsEnabled
+                ? stockMovementJdbcRepository.append(StockMovementJdbcRepository.Type.RESTOCK, null, quantities)
+                : inventoryJdbcRepository.restockAll(quantities);
+
+        List<UUID> unknown = unsharded.stream()
+                .filter(productId -> !inventoryBucketService.restock(productId, quantities.get(productId)))
+                .toList();
+
+        if (!unknown.isEmpty()) {
+            log.warn("No inventory found for products: {}", unknown);
+        }
+
+        Map<UUID, Integer> restocked = new HashMap<>(quantities);
+        restocked.keySet().removeAll(unknown);
+
+        if (!restocked.isEmpty()) {
+            applicationEventPublisher.publishEvent(new StockChangedEvent(StockChangedEvent.Type.RESTOCKED, null, restocked));
+            log.info("Restocked {} products", restocked.size());
+        }
+
+        return unknown;
+    }
 }
@@ -0,0 +1,134 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ProductSnapshotDto;
+import com.example.inventory_service.dto.ReservationRequestDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.ledger.LedgerWriter;
+import com.example.inventory_service.ledger.StockLedger;
+import com.example.inventory_service.model.StockReservation;
+import com.example.inventory_service.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "inventory.reservation.strategy", havingValue = "ledger")
+@Slf4j
+public class LedgerReservationStrategy implements ReservationStrategy {
+    @Value("${inventory.ledger.writer.timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    private final StockLedger stockLedger;
+    private final LedgerWriter ledgerWriter;
+    private final ProductCatalogCache productCatalogCache;
+    private final StockReservationService stockReservationService;
+    private final StockReservationRepository stockReservationRepository;
+    private final StockAlertService stockAlertService;
+
+    public LedgerReservationStrategy(
+            StockLedger stockLedger,
+            LedgerWriter ledgerWriter,
+            ProductCatalogCache productCatalogCache,
+            StockReservationService stockReservationService,
+            StockReservationRepository stockReservationRepository,
+            StockAlertService stockAlertService
+    ) {
+        this.stockLedger = stockLedger;
+        this.ledgerWriter = ledgerWriter;
+        this.productCatalogCache = productCatalogCache;
+        this.stockReservationService = stockReservationService;
+        this.stockReservationRepository = stockReservationRepository;
+        this.stockAlertService = stockAlertService;
+    }
+
+    @Override
+    public List<StockReservation> reserve(UUID orderId, List<ReservationRequestDto> reservationRequests) {
+        log.info("Attempting to reserve stock in ledger for order: {}", orderId);
+
+        Map<UUID, Integer> requestedByProduct = new TreeMap<>();
+        reservationRequests.forEach(request -> requestedByProduct.merge(request.getProductId(), request.getQuantity(), Integer::sum));
+
+        Map<UUID, Integer> taken = new HashMap<>();
+
+        for (Map.Entry<UUID, Integer> requested : requestedByProduct.entrySet()) {
+            if (!stockLedger.tryReserve(requested.getKey(), requested.getValue())) {
+                taken.forEach(stockLedger::release);
+
+                ReservationRequestDto request = new ReservationRequestDto(requested.getKey(), requested.getValue());
+                stockReservationService.publishOutOfStock(orderId, request, stockLedger.getAvailableToReserve(requested.getKey()));
+
+                return new ArrayList<>();
+            }
+
+            taken.put(requested.getKey(), requested.getValue());
+        }
+
+        Map<UUID, ProductSnapshotDto> products = productCatalogCache.getAll(requestedByProduct.keySet());
+        List<StockReservation> reservations = new ArrayList<>();
+
+        try {
+            for (ReservationRequestDto request : reservationRequests) {
+                if (!products.containsKey(request.getProductId())) {
+                    throw new RuntimeException("Product not found: " + request.getProductId());
+                }
+
+                StockReservation reservation = stockReservationService.newReservation(orderId, request.getProductId(), request.getQuantity());
+                reservation.setId(UUID.randomUUID());
+                reservations.add(reservation);
+            }
+        } catch (RuntimeException e) {
+            taken.forEach(stockLedger::release);
+            throw e;
+        }
+
+        CompletableFuture<Boolean> written = ledgerWriter.submit(orderId, reservations);
+        boolean firstWrite;
+
+        try {
+            firstWrite = written.get(writeTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // A write that only timed out may still commit; give the stock back only once it has really failed.
+            written.whenComplete((result, failure) -> {
+                if (failure != null) {
+                    taken.forEach(stockLedger::release);
+                }
+            });
+
+            log.error("Error persisting ledger reservations for order: {}", orderId, e);
+            throw new IllegalStateException("Could not persist reservations for order " + orderId, e);
+        }
+
+        if (!firstWrite) {
+            // A redelivered order whose first write committed: its stock is already taken
+            taken.forEach(stockLedger::release);
+
+            log.info("Stock for order {} was already reserved", orderId);
+            return stockReservationRepository.findByOrderId(orderId).stream()
+                    .filter(reservation -> "RESERVED".equals(reservation.getStatus()))
+                    .toList();
+        }
+
+        stockReservationService.publishStockChanged(StockChangedEvent.Type.RESERVED, orderId, reservations);
+
+        products.values().forEach(product -> stockAlertService.checkAndAlertLowStock(product, stockLedger.getAvailableQuantity(product.getId())));
+
+        log.info("Successfully reserved stock in ledger for order: {}", orderId);
+        return reservations;
+    }
+
+    @Override
+    public boolean joinsCallerTransaction() {
+        // Reservations are taken in memory and persisted by the LedgerWriter thread
+        return false;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ReservationRequestDto;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.model.StockReservation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "inventory.reservation.strategy", havingValue = "pessimistic", matchIfMissing = true)
+public class PessimisticReservationStrategy implements ReservationStrategy {
+    private final StockReservationService stockReservationService;
+
+    public PessimisticReservationStrategy(StockReservationService stockReservationService) {
+        this.stockReservationService = stockReservationService;
+    }
+
+    @Override
+    public List<StockReservation> reserve(UUID orderId, List<ReservationRequestDto> reservationRequests) throws InsufficientStockException {
+        return stockReservationService.reserveStock(orderId, reservationRequests);
+    }
+}
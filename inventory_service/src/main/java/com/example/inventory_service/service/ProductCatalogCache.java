@@ -0,0 +1,94 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ProductSnapshotDto;
+import com.example.inventory_service.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of the product fields used while reserving stock, so a reservation transaction
+ * does not query {@code products} at all once the catalog is warm. Entries are evicted after commit of
+ * any JPA update of the product (see {@link ProductChangeListener}); the TTL bounds staleness for
+ * edits made outside this instance.
+ */
+@Component
+@Slf4j
+public class ProductCatalogCache {
+    private final ProductRepository productRepository;
+    private final long maximumSize;
+    private final LoadingCache<UUID, ProductSnapshotDto> cache;
+
+    public ProductCatalogCache(
+            ProductRepository productRepository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.product-cache.maximum-size:50000}") long maximumSize,
+            @Value("${inventory.product-cache.ttl-ms:600000}") long ttlMs
+    ) {
+        this.productRepository = productRepository;
+        this.maximumSize = maximumSize;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public ProductSnapshotDto load(UUID productId) {
+                        return loadAll(Set.of(productId)).get(productId);
+                    }
+
+                    @Override
+                    public Map<UUID, ProductSnapshotDto> loadAll(Set<? extends UUID> productIds) {
+                        return productRepository.findSnapshotsByIdIn(List.copyOf(productIds))
+                                .stream()
+                                .collect(Collectors.toMap(ProductSnapshotDto::getId, Function.identity()));
+                    }
+                });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "inventory.product.catalog");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int pageSize = (int) Math.min(maximumSize, Integer.MAX_VALUE);
+        List<ProductSnapshotDto> products = productRepository.findActiveSnapshots(PageRequest.of(0, pageSize));
+
+        products.forEach(product -> cache.put(product.getId(), product));
+        log.info("Warmed up product catalog cache with {} products", products.size());
+    }
+
+    public Optional<ProductSnapshotDto> get(UUID productId) {
+        return Optional.ofNullable(cache.get(productId));
+    }
+
+    /**
+     * Products among {@code productIds}, loading every missing one with a single query. Unknown ids are
+     * left out of the result.
+     */
+    public Map<UUID, ProductSnapshotDto> getAll(Collection<UUID> productIds) {
+        return cache.getAll(productIds);
+    }
+
+    public void invalidate(UUID productId) {
+        cache.invalidate(productId);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.model.Product;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JPA listener on {@link Product} that evicts the product from the in-memory caches once the change
+ * is committed. The caches are looked up lazily because Hibernate creates its listeners while the
+ * entity manager factory the caches depend on is still being built.
+ */
+@Component
+public class ProductChangeListener {
+    private final ObjectProvider<ProductCatalogCache> productCatalogCache;
+    private final ObjectProvider<InventoryAvailabilityCache> inventoryAvailabilityCache;
+
+    public ProductChangeListener(
+            ObjectProvider<ProductCatalogCache> productCatalogCache,
+            ObjectProvider<InventoryAvailabilityCache> inventoryAvailabilityCache
+    ) {
+        this.productCatalogCache = productCatalogCache;
+        this.inventoryAvailabilityCache = inventoryAvailabilityCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onProductChanged(Product product) {
+        UUID productId = product.getId();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(productId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(productId);
+            }
+        });
+    }
+
+    private void evict(UUID productId) {
+        productCatalogCache.ifAvailable(cache -> cache.invalidate(productId));
+        inventoryAvailabilityCache.ifAvailable(cache -> cache.onProductChanged(List.of(productId)));
+    }
+}
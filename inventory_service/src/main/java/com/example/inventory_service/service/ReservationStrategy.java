@@ -0,0 +1,25 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ReservationRequestDto;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.model.StockReservation;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Decides and persists the stock reservations for an order. The active implementation is selected
+ * with {@code inventory.reservation.strategy}. An empty result means the order could not be fully
+ * reserved and an OutOfStock event has been published.
+ */
+public interface ReservationStrategy {
+    List<StockReservation> reserve(UUID orderId, List<ReservationRequestDto> reservationRequests) throws InsufficientStockException;
+
+    /**
+     * Whether the reservation is written in the caller's transaction when there is one, so that
+     * several orders can be committed, or rolled back, together.
+     */
+    default boolean joinsCallerTransaction() {
+        return true;
+    }
+}
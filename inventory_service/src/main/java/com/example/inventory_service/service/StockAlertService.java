@@ -1,67 +1,117 @@
 package com.example.inventory_service.service;
 
 import com.example.events.inventory.LowStockAlertEvent;
+import com.example.inventory_service.dto.ProductSnapshotDto;
 import com.example.inventory_service.event.LowStockAlert;
 import com.example.inventory_service.model.Inventory;
-import com.example.inventory_service.model.Product;
 import com.example.inventory_service.publisher.EventPublisher;
-import com.example.shared_common.idempotency.EventIdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks every product's stock level as OK, LOW (at or below its threshold) or OUT, and alerts only
+ * when a product moves down into LOW or OUT. A product has to climb {@code hysteresis} units above a
+ * boundary before it counts as back up, so stock hovering around the threshold does not re-alert on
+ * every sale. Levels are evaluated after the reservation commits; nothing here touches Redis or runs
+ * inside the transaction.
+ */
 @Service
 @Slf4j
 public class StockAlertService {
-    
+
+    enum Level { OK, LOW, OUT }
+
     @Value("#{kafkaTopics.lowStockAlert}")
     private String lowStockAlertTopic;
-    
+
     private final EventPublisher eventPublisher;
-    private final EventIdempotencyService idempotencyService;
-    
-    public StockAlertService(EventPublisher eventPublisher, EventIdempotencyService idempotencyService) {
+    private final MeterRegistry meterRegistry;
+    private final int hysteresis;
+    private final Map<UUID, Level> levels = new ConcurrentHashMap<>();
+
+    public StockAlertService(
+            EventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.stock-alert.hysteresis:5}") int hysteresis
+    ) {
         this.eventPublisher = eventPublisher;
-        this.idempotencyService = idempotencyService;
+        this.meterRegistry = meterRegistry;
+        this.hysteresis = hysteresis;
     }
-    
-    public void checkAndAlertLowStock(Product product, Inventory inventory) {
-        int currentQuantity = inventory.getAvailableQuantity();
-        int threshold = product.getLowStockThreshold();
-        
-        if (currentQuantity <= threshold) {
-            String alertKey = "low-stock-alert-" + product.getSku() + "-" + currentQuantity;
-            
-            boolean processed = idempotencyService.processOnce(
-                alertKey,
-                () -> {
-                    LowStockAlertEvent alertEvent = new LowStockAlertEvent(
-                        product.getId().toString(),
-                        product.getSku(),
-                        product.getName(),
-                        currentQuantity,
-                        threshold,
-                        System.currentTimeMillis()
-                    );
-                    
-                    eventPublisher.publish(new LowStockAlert(
-                        lowStockAlertTopic, 
-                        alertEvent, 
-                        product.getSku()
-                    ));
-                    
-                    log.warn("Low stock alert sent for product: {} (SKU: {}), quantity: {}, threshold: {}", 
-                        product.getName(), product.getSku(), currentQuantity, threshold);
-                }
-            );
-            
-            if (!processed) {
-                log.debug("Low stock alert already sent for product: {} at quantity: {}", 
-                    product.getSku(), currentQuantity);
+
+    public void checkAndAlertLowStock(ProductSnapshotDto product, Inventory inventory) {
+        checkAndAlertLowStock(product, inventory.getTotalAvailableQuantity());
+    }
+
+    public void checkAndAlertLowStock(ProductSnapshotDto product, int currentQuantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evaluate(product, currentQuantity);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evaluate(product, currentQuantity);
             }
-        } else {
-            log.debug("Stock level OK for product: {} (SKU: {}), quantity: {}, threshold: {}", 
-                product.getName(), product.getSku(), currentQuantity, threshold);
+        });
+    }
+
+    void evaluate(ProductSnapshotDto product, int currentQuantity) {
+        int threshold = product.getLowStockThreshold();
+        Level[] previous = new Level[1];
+
+        Level current = levels.compute(product.getId(), (productId, level) -> {
+            previous[0] = level == null ? Level.OK : level;
+            return next(previous[0], currentQuantity, threshold);
+        });
+
+        if (current.ordinal() <= previous[0].ordinal()) {
+            log.debug("Stock level {} for product: {} (SKU: {}), quantity: {}, threshold: {}",
+                current, product.getName(), product.getSku(), currentQuantity, threshold);
+            return;
         }
+
+        LowStockAlertEvent alertEvent = new LowStockAlertEvent(
+            product.getId().toString(),
+            product.getSku(),
+            product.getName(),
+            currentQuantity,
+            threshold,
+            System.currentTimeMillis()
+        );
+
+        eventPublisher.publish(new LowStockAlert(
+            lowStockAlertTopic,
+            alertEvent,
+            product.getSku()
+        ));
+        meterRegistry.counter("inventory.stock.alerts", "level", current.name()).increment();
+
+        log.warn("Low stock alert sent for product: {} (SKU: {}), level: {} -> {}, quantity: {}, threshold: {}",
+            product.getName(), product.getSku(), previous[0], current, currentQuantity, threshold);
+    }
+
+    private Level next(Level level, int quantity, int threshold) {
+        Level observed = quantity <= 0 ? Level.OUT : quantity <= threshold ? Level.LOW : Level.OK;
+
+        if (observed.ordinal() >= level.ordinal()) {
+            return observed;
+        }
+
+        // Moving back up only counts once the quantity clears the boundary by the hysteresis band
+        if (quantity > threshold + hysteresis) {
+            return Level.OK;
+        }
+
+        return level == Level.OUT && quantity > hysteresis ? Level.LOW : level;
     }
-}
\ No newline at end of file
+}
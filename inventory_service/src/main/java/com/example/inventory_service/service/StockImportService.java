@@ -0,0 +1,323 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.StockImportDto;
+import com.example.inventory_service.dto.StockImportLineDto;
+import com.example.inventory_service.repository.StockImportJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Streams a CSV or NDJSON catalog and stock file into {@code products} and {@code inventory} in
+ * chunks of {@code chunk-size} lines, each written with a few set-based statements in its own short
+ * transaction. The import's committed line count advances with every chunk, so re-sending the same
+ * file under the same import id skips what is already in and a failed upload can be resumed.
+ * Restocks go through {@link InventoryService#restockAll}, which with the movement log enabled only
+ * appends movements and takes no lock a reservation would wait on.
+ */
+@Service
+@Slf4j
+public class StockImportService {
+    public enum Format { CSV, NDJSON }
+
+    @Value("${inventory.import.chunk-size:5000}")
+    private int chunkSize;
+
+    private final StockImportJdbcRepository stockImportJdbcRepository;
+    private final InventoryService inventoryService;
+    private final ProductCatalogCache productCatalogCache;
+    private final InventoryAvailabilityCache inventoryAvailabilityCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Counter committedLines;
+    private final Counter rejectedLines;
+
+    public StockImportService(
+            StockImportJdbcRepository stockImportJdbcRepository,
+            InventoryService inventoryService,
+            ProductCatalogCache productCatalogCache,
+            InventoryAvailabilityCache inventoryAvailabilityCache,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this.stockImportJdbcRepository = stockImportJdbcRepository;
+        this.inventoryService = inventoryService;
+        this.productCatalogCache = productCatalogCache;
+        this.inventoryAvailabilityCache = inventoryAvailabilityCache;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+
+        this.committedLines = Counter.builder("inventory.import.lines")
+                .tag("outcome", "committed")
+                .register(meterRegistry);
+        this.rejectedLines = Counter.builder("inventory.import.lines")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    public Optional<StockImportDto> getImport(UUID importId) {
+        return stockImportJdbcRepository.findById(importId);
+    }
+
+    /**
+     * Imports the lines of {@code body} after the ones the import already committed. A CSV body starts
+     * with a header naming its columns out of sku, name, price, category and quantity. Lines that do
+     * not parse or name an unknown SKU without a name and price are counted as rejected and skipped.
+     * A read or write failure marks the import FAILED; the chunks committed before it stay in.
+     *
+     * @throws IllegalArgumentException if a CSV header has no sku column, before the import is created
+     * @throws OptimisticLockingFailureException if another upload of the same import committed a chunk first
+     */
+    public StockImportDto importLines(UUID importId, Format format, InputStream body) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = format == Format.CSV ? csvColumns(reader.readLine()) : Map.of();
+
+            return importLines(importId, format, columns, reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import " + importId, e);
+        }
+    }
+
+    private StockImportDto importLines(UUID importId, Format format, Map<String, Integer> columns, BufferedReader reader) {
+        StockImportDto stockImport = stockImportJdbcRepository.findOrCreate(importId, format.name());
+
+        if ("COMPLETED".equals(stockImport.getStatus())) {
+            return stockImport;
+        }
+        if (!format.name().equals(stockImport.getFormat())) {
+            throw new IllegalArgumentException("Import " + importId + " was started as " + stockImport.getFormat());
+        }
+
+        long committed = stockImport.getLinesCommitted();
+        long lineNumber = 0;
+
+        try {
+            List<StockImportLineDto> chunk = new ArrayList<>(chunkSize);
+            int rejected = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (++lineNumber <= committed) {
+                    continue;
+                }
+
+                if (!line.isBlank()) {
+                    StockImportLineDto parsed = parse(format, columns, line);
+
+                    if (parsed != null) {
+                        chunk.add(parsed);
+                    } else {
+                        rejected++;
+                    }
+                }
+
+                if (lineNumber - committed == chunkSize) {
+                    writeChunk(importId, committed, lineNumber, chunk, rejected);
+                    committed = lineNumber;
+                    chunk.clear();
+                    rejected = 0;
+                }
+            }
+
+            if (lineNumber > committed) {
+                writeChunk(importId, committed, lineNumber, chunk, rejected);
+            }
+        } catch (OptimisticLockingFailureException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            log.error("Import {} failed at line {}", importId, lineNumber, e);
+            stockImportJdbcRepository.finish(importId, "FAILED", "Line " + lineNumber + ": " + e.getMessage());
+
+            return stockImportJdbcRepository.findById(importId).orElseThrow();
+        }
+
+        stockImportJdbcRepository.finish(importId, "COMPLETED", null);
+        log.info("Import {} completed after {} lines", importId, lineNumber);
+
+        return stockImportJdbcRepository.findById(importId).orElseThrow();
+    }
+
+    private void writeChunk(UUID importId, long fromLine, long toLine, List<StockImportLineDto> lines, int parseRejected) {
+        // The last product fields given for a SKU win and its quantities add up
+        Map<String, StockImportLineDto> products = new TreeMap<>();
+        Map<String, Integer> quantities = new HashMap<>();
+        Map<String, Integer> quantityLines = new HashMap<>();
+
+        for (StockImportLineDto line : lines) {
+            if (line.getName() != null) {
+                products.put(line.getSku(), line);
+            }
+            if (line.getQuantity() != null && line.getQuantity() > 0) {
+                quantities.merge(line.getSku(), line.getQuantity(), Integer::sum);
+                quantityLines.merge(line.getSku(), 1, Integer::sum);
+            }
+        }
+
+        ChunkResult result = transactionTemplate.execute(status -> {
+            List<UUID> changed = stockImportJdbcRepository.upsertProducts(products.values());
+            stockImportJdbcRepository.insertMissingInventory(changed);
+
+            Map<String, UUID> productIds = stockImportJdbcRepository.findIdsBySku(quantities.keySet());
+            Map<UUID, Integer> restock = new HashMap<>();
+            int rejected = parseRejected;
+
+            for (Map.Entry<String, Integer> quantity : quantities.entrySet()) {
+                UUID productId = productIds.get(quantity.getKey());
+
+                if (productId != null) {
+                    restock.put(productId, quantity.getValue());
+                } else {
+                    rejected += quantityLines.get(quantity.getKey());
+                }
+            }
+
+            Map<UUID, String> skus = new HashMap<>();
+            productIds.forEach((sku, productId) -> skus.put(productId, sku));
+
+            for (UUID unknown : inventoryService.restockAll(restock)) {
+                rejected += quantityLines.get(skus.get(unknown));
+            }
+
+            // Checked last: a concurrent upload of the same import waits here on the row and rolls back
+            if (!stockImportJdbcRepository.advance(importId, fromLine, toLine, rejected)) {
+                throw new OptimisticLockingFailureException("Import " + importId + " is no longer at line " + fromLine);
+            }
+
+            return new ChunkResult(changed, rejected);
+        });
+
+        result.changed().forEach(productCatalogCache::invalidate);
+        inventoryAvailabilityCache.onProductChanged(result.changed());
+
+        committedLines.increment(toLine - fromLine - result.rejected());
+        rejectedLines.increment(result.rejected());
+
+        log.info("Import {} committed lines {}-{}: {} products changed, {} lines rejected",
+                importId, fromLine + 1, toLine, result.changed().size(), result.rejected());
+    }
+
+    private StockImportLineDto parse(Format format, Map<String, Integer> columns, String line) {
+        StockImportLineDto parsed;
+
+        try {
+            parsed = format == Format.CSV ? parseCsv(columns, line) : objectMapper.readValue(line, StockImportLineDto.class);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Rejected import line: {}", line, e);
+            return null;
+        }
+
+        return isValid(parsed) ? parsed : null;
+    }
+
+    private static boolean isValid(StockImportLineDto line) {
+        if (line.getSku() == null || line.getSku().isBlank() || line.getSku().length() > 50) {
+            return false;
+        }
+        // A line either carries a whole product or none of it
+        if ((line.getName() == null) != (line.getPrice() == null)) {
+            return false;
+        }
+        if (line.getName() != null && (line.getName().length() > 255 || line.getPrice().signum() < 0)) {
+            return false;
+        }
+        if (line.getCategory() != null && line.getCategory().length() > 100) {
+            return false;
+        }
+
+        return line.getQuantity() == null || line.getQuantity() >= 0;
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        if (header == null) {
+            return Map.of();
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        if (!columns.containsKey("sku")) {
+            throw new IllegalArgumentException("CSV header has no sku column");
+        }
+
+        return columns;
+    }
+
+    private static StockImportLineDto parseCsv(Map<String, Integer> columns, String line) {
+        List<String> fields = splitCsv(line);
+        String price = field(fields, columns, "price");
+        String quantity = field(fields, columns, "quantity");
+
+        return new StockImportLineDto(
+                field(fields, columns, "sku"),
+                field(fields, columns, "name"),
+                price == null ? null : new BigDecimal(price),
+                field(fields, columns, "category"),
+                quantity == null ? null : Integer.valueOf(quantity)
+        );
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+
+        if (index == null || index >= fields.size() || fields.get(index).isBlank()) {
+            return null;
+        }
+
+        return fields.get(index).trim();
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                field.append('"');
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+
+    private record ChunkResult(List<UUID> changed, int rejected) {
+    }
+}
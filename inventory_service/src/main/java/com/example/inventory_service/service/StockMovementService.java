@@ -0,0 +1,66 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.StockMovementDeltaDto;
+import com.example.inventory_service.repository.StockMovementJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Folds {@code stock_movements} into the inventory snapshot rows. Reads add the unfolded deltas to
+ * the snapshot, so folding only bounds how many deltas a read has to sum; it never changes a total.
+ */
+@Service
+@Slf4j
+public class StockMovementService {
+    // Same order Postgres uses for uuid, so folds take row locks in the same sequence as reservations.
+    private static final Comparator<StockMovementDeltaDto> LOCK_ORDER = Comparator.comparing(delta -> delta.getProductId().toString());
+
+    private final StockMovementJdbcRepository stockMovementJdbcRepository;
+
+    public StockMovementService(StockMovementJdbcRepository stockMovementJdbcRepository) {
+        this.stockMovementJdbcRepository = stockMovementJdbcRepository;
+    }
+
+    /**
+     * Folds up to {@code pageSize} of the oldest movements with one UPDATE per product touched.
+     * Returns the number of movements folded.
+     */
+    @Transactional
+    public int foldPage(int pageSize) {
+        List<StockMovementDeltaDto> deltas = stockMovementJdbcRepository.claimPage(pageSize)
+                .stream()
+                .sorted(LOCK_ORDER)
+                .toList();
+
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        int missing = stockMovementJdbcRepository.applyDeltas(deltas);
+        if (missing > 0) {
+            log.warn("{} products had stock movements but no inventory row or bucket 0 to fold them into", missing);
+        }
+
+        return deltas.stream().mapToInt(StockMovementDeltaDto::getMovements).sum();
+    }
+
+    /**
+     * Folds every pending movement of one product and keeps its row locked against new appends until
+     * the caller's transaction ends, so the row alone holds the product's stock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void foldProduct(UUID productId) {
+        List<StockMovementDeltaDto> deltas = stockMovementJdbcRepository.lockAndClaimProduct(productId);
+
+        if (!deltas.isEmpty()) {
+            stockMovementJdbcRepository.applyDeltas(deltas);
+            log.debug("Folded {} stock movements of product {}", deltas.get(0).getMovements(), productId);
+        }
+    }
+}
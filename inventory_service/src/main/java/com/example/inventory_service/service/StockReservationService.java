@@ -1,57 +1,104 @@
 package com.example.inventory_service.service;
 
 import com.example.events.inventory.OutOfStockEvent;
+import com.example.inventory_service.dto.BucketAllocationDto;
+import com.example.inventory_service.dto.ProductSnapshotDto;
+import com.example.inventory_service.dto.ReleasedReservationDto;
 import com.example.inventory_service.dto.ReservationRequestDto;
 import com.example.inventory_service.event.OutOfStock;
+import com.example.inventory_service.event.StockChangedEvent;
 import com.example.inventory_service.exception.InsufficientStockException;
 import com.example.inventory_service.mapper.StockReservationMapper;
 import com.example.inventory_service.model.Inventory;
-import com.example.inventory_service.model.Product;
 import com.example.inventory_service.model.StockReservation;
 import com.example.inventory_service.publisher.EventPublisher;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
 import com.example.inventory_service.repository.InventoryRepository;
 import com.example.inventory_service.repository.ProductRepository;
+import com.example.inventory_service.repository.StockMovementJdbcRepository;
+import com.example.inventory_service.repository.StockReservationJdbcRepository;
 import com.example.inventory_service.repository.StockReservationRepository;
+import com.example.inventory_service.repository.WarehouseJdbcRepository;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class StockReservationService {
+    // Same order Postgres uses for uuid, so batched updates take row locks in the same sequence as reservations.
+    private static final Comparator<UUID> LOCK_ORDER = Comparator.comparing(UUID::toString);
+
     @Value("#{kafkaTopics.outOfStock}")
     private String outOfStockTopic;
 
+    @Value("${inventory.reservation.ttl-minutes:15}")
+    private long reservationTtlMinutes;
+
+    // Confirmations and releases of unsharded products append to stock_movements instead of updating the row
+    @Value("${inventory.movements.enabled:false}")
+    private boolean movementsEnabled;
+
     private final StockReservationRepository stockReservationRepository;
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
+    private final ProductCatalogCache productCatalogCache;
     private final StockReservationMapper stockReservationMapper;
     private final EventPublisher eventPublisher;
     private final StockAlertService stockAlertService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final InventoryBucketService inventoryBucketService;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final StockReservationJdbcRepository stockReservationJdbcRepository;
+    private final StockMovementJdbcRepository stockMovementJdbcRepository;
+    private final WarehouseJdbcRepository warehouseJdbcRepository;
 
     public StockReservationService(
             StockReservationRepository stockReservationRepository,
             InventoryRepository inventoryRepository,
             ProductRepository productRepository,
+            ProductCatalogCache productCatalogCache,
             StockReservationMapper stockReservationMapper,
             EventPublisher eventPublisher,
-            StockAlertService stockAlertService
+            StockAlertService stockAlertService,
+            ApplicationEventPublisher applicationEventPublisher,
+            InventoryBucketService inventoryBucketService,
+            InventoryJdbcRepository inventoryJdbcRepository,
+            StockReservationJdbcRepository stockReservationJdbcRepository,
+            StockMovementJdbcRepository stockMovementJdbcRepository,
+            WarehouseJdbcRepository warehouseJdbcRepository
     ) {
         this.stockReservationRepository = stockReservationRepository;
         this.inventoryRepository = inventoryRepository;
         this.productRepository = productRepository;
+        this.productCatalogCache = productCatalogCache;
         this.stockReservationMapper = stockReservationMapper;
         this.eventPublisher = eventPublisher;
         this.stockAlertService = stockAlertService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.inventoryBucketService = inventoryBucketService;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.stockReservationJdbcRepository = stockReservationJdbcRepository;
+        this.stockMovementJdbcRepository = stockMovementJdbcRepository;
+        this.warehouseJdbcRepository = warehouseJdbcRepository;
     }
 
     @Retry(name = "inventory-stock-reservation")
@@ -60,37 +107,89 @@ public class StockReservationService {
         log.info("Attempting to reserve stock for order: {}", orderId);
 
         try {
-            for (ReservationRequestDto request : reservationRequests) {
-                if (!hasAvailableStock(request.getProductId(), request.getQuantity())) {
-                    log.warn("Insufficient stock for product {} - requested: {}, available: {}",
-                            request.getProductId(), request.getQuantity(), getAvailableStock(request.getProductId()));
+            Map<UUID, Integer> requestedByProduct = new LinkedHashMap<>();
+            reservationRequests.forEach(request -> requestedByProduct.merge(request.getProductId(), request.getQuantity(), Integer::sum));
 
-                    OutOfStockEvent outOfStockEvent = stockReservationMapper.toOutOfStockEvent(request, orderId, getAvailableStock(request.getProductId()));
+            List<UUID> productIds = new ArrayList<>(requestedByProduct.keySet());
 
-                    eventPublisher.publish(new OutOfStock(outOfStockTopic, outOfStockEvent, String.valueOf(orderId)));
+            // One statement locks every row of the order, always in product id order, so overlapping orders cannot deadlock.
+            Map<UUID, Inventory> inventories = inventoryRepository.findAllUnshardedByProductIdIn(productIds)
+                    .stream()
+                    .collect(Collectors.toMap(inventory -> inventory.getProduct().getId(), Function.identity()));
 
-                    log.error("Insufficient stock for product {}", request.getProductId() );
+            // Products missing from the locked set are either unknown or sharded into buckets
+            List<UUID> notLocked = productIds.stream().filter(productId -> !inventories.containsKey(productId)).toList();
+            Map<UUID, Integer> bucketCounts = notLocked.isEmpty() ? Map.of() : inventoryBucketService.getBucketCounts(notLocked);
+
+            for (Map.Entry<UUID, Integer> requested : requestedByProduct.entrySet()) {
+                if (bucketCounts.containsKey(requested.getKey())) {
+                    continue;
+                }
+
+                Inventory inventory = inventories.get(requested.getKey());
+
+                if (inventory == null) {
+                    log.warn("No inventory found for product: {}", requested.getKey());
+                }
+
+                // reserved_quantity is maintained with every reservation row, see ReservedQuantityReconciler;
+                // the totals add stock movements not folded into the row yet
+                int availableForReservation = inventory == null
+                        ? 0
+                        : inventory.getTotalAvailableQuantity() - inventory.getTotalReservedQuantity();
+
+                if (availableForReservation < requested.getValue()) {
+                    log.warn("Insufficient stock for product {} - requested: {}, available: {}",
+                            requested.getKey(), requested.getValue(), availableForReservation);
+
+                    publishOutOfStock(orderId, new ReservationRequestDto(requested.getKey(), requested.getValue()), availableForReservation);
 
                     return new ArrayList<>();
                 }
             }
 
+            Map<UUID, ProductSnapshotDto> products = productCatalogCache.getAll(productIds);
+
             List<StockReservation> createdReservations = new ArrayList<>();
             for (ReservationRequestDto request : reservationRequests) {
-                StockReservation reservation = createReservation(orderId, request.getProductId(), request.getQuantity());
-                createdReservations.add(reservation);
-                updateInventoryReservedQuantity(request.getProductId(), request.getQuantity());
-                
-                // Check for low stock after reservation
-                Product product = productRepository.findById(request.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + request.getProductId()));
-                Inventory inventory = inventoryRepository.findByProductId(request.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + request.getProductId()));
-                
-                stockAlertService.checkAndAlertLowStock(product, inventory);
+                if (!products.containsKey(request.getProductId())) {
+                    throw new RuntimeException("Product not found: " + request.getProductId());
+                }
+
+                if (!bucketCounts.containsKey(request.getProductId())) {
+                    createdReservations.add(newReservation(orderId, request.getProductId(), request.getQuantity()));
+                }
+            }
+
+            for (Map.Entry<UUID, Integer> sharded : bucketCounts.entrySet()) {
+                List<StockReservation> bucketReservations = reserveInBuckets(orderId, sharded.getKey(), sharded.getValue(), requestedByProduct.get(sharded.getKey()));
+
+                if (bucketReservations.isEmpty()) {
+                    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+
+                    return new ArrayList<>();
+                }
+
+                createdReservations.addAll(bucketReservations);
             }
 
-            log.info("Successfully reserved stock for order: {}", orderId);
+            stockReservationRepository.saveAll(createdReservations);
+
+            LocalDateTime now = LocalDateTime.now();
+            inventories.forEach((productId, inventory) -> {
+                inventory.setReservedQuantity(inventory.getReservedQuantity() + requestedByProduct.get(productId));
+                inventory.setLastUpdated(now);
+            });
+            inventoryRepository.saveAll(inventories.values());
+
+            // Check for low stock after reservation
+            inventories.forEach((productId, inventory) -> stockAlertService.checkAndAlertLowStock(products.get(productId), inventory));
+            bucketCounts.keySet().forEach(productId -> inventoryJdbcRepository.findLevel(productId)
+                    .ifPresent(level -> stockAlertService.checkAndAlertLowStock(products.get(productId), level.getAvailableQuantity())));
+
+            publishStockChanged(StockChangedEvent.Type.RESERVED, orderId, createdReservations);
+
+            log.info("Successfully reserved stock for order: {} ({} lines)", orderId, createdReservations.size());
             return createdReservations;
 
         } catch (Exception e) {
@@ -99,107 +198,217 @@ public class StockReservationService {
         }
     }
 
-    private boolean hasAvailableStock(UUID productId, int requestedQuantity) {
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElse(null);
+    /**
+     * Reserves a sharded product through its buckets, one reservation row per bucket drawn from.
+     * Publishes the out-of-stock event and returns an empty list when the buckets cannot cover it.
+     */
+    public List<StockReservation> reserveInBuckets(UUID orderId, UUID productId, int bucketCount, int quantity) {
+        List<BucketAllocationDto> allocations = inventoryBucketService.reserve(orderId, productId, bucketCount, quantity);
 
-        if (inventory == null) {
-            log.warn("No inventory found for product: {}", productId);
-            return false;
+        if (allocations.isEmpty()) {
+            int availableForReservation = inventoryJdbcRepository.findLevel(productId)
+                    .map(level -> level.getAvailableQuantity() - level.getReservedQuantity())
+                    .orElse(0);
+
+            log.warn("Insufficient stock for product {} - requested: {}, available: {}", productId, quantity, availableForReservation);
+
+            publishOutOfStock(orderId, new ReservationRequestDto(productId, quantity), availableForReservation);
+
+            return new ArrayList<>();
         }
 
-        int currentlyReserved = stockReservationRepository.getTotalReservedQuantityByProductId(productId);
-        int availableForReservation = inventory.getAvailableQuantity() - currentlyReserved;
+        List<StockReservation> reservations = new ArrayList<>();
+        allocations.forEach(allocation -> {
+            StockReservation reservation = newReservation(orderId, productId, allocation.getQuantity());
+            reservation.setBucket(allocation.getBucket());
+            reservations.add(reservation);
+        });
 
-        return availableForReservation >= requestedQuantity;
+        return reservations;
     }
 
-    private int getAvailableStock(UUID productId) {
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElse(null);
+    public void publishOutOfStock(UUID orderId, ReservationRequestDto request, int availableQuantity) {
+        OutOfStockEvent outOfStockEvent = stockReservationMapper.toOutOfStockEvent(request, orderId, availableQuantity);
 
-        if (inventory == null) {
-            return 0;
-        }
+        eventPublisher.publish(new OutOfStock(outOfStockTopic, outOfStockEvent, String.valueOf(orderId)));
 
-        int currentlyReserved = stockReservationRepository.getTotalReservedQuantityByProductId(productId);
-        return inventory.getAvailableQuantity() - currentlyReserved;
+        log.error("Insufficient stock for product {}", request.getProductId());
     }
 
-    private StockReservation createReservation(UUID orderId, UUID productId, int quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
-
+    /**
+     * The product is set as an uninitialized reference, so building reservations costs no product query.
+     */
+    public StockReservation newReservation(UUID orderId, UUID productId, int quantity) {
         StockReservation reservation = new StockReservation();
         reservation.setOrderId(orderId);
-        reservation.setProduct(product);
+        reservation.setProduct(productRepository.getReferenceById(productId));
         reservation.setQuantity(quantity);
         reservation.setStatus("RESERVED");
-        reservation.setExpiresAt(LocalDateTime.now().plusMinutes(15));
+        reservation.setExpiresAt(LocalDateTime.now().plusMinutes(reservationTtlMinutes));
         reservation.setCreatedAt(LocalDateTime.now());
 
-        StockReservation savedReservation = stockReservationRepository.save(reservation);
-        log.info("Created stock reservation for order: {}, product: {}, quantity: {}",
-                orderId, productId, quantity);
+        return reservation;
+    }
+
+    public void publishStockChanged(StockChangedEvent.Type type, UUID orderId, List<StockReservation> reservations) {
+        Map<UUID, Integer> quantities = new HashMap<>();
 
-        return savedReservation;
+        reservations.forEach(reservation -> quantities.merge(reservation.getProduct().getId(), reservation.getQuantity(), Integer::sum));
+
+        if (!quantities.isEmpty()) {
+            applicationEventPublisher.publishEvent(new StockChangedEvent(type, orderId, quantities));
+        }
     }
 
-    private void updateInventoryReservedQuantity(UUID productId, int quantity) {
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
+    /**
+     * Releases one page of expired reservations, skipping rows another instance is already working
+     * on. Stock is given back with one grouped statement for the page's bucket slices and one for its
+     * unsharded rows, or one movement append per order when the movement log is enabled. Returns the
+     * number of reservation rows released.
+     */
+    @Transactional
+    public int releaseExpiredPage(LocalDateTime cutoff, int pageSize) {
+        List<ReleasedReservationDto> releasedRows = stockReservationJdbcRepository.releaseExpiredPage(cutoff, pageSize);
+
+        if (releasedRows.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, Integer> rowQuantities = new TreeMap<>(LOCK_ORDER);
+        Map<UUID, Map<Integer, Integer>> bucketQuantities = new TreeMap<>(LOCK_ORDER);
+        groupLines(releasedRows, rowQuantities, bucketQuantities);
+
+        Map<UUID, List<ReleasedReservationDto>> rowsByOrder = new HashMap<>();
+        releasedRows.forEach(row -> rowsByOrder.computeIfAbsent(row.getOrderId(), orderId -> new ArrayList<>()).add(row));
+
+        if (movementsEnabled) {
+            // Movements carry their order id, so the page's unsharded rows are appended per order
+            rowsByOrder.forEach((orderId, rows) -> {
+                Map<UUID, Integer> orderQuantities = new TreeMap<>(LOCK_ORDER);
+                groupLines(rows, orderQuantities, new TreeMap<>(LOCK_ORDER));
+                releaseLines(orderId, orderQuantities, Map.of());
+            });
+            releaseLines(null, new TreeMap<>(LOCK_ORDER), bucketQuantities);
+        } else {
+            releaseLines(null, rowQuantities, bucketQuantities);
+        }
 
-        inventory.setReservedQuantity(inventory.getReservedQuantity() + quantity);
-        inventory.setLastUpdated(LocalDateTime.now());
-        inventoryRepository.save(inventory);
+        rowsByOrder.forEach((orderId, rows) ->
+                applicationEventPublisher.publishEvent(new StockChangedEvent(StockChangedEvent.Type.RELEASED, orderId, productQuantities(rows))));
+
+        return releasedRows.size();
     }
 
+    /**
+     * Confirms every RESERVED line of the order with a fixed number of statements: one UPDATE of the
+     * reservation statuses, one grouped statement for the bucket slices and one for the unsharded
+     * rows. Lines whose bucket or row moved since they were reserved are settled on the other.
+     */
     @Transactional
     public void confirmReservation(UUID orderId) throws InsufficientStockException {
-        List<StockReservation> reservations = stockReservationRepository.findByOrderId(orderId);
+        List<ReleasedReservationDto> lines = stockReservationJdbcRepository.settleOrder(orderId, "CONFIRMED");
+
+        if (lines.isEmpty()) {
+            return;
+        }
 
-        for (StockReservation reservation : reservations) {
-            if ("RESERVED".equals(reservation.getStatus())) {
-                reservation.setStatus("CONFIRMED");
-                stockReservationRepository.save(reservation);
+        Map<UUID, Integer> rowQuantities = new TreeMap<>(LOCK_ORDER);
+        Map<UUID, Map<Integer, Integer>> bucketQuantities = new TreeMap<>(LOCK_ORDER);
+        groupLines(lines, rowQuantities, bucketQuantities);
 
-                Inventory inventory = inventoryRepository.findByProductId(reservation.getProduct().getId())
-                        .orElseThrow(() -> new RuntimeException("Inventory not found"));
+        // Slices whose bucket is gone because the product was re-sharded or folded back go to the row
+        inventoryBucketService.confirmAll(bucketQuantities).forEach((productId, slices) ->
+                slices.values().forEach(quantity -> rowQuantities.merge(productId, quantity, Integer::sum)));
 
-                if (inventory.getAvailableQuantity() < reservation.getQuantity()) {
-                    throw new InsufficientStockException("Stock is no longer available for reservation " + reservation.getId(), HttpStatus.BAD_REQUEST);
-                }
+        List<UUID> notConfirmed = movementsEnabled
+                ? stockMovementJdbcRepository.append(StockMovementJdbcRepository.Type.CONFIRM, orderId, rowQuantities)
+                : inventoryJdbcRepository.confirmReserved(rowQuantities);
 
-                inventory.setAvailableQuantity(inventory.getAvailableQuantity() - reservation.getQuantity());
-                inventory.setReservedQuantity(inventory.getReservedQuantity() - reservation.getQuantity());
-                inventory.setLastUpdated(LocalDateTime.now());
-                inventoryRepository.save(inventory);
+        // Products sharded since their reservation was taken are settled against bucket 0
+        for (UUID productId : notConfirmed) {
+            boolean sharded = inventoryJdbcRepository.findLevel(productId)
+                    .map(level -> level.getBucketCount() > 0)
+                    .orElse(false);
 
-                log.info("Confirmed stock reservation for order: {}, product: {}",
-                        orderId, reservation.getProduct().getId());
+            if (!sharded) {
+                throw new InsufficientStockException("Stock is no longer available for product " + productId + " of order " + orderId, HttpStatus.BAD_REQUEST);
             }
+
+            inventoryBucketService.confirm(productId, 0, rowQuantities.get(productId));
+        }
+
+        // Lines allocated to a warehouse leave its on-hand stock; unallocated ones only exist in the totals
+        Map<UUID, Map<String, Integer>> shipped = new TreeMap<>(LOCK_ORDER);
+        lines.stream()
+                .filter(line -> line.getWarehouseId() != null)
+                .forEach(line -> shipped.computeIfAbsent(line.getProductId(), productId -> new TreeMap<>())
+                        .merge(line.getWarehouseId(), line.getQuantity(), Integer::sum));
+        if (!shipped.isEmpty() && !warehouseJdbcRepository.shipConfirmed(shipped)) {
+            throw new InsufficientStockException("A warehouse no longer holds the stock allocated to order " + orderId, HttpStatus.BAD_REQUEST);
         }
+
+        applicationEventPublisher.publishEvent(new StockChangedEvent(StockChangedEvent.Type.CONFIRMED, orderId, productQuantities(lines)));
+
+        log.info("Confirmed {} stock reservations for order: {}", lines.size(), orderId);
     }
 
+    /**
+     * Releases every RESERVED line of the order with the same fixed number of statements as
+     * {@link #confirmReservation(UUID)}.
+     */
     @Transactional
     public void releaseReservation(UUID orderId) {
-        List<StockReservation> reservations = stockReservationRepository.findByOrderId(orderId);
+        List<ReleasedReservationDto> lines = stockReservationJdbcRepository.settleOrder(orderId, "RELEASED");
+
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Integer> rowQuantities = new TreeMap<>(LOCK_ORDER);
+        Map<UUID, Map<Integer, Integer>> bucketQuantities = new TreeMap<>(LOCK_ORDER);
+        groupLines(lines, rowQuantities, bucketQuantities);
 
-        for (StockReservation reservation : reservations) {
-            if ("RESERVED".equals(reservation.getStatus())) {
-                reservation.setStatus("RELEASED");
-                stockReservationRepository.save(reservation);
+        releaseLines(orderId, rowQuantities, bucketQuantities);
 
-                Inventory inventory = inventoryRepository.findByProductId(reservation.getProduct().getId())
-                        .orElseThrow(() -> new RuntimeException("Inventory not found"));
+        applicationEventPublisher.publishEvent(new StockChangedEvent(StockChangedEvent.Type.RELEASED, orderId, productQuantities(lines)));
 
-                inventory.setReservedQuantity(inventory.getReservedQuantity() - reservation.getQuantity());
-                inventory.setLastUpdated(LocalDateTime.now());
-                inventoryRepository.save(inventory);
+        log.info("Released {} stock reservations for order: {}", lines.size(), orderId);
+    }
+
+    /**
+     * Gives back reserved stock of released lines: bucket slices first, then the unsharded rows,
+     * including slices whose bucket is gone. Rows of products sharded since fall back to bucket 0.
+     */
+    private void releaseLines(UUID orderId, Map<UUID, Integer> rowQuantities, Map<UUID, Map<Integer, Integer>> bucketQuantities) {
+        inventoryBucketService.releaseAll(bucketQuantities).forEach((productId, slices) ->
+                slices.values().forEach(quantity -> rowQuantities.merge(productId, quantity, Integer::sum)));
+
+        List<UUID> notReleased = movementsEnabled
+                ? stockMovementJdbcRepository.append(StockMovementJdbcRepository.Type.RELEASE, orderId, rowQuantities)
+                : inventoryJdbcRepository.releaseReserved(rowQuantities);
+
+        for (UUID productId : notReleased) {
+            if (!inventoryBucketService.release(productId, 0, rowQuantities.get(productId))) {
+                log.warn("Could not give back {} reserved units of product {}", rowQuantities.get(productId), productId);
+            }
+        }
+    }
 
-                log.info("Released stock reservation for order: {}, product: {}",
-                        orderId, reservation.getProduct().getId());
+    private static void groupLines(List<ReleasedReservationDto> lines, Map<UUID, Integer> rowQuantities, Map<UUID, Map<Integer, Integer>> bucketQuantities) {
+        for (ReleasedReservationDto line : lines) {
+            if (line.getBucket() == null) {
+                rowQuantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            } else {
+                bucketQuantities.computeIfAbsent(line.getProductId(), productId -> new TreeMap<>())
+                        .merge(line.getBucket(), line.getQuantity(), Integer::sum);
             }
         }
     }
+
+    private static Map<UUID, Integer> productQuantities(List<ReleasedReservationDto> lines) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        lines.forEach(line -> quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+
+        return quantities;
+    }
 }
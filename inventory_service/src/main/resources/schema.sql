@@ -14,21 +14,131 @@ CREATE TABLE IF NOT EXISTS inventory_service.products(
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Category filter of GET /api/inventory/export
+CREATE INDEX IF NOT EXISTS idx_products_category ON inventory_service.products(category);
+
 CREATE TABLE IF NOT EXISTS inventory_service.inventory(
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
     product_id UUID NOT NULL REFERENCES inventory_service.products(id),
     available_quantity INTEGER NOT NULL DEFAULT 0,
     reserved_quantity INTEGER NOT NULL DEFAULT 0,
+    bucket_count INTEGER NOT NULL DEFAULT 0, -- 0: stock lives on this row, K > 0: split across inventory_buckets
     last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     unique(product_id)
 );
 
+CREATE TABLE IF NOT EXISTS inventory_service.inventory_buckets(
+    product_id UUID NOT NULL REFERENCES inventory_service.products(id),
+    bucket INTEGER NOT NULL,
+    available_quantity INTEGER NOT NULL DEFAULT 0,
+    reserved_quantity INTEGER NOT NULL DEFAULT 0,
+    last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (product_id, bucket)
+);
+
+-- Partitioned by day of created_at. StockReservationPartitionMaintainer creates the daily partitions
+-- ahead of time and moves old ones, which only hold CONFIRMED and RELEASED rows by then, to
+-- stock_reservation_archive. There is no default partition: Postgres refuses DETACH PARTITION
+-- CONCURRENTLY while one exists, and the maintainer creates each day's partition before it starts.
+-- IF NOT EXISTS leaves a plain stock_reservation from older schemas as it is; the maintainer then
+-- refuses to start until scripts/stock-reservation-partitioning.sql has converted it.
 CREATE TABLE IF NOT EXISTS inventory_service.stock_reservation(
-    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
     order_id UUID NOT NULL,
     product_id UUID NOT NULL,
     quantity INTEGER NOT NULL,
+    bucket INTEGER, -- inventory_buckets slice the quantity was taken from, NULL for unsharded products
+    warehouse_id VARCHAR(20), -- warehouse the quantity ships from, NULL until allocated
     status VARCHAR(20) NOT NULL, -- RESERVED, CONFIRMED, RELEASED
     expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_order
+    ON inventory_service.stock_reservation(order_id);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_reserved_product
+    ON inventory_service.stock_reservation(product_id) INCLUDE (quantity)
+    WHERE status = 'RESERVED';
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_reserved_expires
+    ON inventory_service.stock_reservation(expires_at)
+    WHERE status = 'RESERVED';
+
+-- Daily partitions detached from stock_reservation; dropped whole once past the archive retention
+CREATE TABLE IF NOT EXISTS inventory_service.stock_reservation_archive(
+    id UUID NOT NULL,
+    order_id UUID NOT NULL,
+    product_id UUID NOT NULL,
+    quantity INTEGER NOT NULL,
+    bucket INTEGER,
+    warehouse_id VARCHAR(20),
+    status VARCHAR(20) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_archive_order
+    ON inventory_service.stock_reservation_archive(order_id);
+
+-- Append-only log of confirm, release and restock deltas for unsharded products. Rows are folded
+-- into their inventory row by StockMovementFoldScheduler and kept afterwards as the audit trail.
+CREATE TABLE IF NOT EXISTS inventory_service.stock_movements(
+    id BIGSERIAL PRIMARY KEY,
+    product_id UUID NOT NULL REFERENCES inventory_service.products(id),
+    order_id UUID,
+    type VARCHAR(20) NOT NULL, -- CONFIRM, RELEASE, RESTOCK
+    available_delta INTEGER NOT NULL,
+    reserved_delta INTEGER NOT NULL,
+    folded BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_movements_unfolded_product
+    ON inventory_service.stock_movements(product_id) INCLUDE (available_delta, reserved_delta)
+    WHERE NOT folded;
+
+CREATE INDEX IF NOT EXISTS idx_stock_movements_unfolded_id
+    ON inventory_service.stock_movements(id)
+    WHERE NOT folded;
+
+-- Progress of bulk imports through PUT /api/inventory/imports/{importId}. lines_committed advances
+-- in the same transaction as each chunk of lines, so a re-sent upload resumes after the last chunk
+-- that committed.
+CREATE TABLE IF NOT EXISTS inventory_service.stock_imports(
+    id UUID PRIMARY KEY,
+    format VARCHAR(10) NOT NULL, -- CSV, NDJSON
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING', -- RUNNING, COMPLETED, FAILED
+    lines_committed BIGINT NOT NULL DEFAULT 0,
+    lines_rejected BIGINT NOT NULL DEFAULT 0,
+    error TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Warehouses orders ship from. warehouse_inventory splits a product's on-hand stock by warehouse;
+-- the inventory row stays the authority on what can be reserved, the split only decides where a
+-- reservation ships from. Reserved stock per warehouse is the sum of its RESERVED reservations.
+CREATE TABLE IF NOT EXISTS inventory_service.warehouses(
+    id VARCHAR(20) PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+-- Cost of one shipment from a warehouse to a region (the shipping country); no row, no shipping
+CREATE TABLE IF NOT EXISTS inventory_service.warehouse_shipping_costs(
+    warehouse_id VARCHAR(20) NOT NULL REFERENCES inventory_service.warehouses(id),
+    region VARCHAR(100) NOT NULL,
+    cost DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (warehouse_id, region)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_service.warehouse_inventory(
+    product_id UUID NOT NULL REFERENCES inventory_service.products(id),
+    warehouse_id VARCHAR(20) NOT NULL REFERENCES inventory_service.warehouses(id),
+    available_quantity INTEGER NOT NULL DEFAULT 0,
+    last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (product_id, warehouse_id)
+);
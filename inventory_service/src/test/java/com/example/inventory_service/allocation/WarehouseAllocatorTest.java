@@ -0,0 +1,100 @@
+package com.example.inventory_service.allocation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WarehouseAllocator Unit Tests")
+class WarehouseAllocatorTest {
+
+    private static final long BUDGET = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final UUID shoes = UUID.randomUUID();
+    private final UUID socks = UUID.randomUUID();
+
+    private WarehouseAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        // BIG ships everything but costs more than the two small warehouses together
+        allocator = new WarehouseAllocator(List.of("BIG", "EAST", "WEST"),
+                Map.of("DE", Map.of("BIG", 1000L, "EAST", 400L, "WEST", 450L)), 12);
+
+        allocator.setFree(shoes, new int[]{10, 5, 0});
+        allocator.setFree(socks, new int[]{10, 0, 5});
+    }
+
+    @Test
+    @DisplayName("Should prefer the cheapest single warehouse covering the order")
+    void shouldPreferCheapestSingleWarehouse() {
+        Optional<Map<UUID, Map<String, Integer>>> split = allocator.allocate("DE", Map.of(shoes, 2), BUDGET);
+
+        assertThat(split).contains(Map.of(shoes, Map.of("EAST", 2)));
+        assertThat(allocator.getFree(shoes, "EAST")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should split across warehouses when that is cheaper than one warehouse holding everything")
+    void shouldSplitWhenCheaper() {
+        Optional<Map<UUID, Map<String, Integer>>> split = allocator.allocate("DE", Map.of(shoes, 3, socks, 4), BUDGET);
+
+        assertThat(split).contains(Map.of(shoes, Map.of("EAST", 3), socks, Map.of("WEST", 4)));
+        assertThat(allocator.getFree(socks, "WEST")).isEqualTo(1);
+        assertThat(allocator.getFree(shoes, "BIG")).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should not allocate orders the region's warehouses cannot cover")
+    void shouldRejectUncoverableOrders() {
+        assertThat(allocator.allocate("DE", Map.of(shoes, 16), BUDGET)).isEmpty();
+        assertThat(allocator.allocate("FR", Map.of(shoes, 1), BUDGET)).isEmpty();
+        assertThat(allocator.getFree(shoes, "BIG")).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should not hand the same units to concurrent allocations")
+    void shouldNotOverAllocateConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<CompletableFuture<Integer>> allocations = IntStream.range(0, 64)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return allocator.allocate("DE", Map.of(shoes, 1), BUDGET)
+                                .map(split -> split.get(shoes).values().stream().mapToInt(Integer::intValue).sum())
+                                .orElse(0);
+                    }, executor))
+                    .toList();
+
+            start.countDown();
+            int allocated = 0;
+            for (CompletableFuture<Integer> allocation : allocations) {
+                allocated += allocation.get(10, TimeUnit.SECONDS);
+            }
+
+            int left = allocator.getFree(shoes, "BIG") + allocator.getFree(shoes, "EAST");
+            assertThat(allocated + left).isEqualTo(15);
+            assertThat(left).isNotNegative();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.inventory_service.consumer;
+
+import com.example.events.inventory.StockReservedEvent;
+import com.example.events.order.OrderCreatedEvent;
+import com.example.events.order.OrderItem;
+import com.example.inventory_service.allocation.WarehouseAllocationService;
+import com.example.events.inventory.OutOfStockEvent;
+import com.example.inventory_service.event.OutOfStock;
+import com.example.inventory_service.event.StockReserved;
+import com.example.inventory_service.mapper.StockReservationMapper;
+import com.example.inventory_service.model.StockReservation;
+import com.example.inventory_service.publisher.EventPublisher;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.service.ReservationStrategy;
+import com.example.shared_common.idempotency.EventIdempotencyService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderCreatedBatchConsumer Unit Tests")
+class OrderCreatedBatchConsumerTest {
+
+    @Mock
+    private ReservationStrategy reservationStrategy;
+
+    @Mock
+    private StockReservationMapper stockReservationMapper;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private InventoryJdbcRepository inventoryJdbcRepository;
+
+    private EventPublisher eventPublisher;
+
+    @Mock
+    private EventIdempotencyService eventIdempotencyService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ObjectProvider<WarehouseAllocationService> warehouseAllocationService;
+
+    private OrderCreatedBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = spy(new EventPublisher(kafkaTemplate));
+        consumer = new OrderCreatedBatchConsumer(reservationStrategy, stockReservationMapper, eventPublisher, eventIdempotencyService, transactionTemplate,
+                inventoryJdbcRepository, warehouseAllocationService);
+
+        ReflectionTestUtils.setField(consumer, "stockReservedTopic", "inventory-stock-reserved");
+        ReflectionTestUtils.setField(consumer, "transactionSize", 50);
+
+        when(reservationStrategy.joinsCallerTransaction()).thenReturn(true);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        when(stockReservationMapper.toStockReservedEvent(anyList(), anyString())).thenReturn(new StockReservedEvent());
+        lenient().when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+    }
+
+    @Test
+    @DisplayName("Should claim the whole poll at once and skip orders already processed")
+    void shouldClaimBatchAndSkipProcessedOrders() throws Throwable {
+        ConsumerRecord<String, OrderCreatedEvent> first = record(0, UUID.randomUUID());
+        ConsumerRecord<String, OrderCreatedEvent> processed = record(0, UUID.randomUUID());
+        ConsumerRecord<String, OrderCreatedEvent> second = record(1, UUID.randomUUID());
+
+        when(eventIdempotencyService.claimBatch(anyList())).thenReturn(keys(first, second));
+        when(reservationStrategy.reserve(any(), anyList())).thenReturn(List.of(new StockReservation()));
+
+        consumer.orderCreatedBatchListener(List.of(first, processed, second));
+
+        verify(eventIdempotencyService, times(1)).claimBatch(anyList());
+        verify(reservationStrategy, never()).reserve(eq(orderId(processed)), anyList());
+        verify(eventPublisher, times(2)).publish(any(StockReserved.class));
+        verify(eventPublisher, times(1)).flush();
+        verify(eventIdempotencyService).completeBatch(argThat(ids -> ids.containsAll(keys(first, second)) && ids.size() == 2), argThat(Collection::isEmpty));
+    }
+
+    @Test
+    @DisplayName("Should retry a failing order alone and requeue the rest of its transaction")
+    void shouldRetryFailingOrderAloneAndRequeueOthers() throws Throwable {
+        ConsumerRecord<String, OrderCreatedEvent> first = record(0, UUID.randomUUID());
+        ConsumerRecord<String, OrderCreatedEvent> failing = record(0, UUID.randomUUID());
+        ConsumerRecord<String, OrderCreatedEvent> third = record(0, UUID.randomUUID());
+
+        when(eventIdempotencyService.claimBatch(anyList())).thenReturn(keys(first, failing, third));
+        when(reservationStrategy.reserve(eq(orderId(first)), anyList())).thenReturn(List.of(new StockReservation()));
+        when(reservationStrategy.reserve(eq(orderId(failing)), anyList()))
+                .thenThrow(new IllegalStateException("deadlock"))
+                .thenReturn(List.of(new StockReservation()));
+        when(reservationStrategy.reserve(eq(orderId(third)), anyList())).thenReturn(List.of(new StockReservation()));
+
+        consumer.orderCreatedBatchListener(List.of(first, failing, third));
+
+        // first is reserved again after its transaction was rolled back
+        verify(reservationStrategy, times(2)).reserve(eq(orderId(first)), anyList());
+        verify(reservationStrategy, times(2)).reserve(eq(orderId(failing)), anyList());
+        verify(reservationStrategy, times(1)).reserve(eq(orderId(third)), anyList());
+        verify(eventPublisher, times(3)).publish(any(StockReserved.class));
+        verify(eventPublisher, times(1)).flush();
+        verify(eventIdempotencyService).completeBatch(argThat(ids -> ids.size() == 3), argThat(Collection::isEmpty));
+    }
+
+    @Test
+    @DisplayName("Should send an out-of-stock event only once its transaction committed")
+    void shouldHoldBackEventsOfRolledBackTransactions() throws Throwable {
+        ConsumerRecord<String, OrderCreatedEvent> outOfStock = record(0, UUID.randomUUID());
+        ConsumerRecord<String, OrderCreatedEvent> failing = record(0, UUID.randomUUID());
+
+        when(eventIdempotencyService.claimBatch(anyList())).thenReturn(keys(outOfStock, failing));
+        when(reservationStrategy.reserve(eq(orderId(outOfStock)), anyList())).thenAnswer(invocation -> {
+            eventPublisher.publish(new OutOfStock("inventory-out-of-stock", new OutOfStockEvent(), outOfStock.value().getOrderId()));
+            return List.of();
+        });
+        when(reservationStrategy.reserve(eq(orderId(failing)), anyList()))
+                .thenThrow(new IllegalStateException("deadlock"))
+                .thenReturn(List.of(new StockReservation()));
+
+        consumer.orderCreatedBatchListener(List.of(outOfStock, failing));
+
+        // The first transaction rolled back and requeued the out-of-stock order, which reported again
+        verify(reservationStrategy, times(2)).reserve(eq(orderId(outOfStock)), anyList());
+        verify(kafkaTemplate, times(1)).send(eq("inventory-out-of-stock"), eq(outOfStock.value().getOrderId()), any());
+        verify(inventoryJdbcRepository, times(2)).lockRows(anyCollection());
+    }
+
+    private static ConsumerRecord<String, OrderCreatedEvent> record(int partition, UUID orderId) {
+        OrderItem item = new OrderItem();
+        item.setProductId(UUID.randomUUID().toString());
+        item.setQuantity(1);
+
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setOrderId(orderId.toString());
+        event.setItems(List.of(item));
+
+        return new ConsumerRecord<>("order-created", partition, 0L, orderId.toString(), event);
+    }
+
+    private static UUID orderId(ConsumerRecord<String, OrderCreatedEvent> record) {
+        return UUID.fromString(record.value().getOrderId());
+    }
+
+    @SafeVarargs
+    private static Set<String> keys(ConsumerRecord<String, OrderCreatedEvent>... records) {
+        Set<String> keys = new LinkedHashSet<>();
+
+        for (ConsumerRecord<String, OrderCreatedEvent> record : records) {
+            keys.add("stock-reservation-order-" + record.value().getOrderId());
+        }
+
+        return keys;
+    }
+}
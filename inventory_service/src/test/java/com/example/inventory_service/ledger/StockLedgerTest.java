@@ -0,0 +1,98 @@
+package com.example.inventory_service.ledger;
+
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockLedger Unit Tests")
+class StockLedgerTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    private StockLedger stockLedger;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = UUID.randomUUID();
+        stockLedger = new StockLedger(inventoryRepository);
+
+        when(inventoryRepository.findAllTotalLevels()).thenReturn(List.of(new InventoryLevelDto(productId, 10, 2, 0)));
+        stockLedger.seed();
+    }
+
+    @Test
+    @DisplayName("Should reserve while stock is available and refuse once it runs out")
+    void shouldReserveUntilStockRunsOut() {
+        assertThat(stockLedger.tryReserve(productId, 5)).isTrue();
+        assertThat(stockLedger.tryReserve(productId, 4)).isFalse();
+        assertThat(stockLedger.tryReserve(productId, 3)).isTrue();
+        assertThat(stockLedger.getAvailableToReserve(productId)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should apply confirmations and releases from stock changed events")
+    void shouldApplyConfirmationsAndReleases() {
+        stockLedger.tryReserve(productId, 4);
+
+        stockLedger.onStockChanged(new StockChangedEvent(StockChangedEvent.Type.CONFIRMED, UUID.randomUUID(), Map.of(productId, 3)));
+        stockLedger.onStockChanged(new StockChangedEvent(StockChangedEvent.Type.RELEASED, UUID.randomUUID(), Map.of(productId, 1)));
+
+        assertThat(stockLedger.getAvailableQuantity(productId)).isEqualTo(7);
+        assertThat(stockLedger.getAvailableToReserve(productId)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should load unknown products lazily and refuse products without inventory")
+    void shouldLoadUnknownProductsLazily() {
+        UUID newProductId = UUID.randomUUID();
+        UUID missingProductId = UUID.randomUUID();
+
+        when(inventoryRepository.findLevelByProductId(newProductId)).thenReturn(Optional.of(new InventoryLevelDto(newProductId, 3, 0, 0)));
+        when(inventoryRepository.findLevelByProductId(missingProductId)).thenReturn(Optional.empty());
+
+        assertThat(stockLedger.tryReserve(newProductId, 3)).isTrue();
+        assertThat(stockLedger.tryReserve(missingProductId, 1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should never oversell under concurrent reservations")
+    void shouldNeverOversellUnderConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger granted = new AtomicInteger();
+
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                if (stockLedger.tryReserve(productId, 1)) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(8);
+        assertThat(stockLedger.getAvailableToReserve(productId)).isZero();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.inventory_service.ownership;
+
+import com.example.events.inventory.ReservationLineResultEvent;
+import com.example.events.inventory.StockReservation;
+import com.example.inventory_service.dto.ReservationRequestDto;
+import com.example.inventory_service.event.StockReserved;
+import com.example.inventory_service.mapper.StockReservationMapper;
+import com.example.inventory_service.publisher.EventPublisher;
+import com.example.inventory_service.repository.StockReservationRepository;
+import com.example.inventory_service.service.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderReservationAggregator Unit Tests")
+class OrderReservationAggregatorTest {
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private StockReservationMapper stockReservationMapper;
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    private OrderReservationAggregator aggregator;
+    private String orderId;
+    private String firstProductId;
+    private String secondProductId;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new OrderReservationAggregator(stockReservationService, stockReservationRepository, stockReservationMapper, eventPublisher);
+        ReflectionTestUtils.setField(aggregator, "stockReservedTopic", "inventory-stock-reserved");
+        ReflectionTestUtils.setField(aggregator, "settledRetentionMs", 600000L);
+
+        orderId = UUID.randomUUID().toString();
+        firstProductId = UUID.randomUUID().toString();
+        secondProductId = UUID.randomUUID().toString();
+    }
+
+    @Test
+    @DisplayName("Should report the order reserved once every product has answered")
+    void shouldPublishStockReservedWhenAllLinesSucceed() {
+        aggregator.onLineResult(reserved(firstProductId));
+        verify(eventPublisher, never()).publish(any());
+
+        aggregator.onLineResult(reserved(secondProductId));
+
+        verify(eventPublisher).publish(any(StockReserved.class));
+        verify(stockReservationService, never()).releaseReservation(any());
+    }
+
+    @Test
+    @DisplayName("Should release the reserved lines and report out of stock when one line fails")
+    void shouldReleaseOrderWhenALineFails() {
+        aggregator.onLineResult(reserved(firstProductId));
+        aggregator.onLineResult(new ReservationLineResultEvent(orderId, secondProductId, 5, List.of(firstProductId, secondProductId), false, 2, List.of()));
+
+        verify(stockReservationService).releaseReservation(UUID.fromString(orderId));
+        verify(stockReservationService).publishOutOfStock(eq(UUID.fromString(orderId)), eq(new ReservationRequestDto(UUID.fromString(secondProductId), 5)), eq(2));
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    @Test
+    @DisplayName("Should drop a line result that arrives after its order timed out")
+    void shouldDropLateResultOfSettledOrder() {
+        aggregator.onLineResult(reserved(firstProductId));
+        when(stockReservationRepository.findByOrderId(UUID.fromString(orderId))).thenReturn(List.of());
+
+        ReflectionTestUtils.setField(aggregator, "aggregationTimeoutMs", -1L);
+        aggregator.settleTimedOutOrders();
+        aggregator.onLineResult(reserved(secondProductId));
+        aggregator.settleTimedOutOrders();
+
+        verify(stockReservationService, times(1)).releaseReservation(UUID.fromString(orderId));
+        verify(stockReservationService, times(1)).publishOutOfStock(eq(UUID.fromString(orderId)), any(), anyInt());
+        verify(eventPublisher, never()).publish(any());
+    }
+
+    private ReservationLineResultEvent reserved(String productId) {
+        StockReservation reservation = new StockReservation(productId, 1, UUID.randomUUID().toString(), System.currentTimeMillis());
+
+        return new ReservationLineResultEvent(orderId, productId, 1, List.of(firstProductId, secondProductId), true, 0, List.of(reservation));
+    }
+}
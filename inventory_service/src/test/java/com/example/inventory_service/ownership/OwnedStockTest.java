@@ -0,0 +1,50 @@
+package com.example.inventory_service.ownership;
+
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.repository.InventoryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OwnedStock Unit Tests")
+class OwnedStockTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventoryJdbcRepository inventoryJdbcRepository;
+
+    @Test
+    @DisplayName("Should load assigned products and reload them from the database after handover")
+    void shouldReloadProductsOnReassignment() {
+        OwnedStock ownedStock = new OwnedStock(inventoryRepository, inventoryJdbcRepository, 1);
+        UUID productId = UUID.randomUUID();
+
+        when(inventoryRepository.findAllTotalLevels()).thenReturn(List.of(new InventoryLevelDto(productId, 10, 4, 0)));
+
+        ownedStock.assign(List.of(0));
+        ownedStock.reserved(productId, 2);
+
+        assertThat(ownedStock.freeQuantity(productId, 4)).isEqualTo(4);
+        verify(inventoryJdbcRepository, never()).findLevel(productId);
+
+        ownedStock.revoke(List.of(0));
+        when(inventoryJdbcRepository.findLevel(productId)).thenReturn(Optional.of(new InventoryLevelDto(productId, 10, 7, 0)));
+
+        assertThat(ownedStock.freeQuantity(productId, 1)).isEqualTo(3);
+    }
+}
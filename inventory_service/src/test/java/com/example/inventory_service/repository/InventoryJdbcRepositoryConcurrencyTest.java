@@ -0,0 +1,110 @@
+package com.example.inventory_service.repository;
+
+import com.example.inventory_service.dto.InventoryLevelDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a real Postgres, since the race only exists in its row locking. Point
+ * {@code INVENTORY_TEST_DB_URL} (and {@code INVENTORY_TEST_DB_USER} / {@code INVENTORY_TEST_DB_PASSWORD})
+ * at a scratch database to enable it.
+ */
+@EnabledIfEnvironmentVariable(named = "INVENTORY_TEST_DB_URL", matches = ".+")
+@DisplayName("InventoryJdbcRepository Concurrency Tests")
+class InventoryJdbcRepositoryConcurrencyTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                System.getenv("INVENTORY_TEST_DB_URL"),
+                System.getenv("INVENTORY_TEST_DB_USER"),
+                System.getenv("INVENTORY_TEST_DB_PASSWORD"));
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        productId = UUID.randomUUID();
+
+        // 10 on hand, 8 reserved and a pending release of 5: 7 are free
+        jdbcTemplate.update("INSERT INTO inventory_service.products (id, sku, name, price) VALUES (?, ?, 'Race', 1)",
+                productId, "RACE-" + productId);
+        jdbcTemplate.update("INSERT INTO inventory_service.inventory (product_id, available_quantity, reserved_quantity) VALUES (?, 10, 8)",
+                productId);
+        jdbcTemplate.update("INSERT INTO inventory_service.stock_movements (product_id, type, available_delta, reserved_delta) VALUES (?, 'RELEASE', 0, -5)",
+                productId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inventory_service.stock_movements WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM inventory_service.inventory WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM inventory_service.products WHERE id = ?", productId);
+    }
+
+    @Test
+    @DisplayName("Should not count folded movements twice when a reservation waits on a fold")
+    void shouldNotOversellWhileFolding() throws Exception {
+        InventoryJdbcRepository inventoryJdbcRepository = new InventoryJdbcRepository(jdbcTemplate);
+        ReflectionTestUtils.setField(inventoryJdbcRepository, "movementsEnabled", true);
+        StockMovementJdbcRepository stockMovementJdbcRepository = new StockMovementJdbcRepository(jdbcTemplate);
+        JdbcTemplate monitor = new JdbcTemplate(new DriverManagerDataSource(
+                System.getenv("INVENTORY_TEST_DB_URL"),
+                System.getenv("INVENTORY_TEST_DB_USER"),
+                System.getenv("INVENTORY_TEST_DB_PASSWORD")));
+
+        CompletableFuture<Optional<InventoryLevelDto>> reservation = transactionTemplate.execute(status -> {
+            stockMovementJdbcRepository.applyDeltas(stockMovementJdbcRepository.lockAndClaimProduct(productId));
+
+            CompletableFuture<Optional<InventoryLevelDto>> pending = CompletableFuture.supplyAsync(() ->
+                    transactionTemplate.execute(reserve -> inventoryJdbcRepository.reserveIfAvailable(productId, 10)));
+
+            awaitLockWait(monitor);
+            return pending;
+        });
+
+        assertThat(reservation.get(10, TimeUnit.SECONDS)).isEmpty();
+        assertThat(inventoryJdbcRepository.findLevel(productId))
+                .hasValueSatisfying(level -> assertThat(level.getAvailableQuantity() - level.getReservedQuantity()).isEqualTo(7));
+    }
+
+    private static void awaitLockWait(JdbcTemplate monitor) {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (System.currentTimeMillis() < deadline) {
+            Integer waiting = monitor.queryForObject("SELECT COUNT(*) FROM pg_locks WHERE NOT granted", Integer.class);
+
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
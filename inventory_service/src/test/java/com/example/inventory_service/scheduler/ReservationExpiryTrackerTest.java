@@ -0,0 +1,78 @@
+package com.example.inventory_service.scheduler;
+
+import com.example.inventory_service.dto.OrderExpiryDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.repository.StockReservationRepository;
+import com.example.inventory_service.service.StockReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReservationExpiryTracker Unit Tests")
+class ReservationExpiryTrackerTest {
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    private ReservationExpiryTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new ReservationExpiryTracker(stockReservationRepository, stockReservationService, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.stop();
+    }
+
+    @Test
+    @DisplayName("Should release orders rebuilt from the database once they expire")
+    void shouldReleaseRebuiltOrdersOnExpiry() {
+        UUID expiredOrderId = UUID.randomUUID();
+        UUID soonOrderId = UUID.randomUUID();
+
+        when(stockReservationRepository.findReservedOrderExpiries()).thenReturn(List.of(
+                new OrderExpiryDto(expiredOrderId, LocalDateTime.now().minusMinutes(1)),
+                new OrderExpiryDto(soonOrderId, LocalDateTime.now().plusNanos(200_000_000))
+        ));
+
+        tracker.start();
+
+        verify(stockReservationService, timeout(1000)).releaseReservation(expiredOrderId);
+        verify(stockReservationService, timeout(2000)).releaseReservation(soonOrderId);
+    }
+
+    @Test
+    @DisplayName("Should not release orders confirmed before they expire")
+    void shouldSkipConfirmedOrders() {
+        UUID orderId = UUID.randomUUID();
+
+        when(stockReservationRepository.findReservedOrderExpiries()).thenReturn(List.of());
+
+        tracker.start();
+        tracker.track(orderId, LocalDateTime.now().plusNanos(200_000_000));
+        tracker.onStockChanged(new StockChangedEvent(StockChangedEvent.Type.CONFIRMED, orderId, Map.of()));
+
+        verify(stockReservationService, after(600).never()).releaseReservation(orderId);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.inventory_service.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationPartitionMaintainer Unit Tests")
+class StockReservationPartitionMaintainerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StockReservationPartitionMaintainer maintainer;
+    private final LocalDate today = LocalDate.of(2026, 3, 10);
+
+    @BeforeEach
+    void setUp() {
+        maintainer = new StockReservationPartitionMaintainer(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(maintainer, "daysAhead", 2);
+        ReflectionTestUtils.setField(maintainer, "lockTimeoutMs", 2000L);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start on a stock_reservation table that is not partitioned")
+    void shouldFailOnUnpartitionedTable() {
+        when(jdbcTemplate.queryForObject(StockReservationPartitionMaintainer.IS_PARTITIONED, Boolean.class)).thenReturn(false);
+
+        assertThatThrownBy(() -> maintainer.init())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("stock-reservation-partitioning.sql");
+        verify(jdbcTemplate, never()).execute(contains("ATTACH PARTITION"));
+    }
+
+    @Test
+    @DisplayName("Should create only the missing daily partitions ahead of time")
+    void shouldCreateMissingPartitions() {
+        when(jdbcTemplate.queryForList(StockReservationPartitionMaintainer.LIST_PARTITIONS, String.class, "stock_reservation"))
+                .thenReturn(List.of("stock_reservation_default", "stock_reservation_p20260310"));
+
+        maintainer.createUpcomingPartitions(today);
+
+        verify(jdbcTemplate, times(2)).execute(contains("ATTACH PARTITION"));
+        verify(jdbcTemplate).execute(contains("stock_reservation_p20260311 FOR VALUES FROM ('2026-03-11') TO ('2026-03-12')"));
+        verify(jdbcTemplate).execute(contains("stock_reservation_p20260312 FOR VALUES FROM ('2026-03-12') TO ('2026-03-13')"));
+    }
+
+    @Test
+    @DisplayName("Should move settled old partitions to the archive and keep ones with RESERVED rows")
+    void shouldArchiveSettledOldPartitions() throws SQLException {
+        Statement statement = stubConnection();
+        when(jdbcTemplate.queryForList(StockReservationPartitionMaintainer.LIST_DETACH_PENDING, String.class)).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(StockReservationPartitionMaintainer.LIST_PARTITIONS, String.class, "stock_reservation"))
+                .thenReturn(List.of("stock_reservation_p20260301", "stock_reservation_p20260302", "stock_reservation_p20260309"));
+        when(jdbcTemplate.queryForObject(contains("stock_reservation_p20260301 WHERE status = 'RESERVED'"), eq(Boolean.class))).thenReturn(false);
+        when(jdbcTemplate.queryForObject(contains("stock_reservation_p20260302 WHERE status = 'RESERVED'"), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.queryForList(StockReservationPartitionMaintainer.LIST_DETACHED, String.class)).thenReturn(List.of("stock_reservation_p20260301"));
+
+        maintainer.archiveOldPartitions(today.minusDays(7));
+
+        verify(statement).execute("ALTER TABLE inventory_service.stock_reservation DETACH PARTITION inventory_service.stock_reservation_p20260301 CONCURRENTLY");
+        verify(jdbcTemplate).execute(contains("stock_reservation_archive ATTACH PARTITION inventory_service.stock_reservation_p20260301"));
+        verify(statement, never()).execute(contains("stock_reservation_p20260302"));
+        verify(statement, never()).execute(contains("stock_reservation_p20260309"));
+    }
+
+    @Test
+    @DisplayName("Should finish an interrupted concurrent detach before archiving the partition")
+    void shouldFinalizePendingDetach() throws SQLException {
+        Statement statement = stubConnection();
+        when(jdbcTemplate.queryForList(StockReservationPartitionMaintainer.LIST_DETACH_PENDING, String.class)).thenReturn(List.of("stock_reservation_p20260301"));
+        when(jdbcTemplate.queryForList(StockReservationPartitionMaintainer.LIST_PARTITIONS, String.class, "stock_reservation"))
+                .thenReturn(List.of("stock_reservation_p20260301"));
+        when(jdbcTemplate.queryForList(StockReservationPartitionMaintainer.LIST_DETACHED, String.class)).thenReturn(List.of("stock_reservation_p20260301"));
+
+        maintainer.archiveOldPartitions(today.minusDays(7));
+
+        verify(statement).execute("ALTER TABLE inventory_service.stock_reservation DETACH PARTITION inventory_service.stock_reservation_p20260301 FINALIZE");
+        verify(statement, never()).execute(contains("CONCURRENTLY"));
+        verify(jdbcTemplate).execute(contains("stock_reservation_archive ATTACH PARTITION inventory_service.stock_reservation_p20260301"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Statement stubConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+
+        return statement;
+    }
+}
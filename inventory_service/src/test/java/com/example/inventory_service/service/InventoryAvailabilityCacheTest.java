@@ -0,0 +1,94 @@
+package com.example.inventory_service.service;
+
+import com.example.events.inventory.InventoryAvailabilityChangedEvent;
+import com.example.inventory_service.dto.ProductAvailabilityDto;
+import com.example.inventory_service.event.InventoryAvailabilityChanged;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.publisher.EventPublisher;
+import com.example.inventory_service.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryAvailabilityCache Unit Tests")
+class InventoryAvailabilityCacheTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    private InventoryAvailabilityCache cache;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = UUID.randomUUID();
+        cache = new InventoryAvailabilityCache(inventoryRepository, eventPublisher, new SimpleMeterRegistry(), 1000, 60000);
+
+        ReflectionTestUtils.setField(cache, "inventoryAvailabilityChangedTopic", "inventory-availability-changed");
+
+        when(inventoryRepository.findAvailabilityByProductIdIn(anyCollection()))
+                .thenReturn(List.of(new ProductAvailabilityDto(productId, "Widget", BigDecimal.TEN, 10, 2)));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated checks from the cache")
+    void shouldServeRepeatedChecksFromCache() {
+        cache.getAll(List.of(productId));
+        Map<UUID, ProductAvailabilityDto> second = cache.getAll(List.of(productId));
+
+        assertThat(second.get(productId).getAvailableQuantity()).isEqualTo(10);
+        verify(inventoryRepository, times(1)).findAvailabilityByProductIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should reload after a local stock change and broadcast it to other instances")
+    void shouldInvalidateAndBroadcastLocalChanges() {
+        cache.getAll(List.of(productId));
+
+        cache.onStockChanged(new StockChangedEvent(StockChangedEvent.Type.RESERVED, UUID.randomUUID(), Map.of(productId, 1)));
+        cache.getAll(List.of(productId));
+        cache.broadcastChanges();
+
+        verify(inventoryRepository, times(2)).findAvailabilityByProductIdIn(anyCollection());
+
+        ArgumentCaptor<InventoryAvailabilityChanged> broadcast = ArgumentCaptor.forClass(InventoryAvailabilityChanged.class);
+        verify(eventPublisher).publish(broadcast.capture());
+        assertThat(((InventoryAvailabilityChangedEvent) broadcast.getValue().getPayload()).getProductIds()).containsExactly(productId.toString());
+    }
+
+    @Test
+    @DisplayName("Should ignore its own broadcasts but apply those of other instances")
+    void shouldApplyOnlyRemoteBroadcasts() {
+        String ownInstance = (String) ReflectionTestUtils.getField(cache, "instanceId");
+        cache.getAll(List.of(productId));
+
+        cache.onRemoteChange(new InventoryAvailabilityChangedEvent(List.of(productId.toString()), ownInstance, System.currentTimeMillis()));
+        cache.getAll(List.of(productId));
+        verify(inventoryRepository, times(1)).findAvailabilityByProductIdIn(anyCollection());
+
+        cache.onRemoteChange(new InventoryAvailabilityChangedEvent(List.of(productId.toString()), "other-instance", System.currentTimeMillis()));
+        cache.getAll(List.of(productId));
+        verify(inventoryRepository, times(2)).findAvailabilityByProductIdIn(anyCollection());
+    }
+}
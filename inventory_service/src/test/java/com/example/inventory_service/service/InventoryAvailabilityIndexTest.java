@@ -0,0 +1,69 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.InventoryLevelDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryAvailabilityIndex Unit Tests")
+class InventoryAvailabilityIndexTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    private InventoryAvailabilityIndex index;
+
+    private final UUID inStock = UUID.randomUUID();
+    private final UUID allReserved = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        index = new InventoryAvailabilityIndex(inventoryRepository);
+
+        ReflectionTestUtils.setField(index, "refreshBatchSize", 1000);
+
+        when(inventoryRepository.findAllTotalLevels()).thenReturn(List.of(
+                new InventoryLevelDto(inStock, 10, 3, 0),
+                new InventoryLevelDto(allReserved, 5, 5, 0)
+        ));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should set the bit of every requested product with free stock")
+    void shouldAnswerFromIndex() {
+        BitSet bitmap = index.inStock(List.of(allReserved, inStock, UUID.randomUUID(), inStock));
+
+        assertThat(bitmap.stream().toArray()).containsExactly(1, 3);
+    }
+
+    @Test
+    @DisplayName("Should re-read only the products a stock change touched")
+    void shouldRefreshChangedProducts() {
+        when(inventoryRepository.findTotalLevelsByProductIdIn(List.of(allReserved)))
+                .thenReturn(List.of(new InventoryLevelDto(allReserved, 5, 2, 0)));
+
+        index.onStockChanged(new StockChangedEvent(StockChangedEvent.Type.RELEASED, UUID.randomUUID(), Map.of(allReserved, 3)));
+        index.refreshDirty();
+        index.refreshDirty();
+
+        verify(inventoryRepository).findTotalLevelsByProductIdIn(List.of(allReserved));
+        assertThat(index.inStock(List.of(allReserved)).get(0)).isTrue();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.inventory_service.service;
+
+import com.example.events.inventory.ProductAvailabilityState;
+import com.example.events.inventory.SnapshotWatermark;
+import com.example.events.inventory.StockMovementEvent;
+import com.example.events.inventory.StockMovementType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InventoryAvailabilityStore Unit Tests")
+class InventoryAvailabilityStoreTest {
+
+    private final String productId = UUID.randomUUID().toString();
+
+    @Test
+    @DisplayName("Should fold reservations, releases and confirmations onto the last snapshot")
+    void shouldFoldMovementsOntoSnapshot() {
+        ProductAvailabilityState availability = InventoryAvailabilityStore.fold(null, snapshot(20, 2, new SnapshotWatermark(100L, 100L, List.of())));
+
+        availability = InventoryAvailabilityStore.fold(availability, movement(StockMovementType.RESERVED, 5, 101L));
+        availability = InventoryAvailabilityStore.fold(availability, movement(StockMovementType.RELEASED, 1, 102L));
+        availability = InventoryAvailabilityStore.fold(availability, movement(StockMovementType.CONFIRMED, 4, 103L));
+
+        assertThat(availability.getAvailableQuantity()).isEqualTo(16);
+        assertThat(availability.getReservedQuantity()).isEqualTo(2);
+        assertThat(InventoryAvailabilityStore.toEvent(availability).getFreeQuantity()).isEqualTo(14);
+
+        availability = InventoryAvailabilityStore.fold(availability, snapshot(30, 0, new SnapshotWatermark(200L, 200L, List.of())));
+        assertThat(InventoryAvailabilityStore.toEvent(availability).getFreeQuantity()).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Should drop movements of a product that has no snapshot yet")
+    void shouldDropMovementsBeforeFirstSnapshot() {
+        assertThat(InventoryAvailabilityStore.fold(null, movement(StockMovementType.RESERVED, 3, 50L))).isNull();
+    }
+
+    @Test
+    @DisplayName("Should drop deltas the snapshot counts and re-apply those committed after it")
+    void shouldReconcileDeltasRacingTheSnapshot() {
+        ProductAvailabilityState availability = InventoryAvailabilityStore.fold(null, snapshot(20, 0, new SnapshotWatermark(100L, 100L, List.of())));
+
+        availability = InventoryAvailabilityStore.fold(availability, started());
+        // 110 commits before the snapshot is read, 120 after it: the snapshot counts only the first
+        availability = InventoryAvailabilityStore.fold(availability, movement(StockMovementType.RESERVED, 2, 110L));
+        availability = InventoryAvailabilityStore.fold(availability, movement(StockMovementType.RESERVED, 3, 120L));
+
+        SnapshotWatermark watermark = new SnapshotWatermark(115L, 125L, List.of(120L, 121L));
+        availability = InventoryAvailabilityStore.fold(availability, snapshot(20, 2, watermark));
+
+        assertThat(availability.getReservedQuantity()).isEqualTo(5);
+        assertThat(availability.getPending()).isEmpty();
+
+        // 121 was in progress and 112 committed before the watermark but was sent late
+        availability = InventoryAvailabilityStore.fold(availability, movement(StockMovementType.RESERVED, 1, 112L));
+        availability = InventoryAvailabilityStore.fold(availability, movement(StockMovementType.RESERVED, 4, 121L));
+
+        assertThat(availability.getReservedQuantity()).isEqualTo(9);
+    }
+
+    private StockMovementEvent started() {
+        return new StockMovementEvent(productId, StockMovementType.SNAPSHOT_STARTED, 0, 0, 0, null, System.currentTimeMillis(), null, null);
+    }
+
+    private StockMovementEvent snapshot(int available, int reserved, SnapshotWatermark watermark) {
+        return new StockMovementEvent(productId, StockMovementType.SNAPSHOT, 0, available, reserved, null, System.currentTimeMillis(), null, watermark);
+    }
+
+    private StockMovementEvent movement(StockMovementType type, int quantity, Long transactionId) {
+        return new StockMovementEvent(productId, type, quantity, 0, 0, UUID.randomUUID().toString(), System.currentTimeMillis(), transactionId, null);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.BucketAllocationDto;
+import com.example.inventory_service.dto.InventoryBucketDto;
+import com.example.inventory_service.repository.InventoryBucketJdbcRepository;
+import com.example.inventory_service.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryBucketService Unit Tests")
+class InventoryBucketServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventoryBucketJdbcRepository inventoryBucketJdbcRepository;
+
+    @Mock
+    private StockMovementService stockMovementService;
+
+    private InventoryBucketService inventoryBucketService;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = UUID.randomUUID();
+        inventoryBucketService = new InventoryBucketService(inventoryRepository, inventoryBucketJdbcRepository, stockMovementService);
+    }
+
+    @Test
+    @DisplayName("Should split stock without losing units and keep held reservations in bucket 0")
+    void shouldSplitStockPreservingTotals() {
+        List<InventoryBucketDto> buckets = InventoryBucketService.split(productId, 103, 7, 4);
+
+        assertThat(buckets).hasSize(4);
+        assertThat(buckets.stream().mapToInt(InventoryBucketDto::getAvailableQuantity).sum()).isEqualTo(103);
+        assertThat(buckets.get(0).getReservedQuantity()).isEqualTo(7);
+        assertThat(buckets.stream().mapToInt(bucket -> bucket.getAvailableQuantity() - bucket.getReservedQuantity()))
+                .allSatisfy(free -> assertThat(free).isBetween(24, 25));
+    }
+
+    @Test
+    @DisplayName("Should reserve from the order's home bucket when it has enough")
+    void shouldReserveFromHomeBucket() {
+        UUID orderId = UUID.randomUUID();
+        int home = Math.floorMod(orderId.hashCode(), 4);
+
+        when(inventoryBucketJdbcRepository.reserveInBucket(productId, home, 3)).thenReturn(true);
+
+        assertThat(inventoryBucketService.reserve(orderId, productId, 4, 3))
+                .containsExactly(new BucketAllocationDto(home, 3));
+        assertThat(inventoryBucketService.drainDryProducts()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should borrow from other buckets and queue a rebalance when the home bucket runs dry")
+    void shouldBorrowWhenHomeBucketIsDry() {
+        UUID orderId = UUID.randomUUID();
+        int home = Math.floorMod(orderId.hashCode(), 2);
+        int other = 1 - home;
+
+        when(inventoryBucketJdbcRepository.reserveInBucket(productId, home, 5)).thenReturn(false);
+        when(inventoryBucketJdbcRepository.borrowFromBucket(productId, home, 5, false)).thenReturn(2);
+        when(inventoryBucketJdbcRepository.borrowFromBucket(eq(productId), eq(other), anyInt(), eq(false))).thenReturn(3);
+
+        assertThat(inventoryBucketService.reserve(orderId, productId, 2, 5))
+                .containsExactly(new BucketAllocationDto(home, 2), new BucketAllocationDto(other, 3));
+        assertThat(inventoryBucketService.drainDryProducts()).containsExactly(productId);
+    }
+
+    @Test
+    @DisplayName("Should wait for a bucket another order holds before giving up on the request")
+    void shouldWaitForBusyBucketsBeforeFailing() {
+        UUID orderId = UUID.randomUUID();
+        int home = Math.floorMod(orderId.hashCode(), 2);
+        int other = 1 - home;
+
+        when(inventoryBucketJdbcRepository.reserveInBucket(productId, home, 5)).thenReturn(false);
+        when(inventoryBucketJdbcRepository.borrowFromBucket(productId, home, 5, false)).thenReturn(2);
+        // Locked by another checkout: skipped at first, then drawn from once its lock is released
+        when(inventoryBucketJdbcRepository.borrowFromBucket(productId, other, 3, false)).thenReturn(0);
+        when(inventoryBucketJdbcRepository.borrowFromBucket(productId, other, 3, true)).thenReturn(3);
+
+        assertThat(inventoryBucketService.reserve(orderId, productId, 2, 5))
+                .containsExactly(new BucketAllocationDto(home, 2), new BucketAllocationDto(other, 3));
+    }
+
+    @Test
+    @DisplayName("Should return no allocation when all buckets together cannot cover the request")
+    void shouldFailWhenBucketsCannotCover() {
+        UUID orderId = UUID.randomUUID();
+
+        when(inventoryBucketJdbcRepository.reserveInBucket(eq(productId), anyInt(), eq(10))).thenReturn(false);
+        when(inventoryBucketJdbcRepository.borrowFromBucket(eq(productId), anyInt(), anyInt(), anyBoolean())).thenReturn(1);
+
+        assertThat(inventoryBucketService.reserve(orderId, productId, 3, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.InventoryExportDto;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryExportService Unit Tests")
+class InventoryExportServiceTest {
+
+    @Mock
+    private InventoryJdbcRepository inventoryJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private InventoryExportService inventoryExportService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryExportService = new InventoryExportService(inventoryJdbcRepository, transactionManager, objectMapper);
+
+        ReflectionTestUtils.setField(inventoryExportService, "fetchSize", 500);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    @DisplayName("Should stream one JSON line per product from a read-only cursor")
+    @SuppressWarnings("unchecked")
+    void shouldStreamOneLinePerProduct() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2026, 1, 1, 0, 0);
+        doAnswer(invocation -> {
+            Consumer<InventoryExportDto> consumer = invocation.getArgument(3);
+            consumer.accept(new InventoryExportDto(UUID.randomUUID(), "SKU-1", "First", "toys", new BigDecimal("9.99"), true, 7, since.plusHours(1)));
+            consumer.accept(new InventoryExportDto(UUID.randomUUID(), "SKU-2", "Second", "toys", new BigDecimal("1.50"), true, 0, since.plusHours(2)));
+            return null;
+        }).when(inventoryJdbcRepository).exportLevels(eq("toys"), eq(since), eq(500), any(Consumer.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        inventoryExportService.export("toys", since, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("sku").asText()).isEqualTo("SKU-1");
+        assertThat(first.get("availableToSell").asInt()).isEqualTo(7);
+        assertThat(objectMapper.readTree(lines[1]).get("sku").asText()).isEqualTo("SKU-2");
+
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    @DisplayName("Should reach back the watermark lag before updatedSince")
+    @SuppressWarnings("unchecked")
+    void shouldApplyWatermarkLag() throws Exception {
+        ReflectionTestUtils.setField(inventoryExportService, "watermarkLagMs", 60000L);
+        LocalDateTime since = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        inventoryExportService.export(null, since, new ByteArrayOutputStream());
+
+        verify(inventoryJdbcRepository).exportLevels(eq(null), eq(since.minusMinutes(1)), eq(500), any(Consumer.class));
+    }
+}
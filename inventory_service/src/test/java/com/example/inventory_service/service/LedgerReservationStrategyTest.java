@@ -0,0 +1,88 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ProductSnapshotDto;
+import com.example.inventory_service.dto.ReservationRequestDto;
+import com.example.inventory_service.ledger.LedgerWriter;
+import com.example.inventory_service.ledger.StockLedger;
+import com.example.inventory_service.model.StockReservation;
+import com.example.inventory_service.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerReservationStrategy Unit Tests")
+class LedgerReservationStrategyTest {
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private LedgerWriter ledgerWriter;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private StockAlertService stockAlertService;
+
+    @InjectMocks
+    private LedgerReservationStrategy ledgerReservationStrategy;
+
+    private UUID orderId;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        orderId = UUID.randomUUID();
+        productId = UUID.randomUUID();
+
+        ReflectionTestUtils.setField(ledgerReservationStrategy, "writeTimeoutMs", 1000L);
+    }
+
+    @Test
+    @DisplayName("Should give the ledger stock back and return the written rows when the order was already reserved")
+    void shouldNotReserveRedeliveredOrderTwice() {
+        StockReservation existing = new StockReservation();
+        existing.setOrderId(orderId);
+        existing.setStatus("RESERVED");
+
+        when(stockLedger.tryReserve(productId, 2)).thenReturn(true);
+        when(productCatalogCache.getAll(Set.of(productId))).thenReturn(Map.of(productId, mock(ProductSnapshotDto.class)));
+        when(stockReservationService.newReservation(orderId, productId, 2)).thenReturn(new StockReservation());
+        when(ledgerWriter.submit(eq(orderId), anyList())).thenReturn(CompletableFuture.completedFuture(false));
+        when(stockReservationRepository.findByOrderId(orderId)).thenReturn(List.of(existing));
+
+        List<StockReservation> reservations = ledgerReservationStrategy.reserve(orderId, List.of(new ReservationRequestDto(productId, 2)));
+
+        assertThat(reservations).containsExactly(existing);
+        verify(stockLedger).release(productId, 2);
+        verify(stockReservationService, never()).publishStockChanged(any(), any(), anyList());
+    }
+}
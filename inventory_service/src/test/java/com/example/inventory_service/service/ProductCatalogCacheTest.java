@@ -0,0 +1,72 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ProductSnapshotDto;
+import com.example.inventory_service.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCatalogCache Unit Tests")
+class ProductCatalogCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCatalogCache productCatalogCache;
+    private ProductSnapshotDto product;
+
+    @BeforeEach
+    void setUp() {
+        productCatalogCache = new ProductCatalogCache(productRepository, new SimpleMeterRegistry(), 1000, 60000);
+        product = new ProductSnapshotDto(UUID.randomUUID(), "SKU-1", "Widget", BigDecimal.TEN, 5);
+    }
+
+    @Test
+    @DisplayName("Should serve warmed-up products without querying")
+    void shouldServeWarmedUpProducts() {
+        when(productRepository.findActiveSnapshots(any(Pageable.class))).thenReturn(List.of(product));
+
+        productCatalogCache.warmUp();
+        Map<UUID, ProductSnapshotDto> products = productCatalogCache.getAll(List.of(product.getId()));
+
+        assertThat(products).containsEntry(product.getId(), product);
+        verify(productRepository, never()).findSnapshotsByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should load missing products in one query and reload them after invalidation")
+    void shouldReloadAfterInvalidation() {
+        UUID unknownId = UUID.randomUUID();
+        when(productRepository.findSnapshotsByIdIn(anyCollection())).thenReturn(List.of(product));
+
+        Map<UUID, ProductSnapshotDto> products = productCatalogCache.getAll(List.of(product.getId(), unknownId));
+        productCatalogCache.getAll(List.of(product.getId()));
+
+        assertThat(products).containsOnlyKeys(product.getId());
+        verify(productRepository, times(1)).findSnapshotsByIdIn(anyCollection());
+
+        productCatalogCache.invalidate(product.getId());
+        productCatalogCache.getAll(List.of(product.getId()));
+
+        verify(productRepository, times(2)).findSnapshotsByIdIn(anyCollection());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ProductSnapshotDto;
+import com.example.inventory_service.event.LowStockAlert;
+import com.example.inventory_service.publisher.EventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockAlertService Unit Tests")
+class StockAlertServiceTest {
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    private StockAlertService stockAlertService;
+    private ProductSnapshotDto product;
+
+    @BeforeEach
+    void setUp() {
+        stockAlertService = new StockAlertService(eventPublisher, new SimpleMeterRegistry(), 5);
+        ReflectionTestUtils.setField(stockAlertService, "lowStockAlertTopic", "low-stock-alert");
+
+        product = new ProductSnapshotDto(UUID.randomUUID(), "SKU-1", "Widget", BigDecimal.TEN, 10);
+    }
+
+    @Test
+    @DisplayName("Should alert once when crossing into LOW and once more when running OUT")
+    void shouldAlertOnlyOnDownwardCrossings() {
+        stockAlertService.checkAndAlertLowStock(product, 20);
+        verify(eventPublisher, never()).publish(any());
+
+        stockAlertService.checkAndAlertLowStock(product, 10);
+        stockAlertService.checkAndAlertLowStock(product, 7);
+        stockAlertService.checkAndAlertLowStock(product, 3);
+        verify(eventPublisher, times(1)).publish(any(LowStockAlert.class));
+
+        stockAlertService.checkAndAlertLowStock(product, 0);
+        stockAlertService.checkAndAlertLowStock(product, 0);
+        verify(eventPublisher, times(2)).publish(any(LowStockAlert.class));
+    }
+
+    @Test
+    @DisplayName("Should only re-alert after stock recovered past the hysteresis band")
+    void shouldRequireRecoveryPastHysteresisBeforeReAlerting() {
+        stockAlertService.checkAndAlertLowStock(product, 9);
+
+        stockAlertService.checkAndAlertLowStock(product, 14);
+        stockAlertService.checkAndAlertLowStock(product, 9);
+        verify(eventPublisher, times(1)).publish(any(LowStockAlert.class));
+
+        stockAlertService.checkAndAlertLowStock(product, 16);
+        stockAlertService.checkAndAlertLowStock(product, 9);
+        verify(eventPublisher, times(2)).publish(any(LowStockAlert.class));
+    }
+}
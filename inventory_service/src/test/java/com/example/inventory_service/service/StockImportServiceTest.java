@@ -0,0 +1,144 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.StockImportDto;
+import com.example.inventory_service.dto.StockImportLineDto;
+import com.example.inventory_service.repository.StockImportJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockImportService Unit Tests")
+class StockImportServiceTest {
+
+    @Mock
+    private StockImportJdbcRepository stockImportJdbcRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ProductCatalogCache productCatalogCache;
+
+    @Mock
+    private InventoryAvailabilityCache inventoryAvailabilityCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StockImportService stockImportService;
+
+    private final UUID importId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        stockImportService = new StockImportService(stockImportJdbcRepository, inventoryService, productCatalogCache,
+                inventoryAvailabilityCache, transactionTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+
+        ReflectionTestUtils.setField(stockImportService, "chunkSize", 5000);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        lenient().when(stockImportJdbcRepository.advance(eq(importId), any(Long.class), any(Long.class), any(Integer.class))).thenReturn(true);
+        lenient().when(stockImportJdbcRepository.findById(importId)).thenReturn(Optional.of(new StockImportDto()));
+    }
+
+    @Test
+    @DisplayName("Should resume after the lines the import already committed")
+    void shouldResumeAfterCommittedLines() {
+        when(stockImportJdbcRepository.findOrCreate(importId, "CSV"))
+                .thenReturn(new StockImportDto(importId, "CSV", "FAILED", 2, 0, "Line 3: connection reset", null, null));
+        UUID productId = UUID.randomUUID();
+        when(stockImportJdbcRepository.upsertProducts(anyCollection())).thenReturn(List.of(productId));
+
+        String csv = """
+                sku,name,price,quantity
+                SKU-1,First,1.00,5
+                SKU-2,Second,2.00,5
+                SKU-3,"Third, large",3.50,
+                SKU-4,Fourth,4.00,
+                """;
+
+        stockImportService.importLines(importId, StockImportService.Format.CSV, body(csv));
+
+        verify(stockImportJdbcRepository).upsertProducts(argThat((Collection<StockImportLineDto> lines) ->
+                lines.stream().map(StockImportLineDto::getSku).toList().equals(List.of("SKU-3", "SKU-4"))
+                        && lines.iterator().next().getName().equals("Third, large")));
+        verify(stockImportJdbcRepository).insertMissingInventory(List.of(productId));
+        verify(stockImportJdbcRepository).advance(importId, 2, 4, 0);
+        verify(stockImportJdbcRepository).finish(importId, "COMPLETED", null);
+        verify(productCatalogCache).invalidate(productId);
+    }
+
+    @Test
+    @DisplayName("Should add up quantities per SKU and reject unknown SKUs and malformed lines")
+    void shouldMergeQuantitiesAndRejectBadLines() {
+        when(stockImportJdbcRepository.findOrCreate(importId, "NDJSON"))
+                .thenReturn(new StockImportDto(importId, "NDJSON", "RUNNING", 0, 0, null, null, null));
+        UUID productId = UUID.randomUUID();
+        when(stockImportJdbcRepository.findIdsBySku(Set.of("SKU-1", "SKU-9"))).thenReturn(Map.of("SKU-1", productId));
+
+        String ndjson = """
+                {"sku":"SKU-1","quantity":3}
+                {"sku":"SKU-1","quantity":2}
+                {"sku":"SKU-9","quantity":1}
+                {"sku":"SKU-2","name":"No price"}
+                not json
+                """;
+
+        StockImportDto result = stockImportService.importLines(importId, StockImportService.Format.NDJSON, body(ndjson));
+
+        assertThat(result).isNotNull();
+        verify(inventoryService).restockAll(Map.of(productId, 5));
+        verify(stockImportJdbcRepository).advance(importId, 0, 5, 3);
+        verify(stockImportJdbcRepository).finish(importId, "COMPLETED", null);
+    }
+
+    @Test
+    @DisplayName("Should reject a CSV without a sku column before creating the import")
+    void shouldRejectCsvWithoutSkuColumn() {
+        String csv = """
+                name,price,quantity
+                First,1.00,5
+                """;
+
+        assertThatThrownBy(() -> stockImportService.importLines(importId, StockImportService.Format.CSV, body(csv)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(stockImportJdbcRepository, never()).findOrCreate(any(), any());
+        verify(stockImportJdbcRepository, never()).finish(any(), any(), any());
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
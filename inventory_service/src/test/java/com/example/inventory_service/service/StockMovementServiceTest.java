@@ -0,0 +1,65 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.StockMovementDeltaDto;
+import com.example.inventory_service.repository.StockMovementJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockMovementService Unit Tests")
+class StockMovementServiceTest {
+
+    @Mock
+    private StockMovementJdbcRepository stockMovementJdbcRepository;
+
+    private StockMovementService stockMovementService;
+
+    @BeforeEach
+    void setUp() {
+        stockMovementService = new StockMovementService(stockMovementJdbcRepository);
+    }
+
+    @Test
+    @DisplayName("Should fold a page in row lock order and report the movements folded")
+    @SuppressWarnings("unchecked")
+    void shouldFoldPageInLockOrder() {
+        UUID first = UUID.fromString("10000000-0000-0000-0000-000000000000");
+        UUID second = UUID.fromString("20000000-0000-0000-0000-000000000000");
+
+        when(stockMovementJdbcRepository.claimPage(100)).thenReturn(List.of(
+                new StockMovementDeltaDto(second, -3, -3, 2),
+                new StockMovementDeltaDto(first, 10, -1, 3)
+        ));
+
+        int folded = stockMovementService.foldPage(100);
+
+        ArgumentCaptor<List<StockMovementDeltaDto>> applied = ArgumentCaptor.forClass(List.class);
+        verify(stockMovementJdbcRepository).applyDeltas(applied.capture());
+
+        assertThat(folded).isEqualTo(5);
+        assertThat(applied.getValue()).extracting(StockMovementDeltaDto::getProductId).containsExactly(first, second);
+    }
+
+    @Test
+    @DisplayName("Should not touch inventory rows when nothing is pending")
+    void shouldSkipEmptyPage() {
+        when(stockMovementJdbcRepository.claimPage(100)).thenReturn(List.of());
+
+        assertThat(stockMovementService.foldPage(100)).isZero();
+        verify(stockMovementJdbcRepository, never()).applyDeltas(any());
+    }
+}
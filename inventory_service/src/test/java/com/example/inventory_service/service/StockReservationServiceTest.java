@@ -0,0 +1,119 @@
+package com.example.inventory_service.service;
+
+import com.example.inventory_service.dto.ReleasedReservationDto;
+import com.example.inventory_service.event.StockChangedEvent;
+import com.example.inventory_service.exception.InsufficientStockException;
+import com.example.inventory_service.repository.InventoryJdbcRepository;
+import com.example.inventory_service.repository.StockMovementJdbcRepository;
+import com.example.inventory_service.repository.StockReservationJdbcRepository;
+import com.example.inventory_service.repository.WarehouseJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationService Unit Tests")
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationJdbcRepository stockReservationJdbcRepository;
+
+    @Mock
+    private InventoryJdbcRepository inventoryJdbcRepository;
+
+    @Mock
+    private StockMovementJdbcRepository stockMovementJdbcRepository;
+
+    @Mock
+    private InventoryBucketService inventoryBucketService;
+
+    @Mock
+    private WarehouseJdbcRepository warehouseJdbcRepository;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    private UUID orderId;
+    private UUID rowProductId;
+    private UUID bucketProductId;
+
+    @BeforeEach
+    void setUp() {
+        orderId = UUID.randomUUID();
+        rowProductId = UUID.randomUUID();
+        bucketProductId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should confirm an order with one grouped statement for rows and one for buckets")
+    void shouldConfirmOrderWithGroupedStatements() throws Throwable {
+        when(stockReservationJdbcRepository.settleOrder(orderId, "CONFIRMED")).thenReturn(List.of(
+                new ReleasedReservationDto(orderId, rowProductId, 2, null, null),
+                new ReleasedReservationDto(orderId, rowProductId, 3, null, null),
+                new ReleasedReservationDto(orderId, bucketProductId, 4, 1, null)
+        ));
+        when(inventoryBucketService.confirmAll(Map.of(bucketProductId, Map.of(1, 4)))).thenReturn(Map.of());
+        when(inventoryJdbcRepository.confirmReserved(Map.of(rowProductId, 5))).thenReturn(List.of());
+
+        stockReservationService.confirmReservation(orderId);
+
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(applicationEventPublisher).publishEvent(event.capture());
+
+        assertThat(event.getValue().getType()).isEqualTo(StockChangedEvent.Type.CONFIRMED);
+        assertThat(event.getValue().getQuantities()).containsExactlyInAnyOrderEntriesOf(Map.of(rowProductId, 5, bucketProductId, 4));
+    }
+
+    @Test
+    @DisplayName("Should fail confirmation when a warehouse no longer holds the allocated stock")
+    void shouldFailConfirmationWhenWarehouseIsShort() throws Throwable {
+        when(stockReservationJdbcRepository.settleOrder(orderId, "CONFIRMED"))
+                .thenReturn(List.of(new ReleasedReservationDto(orderId, rowProductId, 2, null, "EAST")));
+        when(inventoryBucketService.confirmAll(Map.of())).thenReturn(Map.of());
+        when(inventoryJdbcRepository.confirmReserved(Map.of(rowProductId, 2))).thenReturn(List.of());
+        when(warehouseJdbcRepository.shipConfirmed(Map.of(rowProductId, Map.of("EAST", 2)))).thenReturn(false);
+
+        assertThatThrownBy(() -> stockReservationService.confirmReservation(orderId))
+                .isInstanceOf(InsufficientStockException.class);
+        verify(applicationEventPublisher, never()).publishEvent(any(StockChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should release a product sharded since its reservation against bucket 0")
+    void shouldReleaseReshardedProductAgainstBucketZero() {
+        ReflectionTestUtils.setField(stockReservationService, "movementsEnabled", true);
+
+        when(stockReservationJdbcRepository.settleOrder(orderId, "RELEASED"))
+                .thenReturn(List.of(new ReleasedReservationDto(orderId, rowProductId, 3, null, null)));
+        when(inventoryBucketService.releaseAll(Map.of())).thenReturn(Map.of());
+        when(stockMovementJdbcRepository.append(StockMovementJdbcRepository.Type.RELEASE, orderId, Map.of(rowProductId, 3)))
+                .thenReturn(List.of(rowProductId));
+        when(inventoryBucketService.release(rowProductId, 0, 3)).thenReturn(true);
+
+        stockReservationService.releaseReservation(orderId);
+
+        verify(inventoryBucketService).release(rowProductId, 0, 3);
+        verify(applicationEventPublisher).publishEvent(any(StockChangedEvent.class));
+    }
+}
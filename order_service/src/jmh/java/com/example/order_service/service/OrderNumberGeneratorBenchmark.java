@@ -0,0 +1,64 @@
+package com.example.order_service.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids per second one node hands out, from a single thread and from eight threads sharing the
+ * generator as request threads do. Built and run with the {@code benchmark} profile, see
+ * order_service/pom.xml.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderNumberGeneratorBenchmark {
+    private OrderNumberGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new OrderNumberGenerator();
+        generator.setNodeId(7);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextIdSingleThread() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateOrderNumberContended() {
+        return generator.generateOrderNumber();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderNumberGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
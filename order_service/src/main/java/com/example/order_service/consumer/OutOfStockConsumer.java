@@ -4,10 +4,13 @@ import com.example.events.inventory.OutOfStockEvent;
 import com.example.order_service.enums.OrderStatus;
 import com.example.order_service.model.Order;
 import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.repository.OrderViewJdbcRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,17 +19,22 @@ import java.util.UUID;
 public class OutOfStockConsumer {
 
     private final OrderRepository orderRepository;
+    private final OrderViewJdbcRepository orderViewJdbcRepository;
 
-    public OutOfStockConsumer(OrderRepository orderRepository) {
+    public OutOfStockConsumer(OrderRepository orderRepository, OrderViewJdbcRepository orderViewJdbcRepository) {
         this.orderRepository = orderRepository;
+        this.orderViewJdbcRepository = orderViewJdbcRepository;
     }
 
+    @Transactional
     @KafkaListener(topics = "#{kafkaTopics.outOfStock}")
     void outOfStockConsumer(OutOfStockEvent outOfStockEvent) {
+        Optional<Order> order;
+
         try {
             String orderId = outOfStockEvent.getOrderId();
 
-            Optional<Order> order = orderRepository.findById(UUID.fromString(orderId));
+            order = orderRepository.findById(UUID.fromString(orderId));
 
             if (order.isEmpty()) {
                 log.error("Order {} not found for outOfStockEvent: {}", orderId, outOfStockEvent);
@@ -35,10 +43,17 @@ public class OutOfStockConsumer {
             }
 
             order.get().setStatus(OrderStatus.OUT_OF_STOCK.name());
+            order.get().setUpdatedAt(LocalDateTime.now());
 
-            orderRepository.save(order.get());
+            orderRepository.saveAndFlush(order.get());
         } catch (Exception e) {
             log.error("Error while processing outOfStockEvent: {}", outOfStockEvent, e);
+
+            return;
         }
+
+        // Outside the catch: a view that cannot be updated rolls the status change back with it and
+        // the event is redelivered
+        orderViewJdbcRepository.update(order.get().getId());
     }
 }
@@ -30,7 +30,14 @@ public class PaymentProcessedConsumer {
 
             Optional<Order> order = orderRepository.findById(UUID.fromString(orderId));
 
-            order.ifPresent(value -> orderStateService.updateOrderStatus(value, OrderStatus.PAID));
+            order.ifPresent(value -> {
+                // Kept on the order and its view as the payment summary
+                value.setPaymentStatus("PROCESSED");
+                value.setTransactionId(paymentProcessedEvent.getTransactionId());
+                value.setLastFourDigits(paymentProcessedEvent.getLastFourDigits());
+
+                orderStateService.updateOrderStatus(value, OrderStatus.PAID);
+            });
 
             log.info("Domain payment paymentProcessedEvent received: {}", paymentProcessedEvent);
         } catch (Exception e) {
@@ -15,6 +15,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -42,6 +43,8 @@ public class StockReservedConsumer {
         this.orderStateService = orderStateService;
     }
 
+    // The CONFIRMED status and the PaymentRequest outbox row commit together
+    @Transactional
     @KafkaListener(topics = "#{kafkaTopics.stockReserved}", groupId = "order-service-inventory-processor")
     public void stockReservedConsumer(StockReservedEvent stockReservedEvent) {
         try {
@@ -1,6 +1,9 @@
 package com.example.order_service.controller;
 
+import com.example.order_service.dto.BatchOrderResponseDto;
+import com.example.order_service.dto.BatchOrderResultDto;
 import com.example.order_service.dto.CreateOrderDto;
+import com.example.order_service.dto.OrderCursorPageDto;
 import com.example.order_service.dto.OrderDto;
 import com.example.order_service.dto.OrderItemDto;
 import com.example.order_service.exceptions.AppException;
@@ -9,17 +12,29 @@ import com.example.order_service.model.Order;
 import com.example.order_service.service.OrderItemService;
 import com.example.order_service.service.OrderService;
 import com.example.shared_common.idempotency.ApiIdempotencyService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    @Value("${order.batch.max-orders:5000}")
+    private int maxBatchOrders;
+
+    @Value("${order.batch.idempotency-lock-ms:300000}")
+    private long batchIdempotencyLockMs;
+
+    @Value("${order.listing.max-page-size:100}")
+    private int maxPageSize;
+
     private final OrderService orderService;
     private final OrderItemService orderItemService;
     private final ApiIdempotencyService apiIdempotencyService;
@@ -71,6 +86,56 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    /**
+     * Creates every valid order of the batch; the response reports each order's outcome by position.
+     * A retry with the same Idempotency-Key gets the first response back instead of creating the
+     * orders again, and one arriving while the first is still being processed is answered with 409.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchOrderResponseDto> createOrders(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody List<CreateOrderDto> createOrderDtos
+    ) throws AppException {
+        if (createOrderDtos.isEmpty() || createOrderDtos.size() > maxBatchOrders) {
+            throw new AppException("A batch must hold between 1 and " + maxBatchOrders + " orders", HttpStatus.BAD_REQUEST);
+        }
+
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(createBatch(createOrderDtos));
+        }
+
+        if (!apiIdempotencyService.acquireLock(idempotencyKey, "order-batch-create", Duration.ofMillis(batchIdempotencyLockMs))) {
+            throw new AppException("A batch with this Idempotency-Key is already being processed", HttpStatus.CONFLICT);
+        }
+
+        try {
+            // Checked under the lock, so a retry racing the first request cannot miss its response
+            var existingResponse = apiIdempotencyService.checkAndRetrieve(
+                idempotencyKey,
+                "order-batch-create",
+                BatchOrderResponseDto.class
+            );
+
+            if (existingResponse.isPresent()) {
+                return ResponseEntity.status(existingResponse.get().getStatusCode()).body(existingResponse.get().getData());
+            }
+
+            BatchOrderResponseDto response = createBatch(createOrderDtos);
+            apiIdempotencyService.storeResponse(idempotencyKey, "order-batch-create", response, HttpStatus.OK);
+
+            return ResponseEntity.ok(response);
+        } finally {
+            apiIdempotencyService.releaseLock(idempotencyKey, "order-batch-create");
+        }
+    }
+
+    private BatchOrderResponseDto createBatch(List<CreateOrderDto> createOrderDtos) {
+        List<BatchOrderResultDto> results = orderService.createOrders(createOrderDtos);
+        int created = (int) results.stream().filter(result -> result.getOrderId() != null).count();
+
+        return new BatchOrderResponseDto(created, results.size() - created, results);
+    }
+
     @GetMapping
     public ResponseEntity<Page<OrderDto>> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
@@ -81,6 +146,32 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Cursor mode of the listing, selected by the cursor parameter: start with {@code ?cursor=} and
+     * follow {@code nextCursor} until it is null.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<OrderCursorPageDto> getOrdersByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) UUID customerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) throws AppException {
+        if (size < 1 || size > maxPageSize) {
+            throw new AppException("size must be between 1 and " + maxPageSize, HttpStatus.BAD_REQUEST);
+        }
+
+        return ResponseEntity.ok(orderService.getOrdersAfter(cursor, size, customerId, status, includeTotal));
+    }
+
+    @GetMapping("/{orderId}")
+    public ResponseEntity<OrderDto> getOrder(@PathVariable UUID orderId) {
+        return orderService.getOrder(orderId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{orderId}/items")
     public ResponseEntity<List<OrderItemDto>> getAllOrderItems(@PathVariable String orderId) {
         List<OrderItemDto> items = orderItemService.getOrderItems(orderId);
@@ -0,0 +1,52 @@
+package com.example.order_service.converter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.JsonEncoder;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Round-trips Avro event records through their Avro JSON encoding, so outbox payloads stay readable
+ * in the jsonb column and decode back to the exact record that was written.
+ */
+public final class AvroJsonConverter {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private AvroJsonConverter() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static JsonNode toJson(SpecificRecord record) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            JsonEncoder encoder = EncoderFactory.get().jsonEncoder(record.getSchema(), out);
+
+            new SpecificDatumWriter<>((Class<SpecificRecord>) record.getClass()).write(record, encoder);
+            encoder.flush();
+
+            return mapper.readTree(out.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Could not encode " + record.getClass().getSimpleName() + " as JSON", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SpecificRecord fromJson(JsonNode json, String recordType) {
+        try {
+            Class<SpecificRecord> type = (Class<SpecificRecord>) Class.forName(recordType);
+            SpecificDatumReader<SpecificRecord> reader = new SpecificDatumReader<>(type);
+
+            return reader.read(null, DecoderFactory.get().jsonDecoder(reader.getSchema(), mapper.writeValueAsString(json)));
+        } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Could not decode " + recordType + " from JSON", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchOrderResponseDto {
+    private int created;
+    private int failed;
+    private List<BatchOrderResultDto> results;
+}
@@ -0,0 +1,27 @@
+package com.example.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchOrderResultDto {
+    // Position of the order in the submitted batch
+    private int index;
+    private UUID orderId;
+    private String orderNumber;
+    private String status; // CREATED, FAILED
+    private String error;
+
+    public static BatchOrderResultDto created(int index, UUID orderId, String orderNumber) {
+        return new BatchOrderResultDto(index, orderId, orderNumber, "CREATED", null);
+    }
+
+    public static BatchOrderResultDto failed(int index, String error) {
+        return new BatchOrderResultDto(index, null, null, "FAILED", error);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.order_service.dto;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
@@ -23,11 +24,13 @@ public class CreateOrderDto {
     private String customerName;
 
     @NotEmpty
-    private List<OrderItemDto> items;
+    private List<@Valid OrderItemDto> items;
 
     @NotNull
+    @Valid
     private AddressDto shippingAddress;
 
+    @Valid
     private AddressDto billingAddress;
 
     @NotBlank
@@ -36,6 +39,7 @@ public class CreateOrderDto {
     @NotBlank
     private String paymentMethodType;
 
-    @NotEmpty
+    @NotNull
+    @Valid
     private PricingDto pricing;
 }
\ No newline at end of file
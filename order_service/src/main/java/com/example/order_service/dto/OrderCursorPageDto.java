@@ -0,0 +1,18 @@
+package com.example.order_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderCursorPageDto {
+    private List<OrderDto> items;
+    // Pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+    // Only counted when includeTotal=true
+    private Long total;
+}
@@ -18,6 +18,11 @@ public class OrderDto {
     private BigDecimal taxAmount;
     private BigDecimal shippingAmount;
     private JsonNode shippingAddress;
+    private String paymentStatus;
+    private String lastFourDigits;
+    private LocalDateTime paidAt;
+    private LocalDateTime shippedAt;
+    private LocalDateTime deliveredAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<OrderItemDto> items;
@@ -29,6 +29,24 @@ public class OrderEvent {
     @Column(name = "event_payload", columnDefinition = "jsonb")
     private JsonNode eventPayload;
 
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "partition_key", length = 100)
+    private String partitionKey;
+
+    @Column(name = "payload_type", nullable = false)
+    private String payloadType;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
-}
\ No newline at end of file
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+}
@@ -1,37 +1,65 @@
 package com.example.order_service.publisher;
 
+import com.example.order_service.converter.AvroJsonConverter;
 import com.example.order_service.event.DomainEvent;
+import com.example.order_service.model.OrderEvent;
+import com.example.order_service.repository.OrderEventRepository;
+import com.example.order_service.repository.OrderRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.avro.specific.SpecificRecord;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes events to the order_events outbox in the caller's transaction, so an event exists exactly
+ * when the order change that raised it committed. {@link OrderEventRelay} sends them to Kafka.
+ */
 @Component
 @Slf4j
 public class EventPublisher {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OrderEventRepository orderEventRepository;
+    private final OrderRepository orderRepository;
 
-    public EventPublisher(KafkaTemplate<String, Object> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public EventPublisher(OrderEventRepository orderEventRepository, OrderRepository orderRepository) {
+        this.orderEventRepository = orderEventRepository;
+        this.orderRepository = orderRepository;
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publish(DomainEvent event) {
-        try {
-            kafkaTemplate.send(event.getTopic(), event.getPartitionKey(), event.getPayload())
-                    .whenComplete((result, exception) -> {
-                        if (exception != null) {
-                            log.error("Error publishing event", exception);
-                        } else {
-                            log.info("Published event {}", event);
-                        }
-                    });
-        } catch (Exception e) {
-            log.error(
-                    "And error occurred when sending message {} to topic {}: {}",
-                    event.getEventId(),
-                    event.getTopic(),
-                    e.getMessage()
-            );
+        orderEventRepository.save(toOrderEvent(event));
+
+        log.debug("Queued event {} for topic {}", event.getEventId(), event.getTopic());
+    }
+
+    /**
+     * Queues many events with batched inserts; the relay later sends them with one flush per batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<? extends DomainEvent> events) {
+        orderEventRepository.saveAll(events.stream().map(this::toOrderEvent).toList());
+
+        log.debug("Queued {} events", events.size());
+    }
+
+    private OrderEvent toOrderEvent(DomainEvent event) {
+        if (!(event.getPayload() instanceof SpecificRecord payload)) {
+            throw new IllegalArgumentException("Event " + event.getEventId() + " does not carry an Avro record");
         }
+
+        OrderEvent orderEvent = new OrderEvent();
+        orderEvent.setOrder(orderRepository.getReferenceById(UUID.fromString(event.getAggregateId())));
+        orderEvent.setEventType(event.getEventType());
+        orderEvent.setEventPayload(AvroJsonConverter.toJson(payload));
+        orderEvent.setPayloadType(payload.getClass().getName());
+        orderEvent.setTopic(event.getTopic());
+        orderEvent.setPartitionKey(event.getPartitionKey());
+
+        return orderEvent;
     }
 }
@@ -0,0 +1,164 @@
+package com.example.order_service.publisher;
+
+import com.example.order_service.converter.AvroJsonConverter;
+import com.example.order_service.model.OrderEvent;
+import com.example.order_service.repository.OrderEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the order_events outbox. Each run locks up to {@code batch-size} unsent rows with
+ * SKIP LOCKED, so several instances relay disjoint batches, and holds the partition keys of its
+ * rows, so another instance cannot send a later event of the same order first. The whole batch is
+ * handed to the producer, flushed once, and the rows whose sends were acknowledged are stamped sent
+ * in the same transaction.
+ * A row whose send times out or fails with a retriable error stays unsent for the next run;
+ * consumers already deduplicate by order id. A row that fails for good, because its payload does
+ * not convert or the broker rejects the record, counts an attempt and keeps the error, and is
+ * skipped once it reaches {@code max-attempts}, so it cannot hold back the rest of the outbox.
+ */
+@Component
+@EnableScheduling
+@Slf4j
+public class OrderEventRelay {
+    @Value("${order.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${order.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Value("${order.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    private final OrderEventRepository orderEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderEventRelay(
+            OrderEventRepository orderEventRepository,
+            KafkaTemplate<String, Object> kafkaTemplate,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.orderEventRepository = orderEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval-ms:50}")
+    public void relay() {
+        try {
+            // Keep draining while full batches are settled; rows left for a retry end the run, so an
+            // unreachable broker is not polled again until the next run
+            int settled;
+            do {
+                settled = relayBatch();
+            } while (settled == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to relay order events, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Relays one batch and returns how many of its rows were settled, either sent or recorded as
+     * failed; rows left unsent for a retry are not counted.
+     */
+    int relayBatch() {
+        Integer settled = transactionTemplate.execute(status -> {
+            List<OrderEvent> events = orderEventRepository.lockUnsent(batchSize, maxAttempts);
+
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            Map<OrderEvent, CompletableFuture<?>> sends = new LinkedHashMap<>();
+
+            for (OrderEvent event : events) {
+                try {
+                    sends.put(event, kafkaTemplate.send(event.getTopic(), event.getPartitionKey(),
+                            AvroJsonConverter.fromJson(event.getEventPayload(), event.getPayloadType())));
+                } catch (RuntimeException e) {
+                    recordFailure(event, e);
+                }
+            }
+
+            kafkaTemplate.flush();
+
+            List<UUID> sent = new ArrayList<>(sends.size());
+            int[] retrying = {0};
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+
+            sends.forEach((event, send) -> {
+                Throwable failure = await(send, deadline);
+
+                if (failure == null) {
+                    sent.add(event.getId());
+                } else if (failure instanceof RetriableException || failure instanceof TimeoutException) {
+                    retrying[0]++;
+                } else {
+                    recordFailure(event, failure);
+                }
+            });
+
+            if (!sent.isEmpty()) {
+                orderEventRepository.markSent(sent, LocalDateTime.now());
+                log.info("Relayed {} order events", sent.size());
+            }
+            if (retrying[0] > 0) {
+                log.warn("{} order events were not acknowledged, retrying on the next run", retrying[0]);
+            }
+
+            return events.size() - retrying[0];
+        });
+
+        return settled == null ? 0 : settled;
+    }
+
+    /**
+     * Waits for one send until the batch deadline. Returns null once it was acknowledged and the
+     * producer's failure, or a timeout when it is still pending at the deadline, otherwise.
+     */
+    private Throwable await(CompletableFuture<?> send, long deadline) {
+        try {
+            send.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending order events", e);
+        } catch (ExecutionException e) {
+            // The template wraps the producer's own exception
+            return e.getCause() instanceof KafkaException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+        } catch (TimeoutException e) {
+            return e;
+        }
+    }
+
+    private void recordFailure(OrderEvent event, Throwable failure) {
+        orderEventRepository.recordFailure(event.getId(), String.valueOf(failure));
+
+        if (event.getAttempts() + 1 >= maxAttempts) {
+            log.error("Order event {} for topic {} failed {} times and is no longer relayed", event.getId(), event.getTopic(), maxAttempts, failure);
+        } else {
+            log.warn("Order event {} for topic {} could not be sent: {}", event.getId(), event.getTopic(), failure.toString());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.order_service.repository;
+
+import com.example.order_service.model.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderEventRepository extends JpaRepository<OrderEvent, UUID> {
+    // Concurrent relays each lock a different batch instead of queueing behind one another; rows
+    // that failed maxAttempts times are left for an operator. A relay also takes a transaction
+    // advisory lock per partition key and skips keys another relay holds, so every event of one
+    // order is sent by one relay at a time, in created_at order.
+    @Query(value = """
+            SELECT * FROM order_service.order_events
+            WHERE sent_at IS NULL AND attempts < :maxAttempts
+              AND pg_try_advisory_xact_lock(hashtext('order_events'), hashtext(COALESCE(partition_key, id::text)))
+            ORDER BY created_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OrderEvent> lockUnsent(@Param("limit") int limit, @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("UPDATE OrderEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OrderEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") UUID id, @Param("error") String error);
+}
@@ -0,0 +1,278 @@
+package com.example.order_service.repository;
+
+import com.example.order_service.dto.OrderDto;
+import com.example.order_service.dto.OrderItemDto;
+import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The order_view read model: one row per order holding its items, status and payment and shipment
+ * summary, so listing and detail reads are a single indexed read without ORM hydration. Rows are
+ * written in the same transaction as the order change they reflect, and status changes are copied
+ * from the flushed orders row rather than from the caller's entity. Listing is keyset paged, newest
+ * first: each page continues strictly after the (created_at, order_id) of the previous page's last
+ * row, one index range scan of {@code limit} rows however deep the page is.
+ */
+@Repository
+public class OrderViewJdbcRepository {
+    private static final String SELECT_ORDERS = """
+            SELECT order_id, order_number, customer_id, status, total_amount, tax_amount, shipping_amount,
+                   shipping_address, items, payment_status, last_four_digits, paid_at, shipped_at, delivered_at,
+                   created_at, updated_at
+            FROM order_service.order_view
+            WHERE TRUE
+            """;
+
+    private static final String COUNT_ORDERS = """
+            SELECT COUNT(*) FROM order_service.order_view WHERE TRUE
+            """;
+
+    private static final String SELECT_ITEMS = """
+            SELECT items FROM order_service.order_view WHERE order_id = ?
+            """;
+
+    private static final String INSERT_ORDER = """
+            INSERT INTO order_service.order_view (order_id, order_number, customer_id, status, total_amount, tax_amount,
+                                                  shipping_amount, shipping_address, items, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?)
+            """;
+
+    // The orders row was just updated in this transaction and stays locked until it commits, so
+    // concurrent changes of one order reach the view in the order they reached orders
+    private static final String UPDATE_ORDER = """
+            UPDATE order_service.order_view v
+            SET status = o.status, payment_status = o.payment_status, transaction_id = o.transaction_id,
+                last_four_digits = o.last_four_digits, updated_at = o.updated_at,
+                paid_at = CASE WHEN o.status = 'PAID' THEN COALESCE(v.paid_at, o.updated_at) ELSE v.paid_at END,
+                shipped_at = CASE WHEN o.status = 'SHIPPED' THEN COALESCE(v.shipped_at, o.updated_at) ELSE v.shipped_at END,
+                delivered_at = CASE WHEN o.status = 'DELIVERED' THEN COALESCE(v.delivered_at, o.updated_at) ELSE v.delivered_at END
+            FROM order_service.orders o
+            WHERE o.id = ? AND v.order_id = o.id
+            """;
+
+    // Orders without a view row, or whose view row missed status changes made by instances that did
+    // not write the view
+    private static final String SELECT_STALE_ORDERS = """
+            SELECT o.id
+            FROM order_service.orders o
+            LEFT JOIN order_service.order_view v ON v.order_id = o.id
+            WHERE v.order_id IS NULL
+               OR (v.status, v.payment_status, v.transaction_id, v.last_four_digits)
+                  IS DISTINCT FROM (o.status, o.payment_status, o.transaction_id, o.last_four_digits)
+            LIMIT ?
+            """;
+
+    // The orders rows are share locked, so a status change cannot commit between the copy and this
+    // transaction's commit; one made afterwards updates the view itself
+    private static final String BACKFILL_ORDERS = """
+            WITH locked AS (
+                SELECT * FROM order_service.orders WHERE id = ANY(?) FOR SHARE
+            )
+            INSERT INTO order_service.order_view (order_id, order_number, customer_id, status, total_amount, tax_amount,
+                                                  shipping_amount, shipping_address, items, payment_status, transaction_id,
+                                                  last_four_digits, created_at, updated_at)
+            SELECT o.id, o.order_number, o.customer_id, o.status, o.total_amount, o.tax_amount, o.shipping_amount,
+                   o.shipping_address,
+                   COALESCE((SELECT jsonb_agg(jsonb_build_object('productId', i.product_id, 'productName', i.product_name,
+                                                                 'quantity', i.quantity, 'unitPrice', i.unit_price))
+                             FROM order_service.order_items i WHERE i.order_id = o.id), '[]'),
+                   o.payment_status, o.transaction_id, o.last_four_digits,
+                   COALESCE(o.created_at, CURRENT_TIMESTAMP), COALESCE(o.updated_at, CURRENT_TIMESTAMP)
+            FROM locked o
+            ON CONFLICT (order_id) DO UPDATE
+            SET status = EXCLUDED.status, payment_status = EXCLUDED.payment_status, transaction_id = EXCLUDED.transaction_id,
+                last_four_digits = EXCLUDED.last_four_digits, updated_at = EXCLUDED.updated_at,
+                paid_at = CASE WHEN EXCLUDED.status = 'PAID' THEN COALESCE(order_view.paid_at, EXCLUDED.updated_at) ELSE order_view.paid_at END,
+                shipped_at = CASE WHEN EXCLUDED.status = 'SHIPPED' THEN COALESCE(order_view.shipped_at, EXCLUDED.updated_at) ELSE order_view.shipped_at END,
+                delivered_at = CASE WHEN EXCLUDED.status = 'DELIVERED' THEN COALESCE(order_view.delivered_at, EXCLUDED.updated_at) ELSE order_view.delivered_at END
+            """;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final TypeReference<List<OrderItemDto>> ITEMS_TYPE = new TypeReference<>() {};
+
+    private static final RowMapper<OrderDto> ORDER_MAPPER = (rs, rowNum) -> {
+        OrderDto order = new OrderDto();
+        order.setId(rs.getObject("order_id", UUID.class));
+        order.setOrderNumber(rs.getString("order_number"));
+        order.setCustomerId(rs.getObject("customer_id", UUID.class));
+        order.setStatus(rs.getString("status"));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        order.setTaxAmount(rs.getBigDecimal("tax_amount"));
+        order.setShippingAmount(rs.getBigDecimal("shipping_amount"));
+        order.setPaymentStatus(rs.getString("payment_status"));
+        order.setLastFourDigits(rs.getString("last_four_digits"));
+        order.setPaidAt(toLocalDateTime(rs.getTimestamp("paid_at")));
+        order.setShippedAt(toLocalDateTime(rs.getTimestamp("shipped_at")));
+        order.setDeliveredAt(toLocalDateTime(rs.getTimestamp("delivered_at")));
+        order.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        order.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+
+        try {
+            String shippingAddress = rs.getString("shipping_address");
+            if (shippingAddress != null) {
+                order.setShippingAddress(mapper.readTree(shippingAddress));
+            }
+            order.setItems(readItems(rs.getString("items")));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed order_view row for order " + order.getId(), e);
+        }
+
+        return order;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderViewJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the view rows of newly created orders, built from the in-memory orders and their items.
+     */
+    public void insertAll(List<Order> orders) {
+        List<Object[]> rows = new ArrayList<>(orders.size());
+
+        for (Order order : orders) {
+            try {
+                rows.add(new Object[]{
+                        order.getId(), order.getOrderNumber(), order.getCustomerId(), order.getStatus(),
+                        order.getTotalAmount(), order.getTaxAmount(), order.getShippingAmount(),
+                        order.getShippingAddress() == null ? null : mapper.writeValueAsString(order.getShippingAddress()),
+                        mapper.writeValueAsString(order.getOrderItems().stream().map(OrderViewJdbcRepository::toItem).toList()),
+                        Timestamp.valueOf(order.getCreatedAt()), Timestamp.valueOf(order.getUpdatedAt())
+                });
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize order " + order.getId() + " for order_view", e);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ORDER, rows);
+    }
+
+    /**
+     * Copies the order's status and payment fields from its orders row onto its view row, stamping
+     * when it was paid, shipped and delivered the first time it reaches those statuses. The order
+     * change must be flushed first.
+     */
+    public void update(UUID orderId) {
+        jdbcTemplate.update(UPDATE_ORDER, orderId);
+    }
+
+    /**
+     * Writes or refreshes the view rows of up to {@code limit} orders the view is missing or behind
+     * on, and returns how many it found. Runs in the caller's transaction.
+     */
+    public int backfill(int limit) {
+        List<UUID> stale = jdbcTemplate.queryForList(SELECT_STALE_ORDERS, UUID.class, limit);
+
+        if (stale.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(BACKFILL_ORDERS);
+            statement.setArray(1, connection.createArrayOf("uuid", stale.toArray()));
+            return statement;
+        });
+
+        return stale.size();
+    }
+
+    public Optional<OrderDto> findById(UUID orderId) {
+        return jdbcTemplate.query(SELECT_ORDERS + " AND order_id = ?", ORDER_MAPPER, orderId).stream().findFirst();
+    }
+
+    public List<OrderItemDto> findItems(UUID orderId) {
+        List<String> items = jdbcTemplate.queryForList(SELECT_ITEMS, String.class, orderId);
+
+        try {
+            return items.isEmpty() ? List.of() : readItems(items.get(0));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed items on order_view row for order " + orderId, e);
+        }
+    }
+
+    /**
+     * Up to {@code limit} orders older than ({@code afterCreatedAt}, {@code afterId}), or the newest
+     * ones when no position is given. {@code customerId} and {@code status} are optional.
+     */
+    public List<OrderDto> findPage(UUID customerId, String status, LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_ORDERS);
+        List<Object> args = filters(sql, customerId, status);
+
+        if (afterCreatedAt != null) {
+            sql.append(" AND (created_at, order_id) < (?, ?)");
+            args.add(Timestamp.valueOf(afterCreatedAt));
+            args.add(afterId);
+        }
+
+        sql.append(" ORDER BY created_at DESC, order_id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), ORDER_MAPPER, args.toArray());
+    }
+
+    /**
+     * Offset page of the newest orders, for the page/size listing.
+     */
+    public List<OrderDto> findPage(long offset, int limit) {
+        return jdbcTemplate.query(SELECT_ORDERS + " ORDER BY created_at DESC, order_id DESC OFFSET ? LIMIT ?",
+                ORDER_MAPPER, offset, limit);
+    }
+
+    public long count(UUID customerId, String status) {
+        StringBuilder sql = new StringBuilder(COUNT_ORDERS);
+        List<Object> args = filters(sql, customerId, status);
+
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+        return count == null ? 0 : count;
+    }
+
+    private static List<Object> filters(StringBuilder sql, UUID customerId, String status) {
+        List<Object> args = new ArrayList<>();
+
+        if (customerId != null) {
+            sql.append(" AND customer_id = ?");
+            args.add(customerId);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status);
+        }
+
+        return args;
+    }
+
+    private static OrderItemDto toItem(OrderItem orderItem) {
+        OrderItemDto item = new OrderItemDto();
+        item.setProductId(orderItem.getProductId());
+        item.setProductName(orderItem.getProductName());
+        item.setQuantity(orderItem.getQuantity());
+        item.setUnitPrice(orderItem.getUnitPrice());
+
+        return item;
+    }
+
+    private static List<OrderItemDto> readItems(String items) throws JsonProcessingException {
+        return items == null ? List.of() : mapper.readValue(items, ITEMS_TYPE);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.order_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position after the last order of a keyset page, handed to clients as an opaque URL-safe token.
+ */
+record OrderCursor(LocalDateTime createdAt, UUID id) {
+
+    String encode() {
+        byte[] position = (createdAt + "|" + id).getBytes(StandardCharsets.UTF_8);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position);
+    }
+
+    static OrderCursor decode(String token) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 2);
+
+            return new OrderCursor(LocalDateTime.parse(position[0]), UUID.fromString(position[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
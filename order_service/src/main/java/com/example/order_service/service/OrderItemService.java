@@ -1,8 +1,7 @@
 package com.example.order_service.service;
 
 import com.example.order_service.dto.OrderItemDto;
-import com.example.order_service.mapper.OrderItemMapper;
-import com.example.order_service.repository.OrderItemRepository;
+import com.example.order_service.repository.OrderViewJdbcRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,19 +9,14 @@ import java.util.UUID;
 
 @Service
 public class OrderItemService {
-    private final OrderItemRepository orderItemRepository;
-    private final OrderItemMapper orderItemMapper;
+    private final OrderViewJdbcRepository orderViewJdbcRepository;
 
-    public OrderItemService(OrderItemRepository orderItemRepository, OrderItemMapper orderItemMapper) {
-        this.orderItemRepository = orderItemRepository;
-        this.orderItemMapper = orderItemMapper;
+    public OrderItemService(OrderViewJdbcRepository orderViewJdbcRepository) {
+        this.orderViewJdbcRepository = orderViewJdbcRepository;
     }
 
     public List<OrderItemDto> getOrderItems(String orderId) {
 
-        return orderItemRepository.findAllByOrderId(UUID.fromString(orderId))
-                .stream()
-                .map(orderItemMapper::toOrderItemDto)
-                .toList();
+        return orderViewJdbcRepository.findItems(UUID.fromString(orderId));
     }
 }
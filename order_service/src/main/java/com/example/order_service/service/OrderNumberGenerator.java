@@ -2,9 +2,88 @@ package com.example.order_service.service;
 
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free, node-aware order numbers: 41 bits of milliseconds since 2025-01-01, 10 bits of node id
+ * and a 12-bit sequence per millisecond, printed as a decimal of at most 19 digits. The node id is
+ * leased by {@link OrderNumberNodeLease}, so ids never collide across instances and no database
+ * round trip is needed. A leased node id is only used until shortly before its lease runs out, so an
+ * instance whose renewal stalls stops issuing ids before another instance can lease the same one.
+ * <p>
+ * The millisecond and sequence of the last id share one atomic long. A burst that exhausts the
+ * sequence simply carries into the next millisecond instead of waiting for it, and a clock that
+ * steps back keeps counting from the last id handed out.
+ */
 @Component
 public class OrderNumberGenerator {
+    static final long EPOCH_MS = 1735689600000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final LongSupplier clock;
+    // (milliseconds since EPOCH_MS << SEQUENCE_BITS) | sequence, of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+    private volatile NodeLease nodeLease;
+
+    public OrderNumberGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    OrderNumberGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void setNodeId(int nodeId) {
+        setNodeId(nodeId, Long.MAX_VALUE);
+    }
+
+    /**
+     * Uses {@code nodeId} until the wall clock reaches {@code validUntil} milliseconds.
+     */
+    public void setNodeId(int nodeId, long validUntil) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+
+        this.nodeLease = new NodeLease(nodeId, validUntil);
+    }
+
+    /**
+     * Stops handing out ids until a node id is set again, for when the lease can no longer be
+     * vouched for.
+     */
+    public void clearNodeId() {
+        this.nodeLease = null;
+    }
+
     public String generateOrderNumber() {
-        return System.currentTimeMillis() + "";
+        return Long.toString(nextId());
+    }
+
+    long nextId() {
+        NodeLease lease = nodeLease;
+        long millis = clock.getAsLong();
+
+        if (lease == null) {
+            throw new IllegalStateException("No order number node id is leased");
+        }
+        if (millis >= lease.validUntil()) {
+            throw new IllegalStateException("The lease on order number node id " + lease.nodeId() + " has run out");
+        }
+
+        long now = (millis - EPOCH_MS) << SEQUENCE_BITS;
+        long next = last.updateAndGet(previous -> Math.max(previous + 1, now));
+
+        return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | (long) lease.nodeId() << SEQUENCE_BITS
+                | next & SEQUENCE_MASK;
+    }
+
+    private record NodeLease(int nodeId, long validUntil) {
     }
 }
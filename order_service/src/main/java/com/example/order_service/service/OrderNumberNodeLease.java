@@ -0,0 +1,155 @@
+package com.example.order_service.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives {@link OrderNumberGenerator} a node id no other instance holds. A fixed
+ * {@code order.number.node-id} is used as is; otherwise a free id is leased in Redis with a TTL and
+ * renewed on a thread of its own, so a scheduled job blocked elsewhere cannot hold renewal up. The
+ * generator is told to stop using the id {@code lease-safety-margin-ms} before the lease it last
+ * saw expires, and if renewal does not succeed by then a new lease is taken.
+ */
+@Component
+@Slf4j
+public class OrderNumberNodeLease {
+    private static final String KEY_PREFIX = "order-number:node:";
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    @Value("${order.number.node-id:-1}")
+    private int configuredNodeId;
+
+    @Value("${order.number.lease-ttl-ms:30000}")
+    private long leaseTtlMs;
+
+    @Value("${order.number.lease-renew-interval-ms:10000}")
+    private long renewIntervalMs;
+
+    @Value("${order.number.lease-safety-margin-ms:5000}")
+    private long safetyMarginMs;
+
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final String owner = UUID.randomUUID().toString();
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-number-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile int leasedNodeId = -1;
+    private volatile long leasedUntil;
+
+    public OrderNumberNodeLease(OrderNumberGenerator orderNumberGenerator, RedisTemplate<String, String> redisTemplate) {
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void acquire() {
+        if (configuredNodeId >= 0) {
+            orderNumberGenerator.setNodeId(configuredNodeId);
+            log.info("Order numbers use configured node id {}", configuredNodeId);
+            return;
+        }
+
+        lease();
+        renewer.scheduleWithFixedDelay(this::renew, renewIntervalMs, renewIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void renew() {
+        if (configuredNodeId >= 0) {
+            return;
+        }
+
+        try {
+            if (leasedNodeId < 0) {
+                lease();
+                return;
+            }
+
+            long renewedAt = System.currentTimeMillis();
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(KEY_PREFIX + leasedNodeId), owner, String.valueOf(leaseTtlMs));
+
+            if (Long.valueOf(1).equals(renewed)) {
+                leasedUntil = renewedAt + leaseTtlMs;
+                orderNumberGenerator.setNodeId(leasedNodeId, leasedUntil - safetyMarginMs);
+                return;
+            }
+
+            log.warn("Lost the lease on order number node id {}, leasing a new one", leasedNodeId);
+            orderNumberGenerator.clearNodeId();
+            leasedNodeId = -1;
+            lease();
+        } catch (RuntimeException e) {
+            log.error("Failed to renew the lease on order number node id {}", leasedNodeId, e);
+
+            if (System.currentTimeMillis() >= leasedUntil) {
+                orderNumberGenerator.clearNodeId();
+                leasedNodeId = -1;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        renewer.shutdownNow();
+
+        if (configuredNodeId >= 0 || leasedNodeId < 0) {
+            return;
+        }
+
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + leasedNodeId), owner);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release order number node id {}, it expires on its own", leasedNodeId, e);
+        }
+    }
+
+    private void lease() {
+        int start = ThreadLocalRandom.current().nextInt(OrderNumberGenerator.MAX_NODE_ID + 1);
+
+        for (int i = 0; i <= OrderNumberGenerator.MAX_NODE_ID; i++) {
+            int candidate = (start + i) & OrderNumberGenerator.MAX_NODE_ID;
+            long leasedAt = System.currentTimeMillis();
+
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + candidate, owner, Duration.ofMillis(leaseTtlMs)))) {
+                leasedNodeId = candidate;
+                leasedUntil = leasedAt + leaseTtlMs;
+                orderNumberGenerator.setNodeId(candidate, leasedUntil - safetyMarginMs);
+
+                log.info("Leased order number node id {}", candidate);
+                return;
+            }
+        }
+
+        throw new IllegalStateException("Every order number node id is leased");
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.order_service.service;
 
+import com.example.order_service.dto.BatchOrderResultDto;
 import com.example.order_service.dto.CreateOrderDto;
+import com.example.order_service.dto.OrderCursorPageDto;
 import com.example.order_service.dto.OrderDto;
 import com.example.order_service.dto.OrderItemDto;
 import com.example.order_service.event.OrderCreated;
+import com.example.order_service.enums.OrderStatus;
 import com.example.order_service.exceptions.AppException;
 import com.example.order_service.mapper.OrderEventMapper;
 import com.example.order_service.mapper.OrderItemMapper;
@@ -11,18 +14,33 @@ import com.example.order_service.mapper.OrderMapper;
 import com.example.order_service.model.Order;
 import com.example.order_service.model.OrderItem;
 import com.example.order_service.publisher.EventPublisher;
+import com.example.order_service.repository.OrderViewJdbcRepository;
 import com.example.order_service.repository.OrderRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.example.events.order.OrderCreatedEvent;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -42,22 +60,40 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
 
+    private final OrderViewJdbcRepository orderViewJdbcRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    // Orders per transaction of POST /api/orders/batch
+    @Value("${order.batch.chunk-size:500}")
+    private int batchChunkSize;
+
     public OrderService(
             OrderMapper orderMapper,
             OrderRepository orderRepository,
+            OrderViewJdbcRepository orderViewJdbcRepository,
             OrderNumberGenerator orderNumberGenerator,
             EventPublisher eventPublisher,
             OrderItemMapper orderItemMapper,
-            OrderEventMapper orderEventMapper
+            OrderEventMapper orderEventMapper,
+            TransactionTemplate transactionTemplate,
+            Validator validator
     ) {
         this.orderMapper = orderMapper;
         this.orderRepository = orderRepository;
+        this.orderViewJdbcRepository = orderViewJdbcRepository;
         this.orderNumberGenerator = orderNumberGenerator;
         this.eventPublisher = eventPublisher;
         this.orderItemMapper = orderItemMapper;
         this.orderEventMapper = orderEventMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
     }
 
+    // The order and its OrderCreated outbox row commit together
+    @Transactional(rollbackFor = AppException.class)
     public Order createOrder(CreateOrderDto orderDto) throws AppException {
         long startTime = System.currentTimeMillis();
         
@@ -72,6 +108,7 @@ public class OrderService {
             Order order = buildOrder(orderDto);
 
             orderRepository.save(order);
+            orderViewJdbcRepository.insertAll(List.of(order));
 
             // Add orderId to MDC after save (when ID is generated)
             MDC.put("orderId", order.getId().toString());
@@ -83,7 +120,7 @@ public class OrderService {
             eventPublisher.publish(new OrderCreated(orderCreatedTopic, orderCreatedEvent, order.getId().toString()));
             
             long duration = System.currentTimeMillis() - startTime;
-            log.info("✅ Order creation completed successfully: {} ({}ms) - Event published to topic: {}", 
+            log.info("✅ Order creation completed successfully: {} ({}ms) - Event queued for topic: {}", 
                 order.getId(), duration, orderCreatedTopic);
                 
             // Log business metrics
@@ -107,6 +144,94 @@ public class OrderService {
         }
     }
 
+    /**
+     * Validates and creates many orders, returning one result per order in submission order. Valid
+     * orders are written {@code chunk-size} at a time, each chunk with batched inserts and one bulk
+     * outbox write in its own transaction. A chunk that fails is retried order by order, so a bad
+     * order only fails itself.
+     */
+    public List<BatchOrderResultDto> createOrders(List<CreateOrderDto> orderDtos) {
+        long startTime = System.currentTimeMillis();
+        BatchOrderResultDto[] results = new BatchOrderResultDto[orderDtos.size()];
+        List<Integer> valid = new ArrayList<>();
+
+        for (int i = 0; i < orderDtos.size(); i++) {
+            Set<ConstraintViolation<CreateOrderDto>> violations = validator.validate(orderDtos.get(i));
+
+            if (violations.isEmpty()) {
+                valid.add(i);
+            } else {
+                results[i] = BatchOrderResultDto.failed(i, describe(violations));
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += batchChunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + batchChunkSize, valid.size()));
+
+            try {
+                List<Order> orders = transactionTemplate.execute(status -> persistOrders(chunk.stream().map(orderDtos::get).toList()));
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    results[chunk.get(i)] = BatchOrderResultDto.created(chunk.get(i), orders.get(i).getId(), orders.get(i).getOrderNumber());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Batch chunk of {} orders failed, creating them one by one", chunk.size(), e);
+
+                chunk.forEach(index -> results[index] = createAlone(index, orderDtos.get(index)));
+            }
+        }
+
+        long created = Arrays.stream(results).filter(result -> result.getOrderId() != null).count();
+        log.info("📊 BUSINESS_METRIC: orders_batch_created, submitted={}, created={}, processingTime={}ms",
+                orderDtos.size(), created, System.currentTimeMillis() - startTime);
+
+        return Arrays.asList(results);
+    }
+
+    private BatchOrderResultDto createAlone(int index, CreateOrderDto orderDto) {
+        try {
+            Order order = transactionTemplate.execute(status -> persistOrders(List.of(orderDto))).get(0);
+
+            return BatchOrderResultDto.created(index, order.getId(), order.getOrderNumber());
+        } catch (RuntimeException e) {
+            log.error("❌ Order {} of batch failed for customer: {}", index, orderDto.getCustomerId(), e);
+
+            return BatchOrderResultDto.failed(index, failureMessage(e));
+        }
+    }
+
+    // The cause is logged; callers get a fixed message that does not expose SQL or driver errors
+    private static String failureMessage(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return "Order conflicts with existing data";
+        }
+        if (e instanceof TransientDataAccessException) {
+            return "Order could not be created, try again";
+        }
+
+        return "Order could not be created";
+    }
+
+    private List<Order> persistOrders(List<CreateOrderDto> orderDtos) {
+        List<Order> orders = orderDtos.stream().map(this::buildOrder).toList();
+
+        orderRepository.saveAll(orders);
+        orderViewJdbcRepository.insertAll(orders);
+
+        eventPublisher.publishAll(orders.stream()
+                .map(order -> new OrderCreated(orderCreatedTopic, orderEventMapper.toOrderCreatedEvent(order), order.getId().toString()))
+                .toList());
+
+        return orders;
+    }
+
+    private static String describe(Set<ConstraintViolation<CreateOrderDto>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
     private Order buildOrder(CreateOrderDto orderDto) {
         Order order = orderMapper.createOrderDtoToOrder(orderDto);
 
@@ -130,7 +255,53 @@ public class OrderService {
     public Page<OrderDto> getOrders(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
 
-        return orderRepository.findAll(pageable)
-                .map(orderMapper::toOrderDto);
+        return new PageImpl<>(orderViewJdbcRepository.findPage(pageable.getOffset(), size), pageable,
+                orderViewJdbcRepository.count(null, null));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<OrderDto> getOrder(UUID orderId) {
+        Optional<OrderDto> view = orderViewJdbcRepository.findById(orderId);
+        if (view.isPresent()) {
+            return view;
+        }
+
+        // Orders OrderViewBackfill has not reached yet are read from the tables
+        return orderRepository.findById(orderId).map(order -> {
+            OrderDto orderDto = orderMapper.toOrderDto(order);
+            orderDto.setItems(order.getOrderItems().stream().map(orderItemMapper::toOrderItemDto).toList());
+            return orderDto;
+        });
+    }
+
+    /**
+     * Keyset page of orders, newest first, continuing after {@code cursor} (the first page when
+     * blank). Deep pages cost the same as the first; the total is only counted when asked for.
+     */
+    public OrderCursorPageDto getOrdersAfter(String cursor, int size, UUID customerId, String status, boolean includeTotal) throws AppException {
+        OrderCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+            if (status != null) {
+                OrderStatus.valueOf(status);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new AppException(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+
+        // One extra row tells whether another page follows
+        List<OrderDto> orders = orderViewJdbcRepository.findPage(customerId, status,
+                after == null ? null : after.createdAt(), after == null ? null : after.id(), size + 1);
+
+        String nextCursor = null;
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            OrderDto last = orders.get(size - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        Long total = includeTotal ? orderViewJdbcRepository.count(customerId, status) : null;
+
+        return new OrderCursorPageDto(orders, nextCursor, total);
     }
 }
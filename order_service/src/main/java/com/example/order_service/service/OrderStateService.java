@@ -3,6 +3,7 @@ package com.example.order_service.service;
 import com.example.order_service.enums.OrderStatus;
 import com.example.order_service.model.Order;
 import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.repository.OrderViewJdbcRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,10 +17,12 @@ public class OrderStateService {
     
     private final OrderRepository orderRepository;
     private final OrderStateMachine orderStateMachine;
+    private final OrderViewJdbcRepository orderViewJdbcRepository;
     
-    public OrderStateService(OrderRepository orderRepository, OrderStateMachine orderStateMachine) {
+    public OrderStateService(OrderRepository orderRepository, OrderStateMachine orderStateMachine, OrderViewJdbcRepository orderViewJdbcRepository) {
         this.orderRepository = orderRepository;
         this.orderStateMachine = orderStateMachine;
+        this.orderViewJdbcRepository = orderViewJdbcRepository;
     }
     
     @Transactional
@@ -73,7 +76,8 @@ public class OrderStateService {
                 log.debug("Order {} status updated to {}", order.getId(), newStatus);
         }
         
-        orderRepository.save(order);
+        orderRepository.saveAndFlush(order);
+        orderViewJdbcRepository.update(order.getId());
         log.info("Order {} status updated from {} to {}", order.getId(), currentStatus, newStatus);
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.example.order_service.service;
+
+import com.example.order_service.repository.OrderViewJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings order_view up to date with the orders table when an instance starts: writes the rows of
+ * orders created before the view existed and copies the status and payment fields of orders
+ * changed by instances that did not write it. Runs in transactions of {@code batch-size} orders and
+ * is a no-op once the view has caught up, so every instance can run it. Until it has, reads of a
+ * missing order fall back to the tables in {@link OrderService#getOrder}.
+ */
+@Component
+@Slf4j
+public class OrderViewBackfill {
+    @Value("${order.view.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.view.backfill.batch-size:1000}")
+    private int batchSize;
+
+    private final OrderViewJdbcRepository orderViewJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderViewBackfill(OrderViewJdbcRepository orderViewJdbcRepository, TransactionTemplate transactionTemplate) {
+        this.orderViewJdbcRepository = orderViewJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            int total = 0;
+            int written;
+            do {
+                Integer batch = transactionTemplate.execute(status -> orderViewJdbcRepository.backfill(batchSize));
+                written = batch == null ? 0 : batch;
+                total += written;
+            } while (written == batchSize);
+
+            if (total > 0) {
+                log.info("Backfilled {} order_view rows", total);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to backfill order_view, it is retried on the next start", e);
+        }
+    }
+}
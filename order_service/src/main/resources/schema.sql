@@ -30,10 +30,53 @@ CREATE TABLE IF NOT EXISTS order_service.order_items(
     total_price DECIMAL(10, 2)
 );
 
+-- Read model of the order endpoints, one row per order with its items and payment and shipment
+-- summary. Written by OrderViewJdbcRepository in the transaction of every order change; no foreign
+-- key, as the row is inserted before Hibernate flushes the order itself.
+CREATE TABLE IF NOT EXISTS order_service.order_view(
+    order_id UUID PRIMARY KEY,
+    order_number VARCHAR(30),
+    customer_id UUID,
+    status VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(10, 2),
+    tax_amount DECIMAL(10, 2),
+    shipping_amount DECIMAL(10, 2),
+    shipping_address JSONB,
+    items JSONB NOT NULL DEFAULT '[]',
+    payment_status VARCHAR(50),
+    transaction_id VARCHAR(255),
+    last_four_digits VARCHAR(4),
+    paid_at TIMESTAMP,
+    shipped_at TIMESTAMP,
+    delivered_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Keyset listing of GET /api/orders?cursor=, newest first, optionally per customer or status
+CREATE INDEX IF NOT EXISTS idx_order_view_created_at_id ON order_service.order_view(created_at, order_id);
+CREATE INDEX IF NOT EXISTS idx_order_view_customer_created_at_id ON order_service.order_view(customer_id, created_at, order_id);
+CREATE INDEX IF NOT EXISTS idx_order_view_status_created_at_id ON order_service.order_view(status, created_at, order_id);
+
+-- Orders written before the view existed, or by instances without it during a rollout, are
+-- brought in by OrderViewBackfill when an instance starts
+
+-- Transactional outbox: events are written with the order change that raised them and sent to
+-- Kafka by OrderEventRelay, which stamps sent_at. Sent rows stay as the order's event history.
+-- A row that cannot be sent counts its attempts and keeps the last error; once attempts reach
+-- order.outbox.max-attempts the relay skips it until it is fixed and reset by hand.
 CREATE TABLE IF NOT EXISTS order_service.order_events(
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
     order_id UUID REFERENCES order_service.orders(id),
     event_type VARCHAR(50),
     event_payload JSONB,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
\ No newline at end of file
+    topic VARCHAR(255) NOT NULL,
+    partition_key VARCHAR(100),
+    payload_type VARCHAR(255) NOT NULL, -- Avro record class of event_payload
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_events_unsent ON order_service.order_events(created_at) WHERE sent_at IS NULL;
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.example.events.inventory.OutOfStockEvent;
 import com.example.order_service.enums.OrderStatus;
 import com.example.order_service.model.Order;
 import com.example.order_service.repository.OrderRepository;
+import com.example.order_service.repository.OrderViewJdbcRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -28,6 +29,9 @@ class OutOfStockConsumerTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderViewJdbcRepository orderViewJdbcRepository;
+
     @InjectMocks
     private OutOfStockConsumer outOfStockConsumer;
 
@@ -55,7 +59,7 @@ class OutOfStockConsumerTest {
     void shouldProcessOutOfStockEventSuccessfully() {
         // Arrange
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
 
         // Act
         assertThatCode(() -> outOfStockConsumer.outOfStockConsumer(validOutOfStockEvent))
@@ -63,15 +67,16 @@ class OutOfStockConsumerTest {
 
         // Assert
         verify(orderRepository).findById(orderId);
-        verify(orderRepository).save(any(Order.class));
+        verify(orderRepository).saveAndFlush(any(Order.class));
         
         // Verify the order status was updated to OUT_OF_STOCK
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository).save(orderCaptor.capture());
+        verify(orderRepository).saveAndFlush(orderCaptor.capture());
         
         Order savedOrder = orderCaptor.getValue();
         assertThat(savedOrder.getStatus()).isEqualTo(OrderStatus.OUT_OF_STOCK.name());
         assertThat(savedOrder.getId()).isEqualTo(orderId);
+        verify(orderViewJdbcRepository).update(orderId);
     }
 
     @Test
@@ -86,7 +91,7 @@ class OutOfStockConsumerTest {
 
         // Assert
         verify(orderRepository).findById(orderId);
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -105,7 +110,7 @@ class OutOfStockConsumerTest {
 
         // Assert
         verify(orderRepository, never()).findById(any());
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -124,7 +129,7 @@ class OutOfStockConsumerTest {
 
         // Assert
         verify(orderRepository, never()).findById(any());
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -143,7 +148,7 @@ class OutOfStockConsumerTest {
 
         // Assert
         verify(orderRepository, never()).findById(any());
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -159,7 +164,7 @@ class OutOfStockConsumerTest {
 
         // Assert
         verify(orderRepository).findById(orderId);
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -167,7 +172,7 @@ class OutOfStockConsumerTest {
     void shouldHandleRepositorySaveExceptionGracefully() {
         // Arrange
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class)))
+        when(orderRepository.saveAndFlush(any(Order.class)))
                 .thenThrow(new RuntimeException("Failed to save order"));
 
         // Act - Should not propagate exception due to try-catch
@@ -176,7 +181,18 @@ class OutOfStockConsumerTest {
 
         // Assert
         verify(orderRepository).findById(orderId);
-        verify(orderRepository).save(any(Order.class));
+        verify(orderRepository).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("Should propagate a failed view update so the status change rolls back and is retried")
+    void shouldPropagateViewUpdateFailure() {
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
+        doThrow(new RuntimeException("view unavailable")).when(orderViewJdbcRepository).update(orderId);
+
+        assertThatThrownBy(() -> outOfStockConsumer.outOfStockConsumer(validOutOfStockEvent))
+                .hasMessage("view unavailable");
     }
 
     @Test
@@ -184,14 +200,14 @@ class OutOfStockConsumerTest {
     void shouldVerifyOrderStatusTransitionToOutOfStock() {
         // Arrange
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
 
         // Act
         outOfStockConsumer.outOfStockConsumer(validOutOfStockEvent);
 
         // Assert - Verify specific status transition
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository).save(orderCaptor.capture());
+        verify(orderRepository).saveAndFlush(orderCaptor.capture());
         
         Order savedOrder = orderCaptor.getValue();
         assertThat(savedOrder.getStatus()).isEqualTo(OrderStatus.OUT_OF_STOCK.name());
@@ -204,7 +220,7 @@ class OutOfStockConsumerTest {
     void shouldExecuteOperationsInCorrectSequence() {
         // Arrange
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
 
         // Act
         outOfStockConsumer.outOfStockConsumer(validOutOfStockEvent);
@@ -212,7 +228,7 @@ class OutOfStockConsumerTest {
         // Assert - Verify execution order using InOrder
         var inOrder = inOrder(orderRepository);
         inOrder.verify(orderRepository).findById(orderId);
-        inOrder.verify(orderRepository).save(any(Order.class));
+        inOrder.verify(orderRepository).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -232,7 +248,7 @@ class OutOfStockConsumerTest {
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
         when(orderRepository.findById(orderId2)).thenReturn(Optional.of(mockOrder2));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder).thenReturn(mockOrder2);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder).thenReturn(mockOrder2);
 
         // Act
         outOfStockConsumer.outOfStockConsumer(validOutOfStockEvent);
@@ -241,11 +257,11 @@ class OutOfStockConsumerTest {
         // Assert
         verify(orderRepository).findById(orderId);
         verify(orderRepository).findById(orderId2);
-        verify(orderRepository, times(2)).save(any(Order.class));
+        verify(orderRepository, times(2)).saveAndFlush(any(Order.class));
         
         // Verify both orders were updated to OUT_OF_STOCK
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository, times(2)).save(orderCaptor.capture());
+        verify(orderRepository, times(2)).saveAndFlush(orderCaptor.capture());
         
         for (Order savedOrder : orderCaptor.getAllValues()) {
             assertThat(savedOrder.getStatus()).isEqualTo(OrderStatus.OUT_OF_STOCK.name());
@@ -277,7 +293,7 @@ class OutOfStockConsumerTest {
 
         when(orderRepository.findById(foundOrderId)).thenReturn(Optional.of(foundOrder));
         when(orderRepository.findById(notFoundOrderId)).thenReturn(Optional.empty());
-        when(orderRepository.save(any(Order.class))).thenReturn(foundOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(foundOrder);
 
         // Act
         outOfStockConsumer.outOfStockConsumer(foundEvent);
@@ -288,7 +304,7 @@ class OutOfStockConsumerTest {
         verify(orderRepository).findById(notFoundOrderId);
         
         // Only the found order should be saved
-        verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderRepository, times(1)).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -298,14 +314,14 @@ class OutOfStockConsumerTest {
         mockOrder.setOrderNumber("ORD-12345");
         mockOrder.setCustomerId(UUID.randomUUID());
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
 
         // Act
         outOfStockConsumer.outOfStockConsumer(validOutOfStockEvent);
 
         // Assert - Verify that the same order object with all its data is saved
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository).save(orderCaptor.capture());
+        verify(orderRepository).saveAndFlush(orderCaptor.capture());
         
         Order savedOrder = orderCaptor.getValue();
         assertThat(savedOrder.getId()).isEqualTo(mockOrder.getId());
@@ -324,7 +340,7 @@ class OutOfStockConsumerTest {
 
         // Assert
         verify(orderRepository, never()).findById(any());
-        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -359,7 +375,7 @@ class OutOfStockConsumerTest {
     void shouldHandleVariousProductIdFormats() {
         // Arrange
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
         
         String[] productIdFormats = {
             "PROD-12345", // Standard format
@@ -383,7 +399,7 @@ class OutOfStockConsumerTest {
         
         // Verify all events were processed
         verify(orderRepository, times(productIdFormats.length)).findById(orderId);
-        verify(orderRepository, times(productIdFormats.length)).save(any(Order.class));
+        verify(orderRepository, times(productIdFormats.length)).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -391,7 +407,7 @@ class OutOfStockConsumerTest {
     void shouldHandleVariousQuantityCombinations() {
         // Arrange
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
         
         int[][] quantityCombinations = {
             {10, 0}, // Requested 10, available 0
@@ -416,7 +432,7 @@ class OutOfStockConsumerTest {
         
         // Verify all events were processed
         verify(orderRepository, times(quantityCombinations.length)).findById(orderId);
-        verify(orderRepository, times(quantityCombinations.length)).save(any(Order.class));
+        verify(orderRepository, times(quantityCombinations.length)).saveAndFlush(any(Order.class));
     }
 
     @Test
@@ -428,7 +444,7 @@ class OutOfStockConsumerTest {
         Thread[] threads = new Thread[threadCount];
 
         when(orderRepository.findById(any())).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
 
         // Act - Create multiple threads processing events concurrently
         for (int i = 0; i < threadCount; i++) {
@@ -467,7 +483,7 @@ class OutOfStockConsumerTest {
         // Arrange
         int eventCount = 1000;
         when(orderRepository.findById(any())).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
 
         // Act & Assert - Should handle high volume without issues
         assertThatCode(() -> {
@@ -487,7 +503,7 @@ class OutOfStockConsumerTest {
     void shouldBeIdempotentProcessingSameEventMultipleTimes() {
         // Arrange
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(mockOrder);
+        when(orderRepository.saveAndFlush(any(Order.class))).thenReturn(mockOrder);
 
         // Act & Assert - Should handle same event multiple times
         assertThatCode(() -> {
@@ -498,11 +514,11 @@ class OutOfStockConsumerTest {
         
         // Verify the event was processed multiple times
         verify(orderRepository, times(3)).findById(orderId);
-        verify(orderRepository, times(3)).save(any(Order.class));
+        verify(orderRepository, times(3)).saveAndFlush(any(Order.class));
         
         // Each processing should set the status to OUT_OF_STOCK (idempotent)
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository, times(3)).save(orderCaptor.capture());
+        verify(orderRepository, times(3)).saveAndFlush(orderCaptor.capture());
         
         for (Order savedOrder : orderCaptor.getAllValues()) {
             assertThat(savedOrder.getStatus()).isEqualTo(OrderStatus.OUT_OF_STOCK.name());
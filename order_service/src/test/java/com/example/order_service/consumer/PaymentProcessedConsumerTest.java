@@ -267,6 +267,24 @@ class PaymentProcessedConsumerTest {
         verify(orderStateService, never()).updateOrderStatus(any(Order.class), eq(OrderStatus.PENDING));
     }
 
+    @Test
+    @DisplayName("Should record the payment summary on the order before marking it paid")
+    void shouldRecordPaymentSummary() {
+        // Arrange
+        validPaymentProcessedEvent.setTransactionId("txn-789");
+        validPaymentProcessedEvent.setLastFourDigits("4242");
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(mockOrder));
+
+        // Act
+        paymentProcessedConsumer.paymentProcessedConsumer(validPaymentProcessedEvent);
+
+        // Assert
+        verify(orderStateService).updateOrderStatus(mockOrder, OrderStatus.PAID);
+        assertThat(mockOrder.getPaymentStatus()).isEqualTo("PROCESSED");
+        assertThat(mockOrder.getTransactionId()).isEqualTo("txn-789");
+        assertThat(mockOrder.getLastFourDigits()).isEqualTo("4242");
+    }
+
     @Test
     @DisplayName("Should preserve order data integrity during status update")
     void shouldPreserveOrderDataIntegrityDuringStatusUpdate() throws Exception {
@@ -0,0 +1,87 @@
+package com.example.order_service.controller;
+
+import com.example.order_service.dto.BatchOrderResponseDto;
+import com.example.order_service.dto.BatchOrderResultDto;
+import com.example.order_service.dto.CreateOrderDto;
+import com.example.order_service.exceptions.AppException;
+import com.example.order_service.mapper.OrderMapper;
+import com.example.order_service.service.OrderItemService;
+import com.example.order_service.service.OrderService;
+import com.example.shared_common.idempotency.ApiIdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderController Unit Tests")
+class OrderControllerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private OrderItemService orderItemService;
+
+    @Mock
+    private ApiIdempotencyService apiIdempotencyService;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    private OrderController orderController;
+
+    @BeforeEach
+    void setUp() {
+        orderController = new OrderController(orderService, orderItemService, apiIdempotencyService, orderMapper);
+
+        ReflectionTestUtils.setField(orderController, "maxBatchOrders", 5000);
+        ReflectionTestUtils.setField(orderController, "batchIdempotencyLockMs", 300000L);
+    }
+
+    @Test
+    @DisplayName("Should answer 409 without creating orders while the batch's key is held")
+    void shouldRejectBatchWhileKeyIsHeld() {
+        when(apiIdempotencyService.acquireLock("key-1", "order-batch-create", Duration.ofMillis(300000))).thenReturn(false);
+
+        assertThatThrownBy(() -> orderController.createOrders("key-1", List.of(new CreateOrderDto())))
+                .isInstanceOfSatisfying(AppException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.CONFLICT));
+
+        verify(orderService, never()).createOrders(anyList());
+        verify(apiIdempotencyService, never()).releaseLock(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should create the batch under the key's lock, store the response and release the lock")
+    void shouldCreateBatchUnderLock() throws AppException {
+        List<BatchOrderResultDto> results = List.of(BatchOrderResultDto.created(0, UUID.randomUUID(), "1"));
+
+        when(apiIdempotencyService.acquireLock("key-1", "order-batch-create", Duration.ofMillis(300000))).thenReturn(true);
+        when(apiIdempotencyService.checkAndRetrieve("key-1", "order-batch-create", BatchOrderResponseDto.class)).thenReturn(Optional.empty());
+        when(orderService.createOrders(anyList())).thenReturn(results);
+
+        ResponseEntity<BatchOrderResponseDto> response = orderController.createOrders("key-1", List.of(new CreateOrderDto()));
+
+        assertThat(response.getBody()).isEqualTo(new BatchOrderResponseDto(1, 0, results));
+        verify(apiIdempotencyService).storeResponse("key-1", "order-batch-create", response.getBody(), HttpStatus.OK);
+        verify(apiIdempotencyService).releaseLock("key-1", "order-batch-create");
+    }
+}
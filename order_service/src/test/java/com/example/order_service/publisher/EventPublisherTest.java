@@ -0,0 +1,66 @@
+package com.example.order_service.publisher;
+
+import com.example.events.common.Money;
+import com.example.events.payment.PaymentRequestEvent;
+import com.example.order_service.converter.AvroJsonConverter;
+import com.example.order_service.event.PaymentRequest;
+import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderEvent;
+import com.example.order_service.repository.OrderEventRepository;
+import com.example.order_service.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventPublisher Unit Tests")
+class EventPublisherTest {
+
+    @Mock
+    private OrderEventRepository orderEventRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private EventPublisher eventPublisher;
+
+    @Test
+    @DisplayName("Should queue the event in the outbox with a payload that decodes back to the same record")
+    void shouldQueueEventInOutbox() {
+        UUID orderId = UUID.randomUUID();
+        Order order = new Order();
+        order.setId(orderId);
+        when(orderRepository.getReferenceById(orderId)).thenReturn(order);
+
+        PaymentRequestEvent payload = PaymentRequestEvent.newBuilder()
+                .setOrderId(orderId.toString())
+                .setAmount(Money.newBuilder().setAmount(new BigDecimal("42.50")).build())
+                .setPaymentMethodToken("tok_visa")
+                .setPaymentMethodType("CARD")
+                .build();
+
+        eventPublisher.publish(new PaymentRequest("payment-request", payload, orderId.toString()));
+
+        ArgumentCaptor<OrderEvent> captor = ArgumentCaptor.forClass(OrderEvent.class);
+        verify(orderEventRepository).save(captor.capture());
+
+        OrderEvent queued = captor.getValue();
+        assertThat(queued.getOrder()).isSameAs(order);
+        assertThat(queued.getTopic()).isEqualTo("payment-request");
+        assertThat(queued.getPartitionKey()).isEqualTo(orderId.toString());
+        assertThat(queued.getSentAt()).isNull();
+        assertThat(AvroJsonConverter.fromJson(queued.getEventPayload(), queued.getPayloadType())).isEqualTo(payload);
+    }
+}
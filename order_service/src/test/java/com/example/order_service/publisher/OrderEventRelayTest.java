@@ -0,0 +1,152 @@
+package com.example.order_service.publisher;
+
+import com.example.events.common.Money;
+import com.example.events.payment.PaymentRequestEvent;
+import com.example.order_service.converter.AvroJsonConverter;
+import com.example.order_service.model.OrderEvent;
+import com.example.order_service.repository.OrderEventRepository;
+import org.apache.kafka.common.errors.NotEnoughReplicasException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderEventRelay Unit Tests")
+class OrderEventRelayTest {
+
+    @Mock
+    private OrderEventRepository orderEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OrderEventRelay relay;
+
+    private final UUID orderId = UUID.randomUUID();
+    private PaymentRequestEvent payload;
+    private OrderEvent event;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OrderEventRelay(orderEventRepository, kafkaTemplate, transactionTemplate);
+
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 5);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+
+        payload = PaymentRequestEvent.newBuilder()
+                .setOrderId(orderId.toString())
+                .setAmount(Money.newBuilder().setAmount(new BigDecimal("10.00")).build())
+                .setPaymentMethodToken("tok_visa")
+                .setPaymentMethodType("CARD")
+                .build();
+
+        event = new OrderEvent();
+        event.setId(UUID.randomUUID());
+        event.setTopic("payment-request");
+        event.setPartitionKey(orderId.toString());
+        event.setPayloadType(PaymentRequestEvent.class.getName());
+        event.setEventPayload(AvroJsonConverter.toJson(payload));
+    }
+
+    @Test
+    @DisplayName("Should send the locked batch with one flush and mark it sent")
+    void shouldSendBatchAndMarkSent() {
+        when(orderEventRepository.lockUnsent(500, 5)).thenReturn(List.of(event));
+        when(kafkaTemplate.send("payment-request", orderId.toString(), payload)).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        verify(kafkaTemplate).flush();
+        verify(orderEventRepository).markSent(eq(List.of(event.getId())), any());
+    }
+
+    @Test
+    @DisplayName("Should leave the batch unsent when the broker rejects a send")
+    void shouldNotMarkSentWhenSendFails() {
+        when(orderEventRepository.lockUnsent(500, 5)).thenReturn(List.of(event));
+        when(kafkaTemplate.send("payment-request", orderId.toString(), payload))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relay();
+
+        verify(orderEventRepository, never()).markSent(anyCollection(), any());
+        verify(orderEventRepository).recordFailure(eq(event.getId()), contains("broker down"));
+    }
+
+    @Test
+    @DisplayName("Should send the rest of the batch and record the failure when a payload does not convert")
+    void shouldNotLetPoisonRowBlockBatch() {
+        OrderEvent poison = new OrderEvent();
+        poison.setId(UUID.randomUUID());
+        poison.setTopic("payment-request");
+        poison.setPartitionKey(orderId.toString());
+        poison.setPayloadType("com.example.events.Missing");
+        poison.setEventPayload(event.getEventPayload());
+
+        when(orderEventRepository.lockUnsent(500, 5)).thenReturn(List.of(poison, event));
+        when(kafkaTemplate.send("payment-request", orderId.toString(), payload)).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+
+        verify(orderEventRepository).recordFailure(eq(poison.getId()), anyString());
+        verify(orderEventRepository).markSent(eq(List.of(event.getId())), any());
+    }
+
+    @Test
+    @DisplayName("Should not count an attempt when a send fails with a retriable error")
+    void shouldNotCountRetriableFailures() {
+        when(orderEventRepository.lockUnsent(500, 5)).thenReturn(List.of(event));
+        when(kafkaTemplate.send("payment-request", orderId.toString(), payload))
+                .thenReturn(CompletableFuture.failedFuture(new NotEnoughReplicasException("not enough replicas")));
+
+        assertThat(relay.relayBatch()).isZero();
+
+        verify(orderEventRepository, never()).recordFailure(any(), any());
+        verify(orderEventRepository, never()).markSent(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Should end the run when a full batch is left for a retry")
+    void shouldStopDrainingWhileBrokerIsUnavailable() {
+        ReflectionTestUtils.setField(relay, "batchSize", 1);
+
+        when(orderEventRepository.lockUnsent(1, 5)).thenReturn(List.of(event));
+        when(kafkaTemplate.send("payment-request", orderId.toString(), payload))
+                .thenReturn(CompletableFuture.failedFuture(new NotEnoughReplicasException("not enough replicas")));
+
+        relay.relay();
+
+        verify(orderEventRepository, times(1)).lockUnsent(1, 5);
+    }
+}
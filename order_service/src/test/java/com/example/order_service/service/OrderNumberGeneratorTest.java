@@ -0,0 +1,115 @@
+package com.example.order_service.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("OrderNumberGenerator Unit Tests")
+class OrderNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 500_000;
+
+    @Test
+    @DisplayName("Should hand out unique ids from many threads at over a million per second")
+    void shouldGenerateUniqueIdsConcurrently() throws Exception {
+        OrderNumberGenerator generator = new OrderNumberGenerator();
+        generator.setNodeId(7);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            Future<?>[] workers = new Future<?>[THREADS];
+            long[][] ids = new long[THREADS][IDS_PER_THREAD];
+
+            for (int t = 0; t < THREADS; t++) {
+                long[] mine = ids[t];
+                workers[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < mine.length; i++) {
+                        mine[i] = generator.nextId();
+                    }
+                    return null;
+                });
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+            long[] all = Arrays.stream(ids).flatMapToLong(Arrays::stream).sorted().toArray();
+
+            assertThat(Arrays.stream(all).distinct().count()).isEqualTo((long) THREADS * IDS_PER_THREAD);
+            assertThat(Long.toString(all[all.length - 1]).length()).isLessThanOrEqualTo(30);
+            // A loose floor that still catches a regression to a lock or a database round trip;
+            // OrderNumberGeneratorBenchmark measures the real figure
+            assertThat(THREADS * IDS_PER_THREAD / seconds).isGreaterThan(1_000_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep ids increasing when the sequence overflows and the clock steps back")
+    void shouldStayMonotonicAcrossOverflowAndClockSkew() {
+        AtomicLong now = new AtomicLong(OrderNumberGenerator.EPOCH_MS + 1_000);
+        OrderNumberGenerator generator = new OrderNumberGenerator(now::get);
+        generator.setNodeId(OrderNumberGenerator.MAX_NODE_ID);
+
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                now.addAndGet(-500);
+            }
+
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+
+        // Same millisecond and sequence on another node gives a different id
+        OrderNumberGenerator other = new OrderNumberGenerator(() -> OrderNumberGenerator.EPOCH_MS + 1_000);
+        other.setNodeId(0);
+        OrderNumberGenerator first = new OrderNumberGenerator(() -> OrderNumberGenerator.EPOCH_MS + 1_000);
+        first.setNodeId(1);
+        assertThat(other.nextId()).isNotEqualTo(first.nextId());
+    }
+
+    @Test
+    @DisplayName("Should stop handing out ids once the node id lease runs out")
+    void shouldRefuseAfterLeaseRunsOut() {
+        AtomicLong now = new AtomicLong(OrderNumberGenerator.EPOCH_MS + 1_000);
+        OrderNumberGenerator generator = new OrderNumberGenerator(now::get);
+        generator.setNodeId(3, now.get() + 100);
+
+        generator.nextId();
+        now.addAndGet(100);
+
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+
+        generator.setNodeId(3, now.get() + 100);
+        assertThat(generator.nextId()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should refuse to generate without a node id")
+    void shouldRequireNodeId() {
+        OrderNumberGenerator generator = new OrderNumberGenerator();
+
+        assertThatThrownBy(generator::generateOrderNumber).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> generator.setNodeId(OrderNumberGenerator.MAX_NODE_ID + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
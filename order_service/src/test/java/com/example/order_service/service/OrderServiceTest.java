@@ -0,0 +1,243 @@
+package com.example.order_service.service;
+
+import com.example.events.order.OrderCreatedEvent;
+import com.example.order_service.dto.AddressDto;
+import com.example.order_service.dto.BatchOrderResultDto;
+import com.example.order_service.dto.CreateOrderDto;
+import com.example.order_service.dto.OrderCursorPageDto;
+import com.example.order_service.dto.OrderDto;
+import com.example.order_service.dto.OrderItemDto;
+import com.example.order_service.dto.PricingDto;
+import com.example.order_service.exceptions.AppException;
+import com.example.order_service.mapper.OrderEventMapper;
+import com.example.order_service.mapper.OrderItemMapper;
+import com.example.order_service.mapper.OrderMapper;
+import com.example.order_service.model.Order;
+import com.example.order_service.model.OrderItem;
+import com.example.order_service.publisher.EventPublisher;
+import com.example.order_service.repository.OrderViewJdbcRepository;
+import com.example.order_service.repository.OrderRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderService Unit Tests")
+class OrderServiceTest {
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderViewJdbcRepository orderViewJdbcRepository;
+
+    @Mock
+    private OrderNumberGenerator orderNumberGenerator;
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    @Mock
+    private OrderItemMapper orderItemMapper;
+
+    @Mock
+    private OrderEventMapper orderEventMapper;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderMapper, orderRepository, orderViewJdbcRepository, orderNumberGenerator, eventPublisher, orderItemMapper,
+                orderEventMapper, transactionTemplate, Validation.buildDefaultValidatorFactory().getValidator());
+
+        ReflectionTestUtils.setField(orderService, "orderCreatedTopic", "order-created");
+        ReflectionTestUtils.setField(orderService, "batchChunkSize", 500);
+    }
+
+    @Test
+    @DisplayName("Should read an order missing from the view from the orders table")
+    void shouldFallBackToOrdersWhenViewRowIsMissing() {
+        UUID orderId = UUID.randomUUID();
+        Order order = new Order();
+        order.setId(orderId);
+        order.getOrderItems().add(new OrderItem());
+        OrderItemDto itemDto = new OrderItemDto();
+
+        when(orderViewJdbcRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderMapper.toOrderDto(order)).thenReturn(new OrderDto());
+        when(orderItemMapper.toOrderItemDto(any())).thenReturn(itemDto);
+
+        Optional<OrderDto> result = orderService.getOrder(orderId);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getItems()).containsExactly(itemDto);
+    }
+
+    private void stubOrderCreation() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        when(orderMapper.createOrderDtoToOrder(any())).thenAnswer(invocation -> {
+            Order order = new Order();
+            order.setCustomerId(invocation.<CreateOrderDto>getArgument(0).getCustomerId());
+            return order;
+        });
+        when(orderItemMapper.toOrderItem(any(), any())).thenReturn(new OrderItem());
+        when(orderNumberGenerator.generateOrderNumber()).thenReturn("42");
+        when(orderEventMapper.toOrderCreatedEvent(any())).thenReturn(new OrderCreatedEvent());
+    }
+
+    @Test
+    @DisplayName("Should create the valid orders of a batch in one write and report the invalid ones")
+    void shouldReportInvalidOrdersAndCreateValidOnes() {
+        stubOrderCreation();
+
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+
+        CreateOrderDto invalid = validOrder();
+        invalid.setCustomerId(null);
+
+        List<BatchOrderResultDto> results = orderService.createOrders(List.of(validOrder(), invalid, validOrder()));
+
+        assertThat(results).extracting(BatchOrderResultDto::getStatus).containsExactly("CREATED", "FAILED", "CREATED");
+        assertThat(results.get(1).getError()).contains("customerId");
+        assertThat(results.get(2).getIndex()).isEqualTo(2);
+        verify(orderRepository).saveAll(argThat((List<Order> orders) -> orders.size() == 2));
+        verify(eventPublisher).publishAll(argThat(events -> events.size() == 2));
+        verify(orderViewJdbcRepository).insertAll(argThat((List<Order> orders) -> orders.size() == 2));
+    }
+
+    @Test
+    @DisplayName("Should retry a failed chunk order by order so only the bad order fails")
+    void shouldIsolateFailingOrder() {
+        stubOrderCreation();
+
+        UUID rejectedCustomer = UUID.randomUUID();
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            if (orders.stream().anyMatch(order -> rejectedCustomer.equals(order.getCustomerId()))) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return assignIds(orders);
+        });
+
+        CreateOrderDto rejected = validOrder();
+        rejected.setCustomerId(rejectedCustomer);
+
+        List<BatchOrderResultDto> results = orderService.createOrders(List.of(validOrder(), rejected));
+
+        assertThat(results).extracting(BatchOrderResultDto::getStatus).containsExactly("CREATED", "FAILED");
+        assertThat(results.get(0).getOrderId()).isNotNull();
+        assertThat(results.get(1).getError()).isEqualTo("Order conflicts with existing data");
+    }
+
+    @Test
+    @DisplayName("Should hand out a cursor after the last order that continues strictly after it")
+    void shouldContinueAfterCursor() throws AppException {
+        List<OrderDto> firstPage = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OrderDto order = new OrderDto();
+            order.setId(UUID.randomUUID());
+            order.setCreatedAt(LocalDateTime.of(2026, 10, 1, 12, 0, 0, 123_456_000).minusMinutes(i));
+            firstPage.add(order);
+        }
+        UUID customerId = UUID.randomUUID();
+        when(orderViewJdbcRepository.findPage(eq(customerId), eq("PAID"), isNull(), isNull(), eq(3))).thenReturn(firstPage);
+
+        OrderCursorPageDto page = orderService.getOrdersAfter("", 2, customerId, "PAID", false);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getTotal()).isNull();
+        verify(orderViewJdbcRepository, never()).count(any(), any());
+
+        OrderDto last = firstPage.get(1);
+        when(orderViewJdbcRepository.findPage(customerId, "PAID", last.getCreatedAt(), last.getId(), 3)).thenReturn(List.of(firstPage.get(2)));
+        when(orderViewJdbcRepository.count(customerId, "PAID")).thenReturn(3L);
+
+        OrderCursorPageDto next = orderService.getOrdersAfter(page.getNextCursor(), 2, customerId, "PAID", true);
+
+        assertThat(next.getItems()).containsExactly(firstPage.get(2));
+        assertThat(next.getNextCursor()).isNull();
+        assertThat(next.getTotal()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors and unknown statuses")
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> orderService.getOrdersAfter("not-a-cursor", 20, null, null, false))
+                .isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> orderService.getOrdersAfter("", 20, null, "LOST", false))
+                .isInstanceOf(AppException.class);
+    }
+
+    private static List<Order> assignIds(List<Order> orders) {
+        orders.forEach(order -> order.setId(UUID.randomUUID()));
+        return orders;
+    }
+
+    private static CreateOrderDto validOrder() {
+        OrderItemDto item = new OrderItemDto();
+        item.setProductId(UUID.randomUUID());
+        item.setProductName("Keyboard");
+        item.setProductSku("KB-1");
+        item.setQuantity(1);
+        item.setUnitPrice(new BigDecimal("49.99"));
+
+        AddressDto address = new AddressDto();
+        address.setStreet("Main St 1");
+        address.setCity("Berlin");
+        address.setState("BE");
+        address.setZipCode("10115");
+        address.setCountry("DE");
+
+        PricingDto pricing = new PricingDto();
+        pricing.setSubTotal(new BigDecimal("49.99"));
+        pricing.setTaxAmount(new BigDecimal("10.50"));
+        pricing.setShippingAmount(new BigDecimal("4.99"));
+        pricing.setTotalAmount(new BigDecimal("65.48"));
+
+        CreateOrderDto order = new CreateOrderDto();
+        order.setCustomerId(UUID.randomUUID());
+        order.setCustomerEmail("buyer@example.com");
+        order.setCustomerName("Buyer");
+        order.setItems(List.of(item));
+        order.setShippingAddress(address);
+        order.setPaymentMethodToken("tok_visa");
+        order.setPaymentMethodType("CARD");
+        order.setPricing(pricing);
+        return order;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.order_service.service;
+
+import com.example.order_service.repository.OrderViewJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderViewBackfill Unit Tests")
+class OrderViewBackfillTest {
+
+    @Mock
+    private OrderViewJdbcRepository orderViewJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OrderViewBackfill orderViewBackfill;
+
+    @BeforeEach
+    void setUp() {
+        orderViewBackfill = new OrderViewBackfill(orderViewJdbcRepository, transactionTemplate);
+
+        ReflectionTestUtils.setField(orderViewBackfill, "enabled", true);
+        ReflectionTestUtils.setField(orderViewBackfill, "batchSize", 2);
+    }
+
+    @Test
+    @DisplayName("Should keep backfilling while batches come back full")
+    void shouldBackfillUntilBatchIsNotFull() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        when(orderViewJdbcRepository.backfill(2)).thenReturn(2, 2, 1);
+
+        orderViewBackfill.backfill();
+
+        verify(orderViewJdbcRepository, times(3)).backfill(2);
+    }
+
+    @Test
+    @DisplayName("Should not backfill when disabled")
+    void shouldSkipWhenDisabled() {
+        ReflectionTestUtils.setField(orderViewBackfill, "enabled", false);
+
+        orderViewBackfill.backfill();
+
+        verify(orderViewJdbcRepository, never()).backfill(any(Integer.class));
+    }
+}
@@ -0,0 +1,69 @@
+-- Converts a plain inventory_service.stock_reservation table, left by schemas from before it was
+-- partitioned, into the daily partitioned table schema.sql describes. inventory_service refuses to
+-- start until this has run. Stop every inventory_service instance, then:
+--
+--   psql "$INVENTORY_DB_URL" -f scripts/stock-reservation-partitioning.sql
+--
+-- Every day that holds rows gets its partition, so the rows are copied as they are; days past the
+-- retention are archived by StockReservationPartitionMaintainer on its first run. The old table is
+-- dropped in the same transaction, so a failure leaves it untouched.
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+
+LOCK TABLE inventory_service.stock_reservation IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE inventory_service.stock_reservation RENAME TO stock_reservation_unpartitioned;
+ALTER INDEX IF EXISTS inventory_service.stock_reservation_pkey RENAME TO stock_reservation_unpartitioned_pkey;
+DROP INDEX IF EXISTS inventory_service.idx_stock_reservation_order;
+DROP INDEX IF EXISTS inventory_service.idx_stock_reservation_reserved_product;
+DROP INDEX IF EXISTS inventory_service.idx_stock_reservation_reserved_expires;
+
+CREATE TABLE inventory_service.stock_reservation(
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL,
+    product_id UUID NOT NULL,
+    quantity INTEGER NOT NULL,
+    bucket INTEGER,
+    warehouse_id VARCHAR(20),
+    status VARCHAR(20) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_stock_reservation_order
+    ON inventory_service.stock_reservation(order_id);
+
+CREATE INDEX idx_stock_reservation_reserved_product
+    ON inventory_service.stock_reservation(product_id) INCLUDE (quantity)
+    WHERE status = 'RESERVED';
+
+CREATE INDEX idx_stock_reservation_reserved_expires
+    ON inventory_service.stock_reservation(expires_at)
+    WHERE status = 'RESERVED';
+
+-- One partition per day from the oldest row up to a week ahead, named as the maintainer names them
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR day IN
+        SELECT generate_series(
+                       LEAST(COALESCE((SELECT MIN(created_at)::date FROM inventory_service.stock_reservation_unpartitioned), CURRENT_DATE), CURRENT_DATE),
+                       CURRENT_DATE + 7, INTERVAL '1 day')::date
+    LOOP
+        EXECUTE format('CREATE TABLE inventory_service.%I PARTITION OF inventory_service.stock_reservation FOR VALUES FROM (%L) TO (%L)',
+                       'stock_reservation_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+-- Tables from before sharding and warehouse allocation have neither bucket nor warehouse_id
+INSERT INTO inventory_service.stock_reservation (id, order_id, product_id, quantity, status, expires_at, created_at)
+SELECT id, order_id, product_id, quantity, status, expires_at, COALESCE(created_at, CURRENT_TIMESTAMP)
+FROM inventory_service.stock_reservation_unpartitioned;
+
+DROP TABLE inventory_service.stock_reservation_unpartitioned;
+
+COMMIT;
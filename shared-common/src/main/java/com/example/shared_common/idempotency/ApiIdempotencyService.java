@@ -94,7 +94,7 @@ public class ApiIdempotencyService {
     }
 
     public boolean acquireLock(String idempotencyKey, String prefix, Duration lockDuration) {
-        String lockKey = prefix + "lock:" + idempotencyKey;
+        String lockKey = prefix + ":lock:" + idempotencyKey;
         Boolean acquired = redisTemplate.opsForValue()
                 .setIfAbsent(lockKey, "1", lockDuration);
 
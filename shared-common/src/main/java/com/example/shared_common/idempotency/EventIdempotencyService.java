@@ -2,10 +2,19 @@ package com.example.shared_common.idempotency;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -15,6 +24,18 @@ public class EventIdempotencyService {
     private static final Duration EVENT_TTL = Duration.ofDays(7);
     private static final Duration PROCESSING_LOCK_TTL = Duration.ofMinutes(5);
 
+    // KEYS holds (processed key, lock key) pairs; returns the 1-based pair numbers that were claimed
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_BATCH_SCRIPT = new DefaultRedisScript<>("""
+            local claimed = {}
+            for i = 1, #KEYS, 2 do
+                if redis.call('EXISTS', KEYS[i]) == 0 and redis.call('SET', KEYS[i + 1], '1', 'NX', 'EX', ARGV[1]) then
+                    table.insert(claimed, (i + 1) / 2)
+                end
+            end
+            return claimed
+            """, List.class);
+
     public EventIdempotencyService(
             RedisTemplate<String, String> redisTemplate,
             @Value("${spring.application.name:unknown}") String serviceName) {
@@ -91,6 +112,66 @@ public class EventIdempotencyService {
         }
     }
 
+    /**
+     * Batch counterpart of {@link #processOnce}: in one round trip, takes the processing lock of
+     * every event in {@code eventIds} that has not been processed yet. Returns the claimed events;
+     * the caller must hand each of them to {@link #completeBatch} once it is done.
+     */
+    public Set<String> claimBatch(Collection<String> eventIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(eventIds));
+        Set<String> claimed = new LinkedHashSet<>();
+
+        if (ids.isEmpty()) {
+            return claimed;
+        }
+
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        ids.forEach(id -> {
+            keys.add(buildProcessedKey(id));
+            keys.add(buildLockKey(id));
+        });
+
+        List<?> claimedPositions = redisTemplate.execute(CLAIM_BATCH_SCRIPT, keys, String.valueOf(PROCESSING_LOCK_TTL.toSeconds()));
+
+        if (claimedPositions != null) {
+            claimedPositions.forEach(position -> claimed.add(ids.get(((Number) position).intValue() - 1)));
+        }
+
+        log.debug("Claimed {} of {} events for {}", claimed.size(), ids.size(), serviceName);
+        return claimed;
+    }
+
+    /**
+     * Marks {@code processedIds} as processed and releases the processing locks of both
+     * {@code processedIds} and {@code abandonedIds}, in one pipelined round trip.
+     */
+    public void completeBatch(Collection<String> processedIds, Collection<String> abandonedIds) {
+        if (processedIds.isEmpty() && abandonedIds.isEmpty()) {
+            return;
+        }
+
+        byte[] value = "1".getBytes(StandardCharsets.UTF_8);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String id : processedIds) {
+                connection.stringCommands().setEx(rawKey(buildProcessedKey(id)), EVENT_TTL.toSeconds(), value);
+                connection.keyCommands().del(rawKey(buildLockKey(id)));
+            }
+
+            for (String id : abandonedIds) {
+                connection.keyCommands().del(rawKey(buildLockKey(id)));
+            }
+
+            return null;
+        });
+
+        log.debug("Completed batch of {} events ({} abandoned) for {}", processedIds.size(), abandonedIds.size(), serviceName);
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
     private String buildProcessedKey(String eventId) {
         return String.format("event:processed:%s:%s", serviceName, eventId);
     }